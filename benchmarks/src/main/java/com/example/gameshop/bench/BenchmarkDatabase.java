@@ -0,0 +1,136 @@
+package com.example.gameshop.bench;
+
+import com.example.gameshop.dao.DatabaseManager;
+import com.example.gameshop.models.Game;
+import com.example.gameshop.models.GameDetails;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Creates the schema and seeds it with deterministic DatasetGenerator data for the benchmarks. Runs
+// against an in-memory H2 database in MySQL mode unless -Dgameshop.db.url (plus user, password, driver)
+// points at a real server, e.g. java -jar benchmarks.jar -jvmArgs "-Dgameshop.db.url=jdbc:mysql://...".
+// The target database is wiped on every trial.
+public final class BenchmarkDatabase {
+    public static final String DEFAULT_URL =
+        "jdbc:h2:mem:gameshop-bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    // Balance every user is reset to between purchase benchmark iterations
+    static final double STARTING_BALANCE = 1_000_000.0;
+
+    private static final int BATCH_SIZE = 5_000;
+    private static final long SEED = Long.getLong("gameshop.bench.seed", 42L);
+
+    private static final String[] GENRES = {
+        "Action", "Adventure", "RPG", "Strategy", "Simulation", "Racing", "Puzzle", "Indie"
+    };
+
+    static {
+        // Must be set before DatabaseConnection is first touched
+        setDefault("gameshop.db.url", DEFAULT_URL);
+        setDefault("gameshop.db.user", "sa");
+        setDefault("gameshop.db.password", "");
+        setDefault("gameshop.db.driver", System.getProperty("gameshop.db.url").startsWith("jdbc:h2:")
+            ? "org.h2.Driver" : "com.mysql.cj.jdbc.Driver");
+    }
+
+    private BenchmarkDatabase() {
+    }
+
+    private static void setDefault(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+
+    // Recreates the schema and fills it with DatasetGenerator. Each of the config's reserved games
+    // also gets one key per user, so the purchase benchmark can buy every (user, reserved game) pair.
+    public static void seed(DatasetGenerator.Config config) throws SQLException {
+        try (Connection conn = connect()) {
+            DatasetGenerator.createSchema(conn);
+            new DatasetGenerator(config, SEED, BATCH_SIZE).generate(conn);
+            conn.setAutoCommit(false);
+            insertKeys(conn, config.getUsers(), config.getGames() - config.getReservedGames() + 1, config.getGames());
+            conn.commit();
+        }
+        // Drop whatever an earlier trial in this JVM left in the catalog cache
+        DatabaseManager.getInstance().refreshGames();
+    }
+
+    // Undoes the purchases made on games from firstGameId up, so a new iteration starts from the seed
+    public static void resetPurchases(int firstGameId) throws SQLException {
+        try (Connection conn = connect()) {
+            conn.setAutoCommit(false);
+            execute(conn, "DELETE FROM purchases WHERE game_id >= ?", firstGameId);
+            execute(conn, "DELETE FROM user_games WHERE game_id >= ?", firstGameId);
+            execute(conn, "UPDATE game_keys SET is_sold = false, user_id = NULL, reserved_by = NULL, " +
+                "reserved_until = NULL WHERE game_id >= ?", firstGameId);
+            try (PreparedStatement stmt = conn.prepareStatement("UPDATE users SET balance = ?")) {
+                stmt.setDouble(1, STARTING_BALANCE);
+                stmt.executeUpdate();
+            }
+            conn.commit();
+        }
+    }
+
+    // A Steam library as SteamClient would return it, for syncSteamGames
+    public static List<Game> generateSteamLibrary(int count, Random random) {
+        List<Game> library = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            String genre = GENRES[random.nextInt(GENRES.length)];
+            GameDetails details = new GameDetails("Studio " + random.nextInt(200), "Publisher " + random.nextInt(40),
+                genre, "A " + genre.toLowerCase() + " game", Math.round(random.nextDouble() * 6000) / 100.0);
+            Game steamGame = new Game("Steam App " + (200_000 + i), details, random.nextInt(10_000));
+            steamGame.setAppId(200_000 + i);
+            library.add(steamGame);
+        }
+        return library;
+    }
+
+    private static Connection connect() throws SQLException {
+        try {
+            Class.forName(System.getProperty("gameshop.db.driver"));
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("JDBC driver " + System.getProperty("gameshop.db.driver") + " not found.", e);
+        }
+        return DriverManager.getConnection(System.getProperty("gameshop.db.url"),
+            System.getProperty("gameshop.db.user"), System.getProperty("gameshop.db.password"));
+    }
+
+    private static void insertKeys(Connection conn, int keysPerGame, int firstGameId, int lastGameId)
+            throws SQLException {
+        String sql = "INSERT INTO game_keys (game_id, key_value) VALUES (?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int pending = 0;
+            for (int gameId = firstGameId; gameId <= lastGameId; gameId++) {
+                for (int n = 0; n < keysPerGame; n++) {
+                    stmt.setInt(1, gameId);
+                    stmt.setString(2, "BENCH-" + gameId + "-" + n);
+                    stmt.addBatch();
+                    pending = flushIfFull(stmt, pending + 1);
+                }
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private static int flushIfFull(PreparedStatement stmt, int pending) throws SQLException {
+        if (pending < BATCH_SIZE) {
+            return pending;
+        }
+        stmt.executeBatch();
+        return 0;
+    }
+
+    private static void execute(Connection conn, String sql, int param) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, param);
+            stmt.executeUpdate();
+        }
+    }
+}
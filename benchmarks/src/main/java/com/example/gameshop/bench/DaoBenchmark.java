@@ -0,0 +1,106 @@
+package com.example.gameshop.bench;
+
+import com.example.gameshop.GameShopApp;
+import com.example.gameshop.dao.DatabaseManager;
+import com.example.gameshop.models.Game;
+import com.example.gameshop.models.SteamSyncResult;
+import com.example.gameshop.models.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Read paths and the Steam library sync, against a database seeded with a DatasetGenerator preset
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DaoBenchmark {
+    // DatasetGenerator tier: SMALL (10k users), MEDIUM (1M) or LARGE (10M)
+    @Param({"SMALL"})
+    public String preset;
+
+    @Param({"200"})
+    public int steamLibrarySize;
+
+    // Matched as '%term%' against usernames (player_1 .. player_N)
+    @Param({"12"})
+    public String userQuery;
+
+    private DatabaseManager dbManager;
+    private int users;
+    private int games;
+
+    @Setup
+    public void setUp() throws SQLException {
+        DatasetGenerator.Config config = DatasetGenerator.Preset.valueOf(preset).getConfig();
+        BenchmarkDatabase.seed(config);
+        users = config.getUsers();
+        games = config.getGames();
+        dbManager = DatabaseManager.getInstance();
+
+        // searchUsers excludes the logged-in user
+        User current = new User(DatasetGenerator.username(1), "password", "player_1@example.com");
+        current.setUserId(1);
+        GameShopApp.setCurrentUser(current);
+    }
+
+    @Benchmark
+    public List<Game> getAllGamesCached() throws SQLException {
+        return dbManager.getAllGames();
+    }
+
+    // Full catalog read from the database, bypassing the cache
+    @Benchmark
+    public List<Game> getAllGamesUncached() throws SQLException {
+        return dbManager.refreshGames();
+    }
+
+    @Benchmark
+    public boolean userOwnsGame() throws SQLException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return dbManager.userOwnsGame(1 + random.nextInt(users), 1 + random.nextInt(games));
+    }
+
+    @Benchmark
+    public List<User> searchUsers() throws SQLException {
+        return dbManager.searchUsers(userQuery);
+    }
+
+    // A background re-sync of a random user's library with one game's playtime moved on; the first
+    // sync of each user inserts the whole library
+    @Benchmark
+    public SteamSyncResult syncSteamGames(SteamLibrary library) throws SQLException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Game played = library.games.get(random.nextInt(library.games.size()));
+        played.setPlaytime(played.getPlaytime() + 1);
+        return dbManager.syncSteamGames(1 + random.nextInt(users), library.games);
+    }
+
+    // Each benchmark thread bumps playtimes on its own copy, so with -t > 1 no thread edits a
+    // Game that another one is diffing
+    @State(Scope.Thread)
+    public static class SteamLibrary {
+        private List<Game> games;
+
+        @Setup
+        public void setUp(DaoBenchmark benchmark) {
+            games = BenchmarkDatabase.generateSteamLibrary(benchmark.steamLibrarySize, new Random(7));
+        }
+    }
+}
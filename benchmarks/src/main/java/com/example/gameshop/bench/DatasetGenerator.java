@@ -0,0 +1,536 @@
+package com.example.gameshop.bench;
+
+import com.example.gameshop.utils.DatabaseConnection;
+import com.example.gameshop.utils.SchemaMigrator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.logging.Logger;
+
+// Fills the DatabaseManager schema with production-shaped synthetic data: power-law library sizes
+// over Zipf-popular games, friend lists concentrated in dense communities, a key inventory per game
+// plus a sold key and purchase row for every owned game, and Steam libraries for linked accounts.
+//
+// Every row is derived from (seed, table, user), so the same seed always produces the same data
+// regardless of batch size. Rows are streamed through batched inserts and committed per batch,
+// so memory use stays flat even for the 10M-user preset.
+public class DatasetGenerator {
+    private static final Logger logger = Logger.getLogger(DatasetGenerator.class.getName());
+
+    private static final String[] ADJECTIVES = {
+        "Dark", "Space", "Lost", "Iron", "Crystal", "Silent", "Eternal", "Neon", "Wild", "Ancient",
+        "Broken", "Hidden", "Frozen", "Solar", "Shadow", "Golden"
+    };
+    private static final String[] NOUNS = {
+        "Kingdom", "Frontier", "Legends", "Odyssey", "Tactics", "Racer", "Souls", "Empire",
+        "Simulator", "Quest", "Arena", "Colony", "Dungeon", "Station", "Horizon", "Chronicles"
+    };
+    private static final String[] GENRES = {
+        "Action", "Adventure", "RPG", "Strategy", "Simulation", "Racing", "Puzzle", "Indie"
+    };
+
+    // Salts keep each table's random stream independent of the others
+    private static final long GAMES = 1;
+    private static final long USERS = 2;
+    private static final long KEYS = 3;
+    private static final long LIBRARY = 4;
+    private static final long FRIENDS = 5;
+    private static final long STEAM = 6;
+    private static final long POPULARITY = 7;
+
+    // Shape of the Lomax (Pareto II) distribution used for library and friend list sizes.
+    // 2.0 gives a median of about 0.4x the mean and a long tail of huge libraries.
+    private static final double TAIL_SHAPE = 2.0;
+    private static final int MAX_LIBRARY = 5_000;
+    private static final int MAX_FRIENDS = 1_000;
+    private static final int MIN_COMMUNITY = 20;
+    private static final int MAX_COMMUNITY = 200;
+    private static final double FRIENDS_IN_COMMUNITY = 0.85;
+    private static final double PENDING_FRIENDS = 0.1;
+    private static final long STEAM_ID_BASE = 76_561_197_960_265_728L;
+    private static final int STEAM_APP_ID_BASE = 100_000;
+    private static final long DAY_MILLIS = 86_400_000L;
+
+    // Benchmark tiers
+    public enum Preset {
+        SMALL(new Config(10_000, 2_000, 20, 10, 100, 0.4, 30)),
+        MEDIUM(new Config(1_000_000, 20_000, 25, 15, 250, 0.4, 40)),
+        LARGE(new Config(10_000_000, 50_000, 25, 20, 500, 0.4, 40));
+
+        private final Config config;
+
+        Preset(Config config) {
+            this.config = config;
+        }
+
+        public Config getConfig() {
+            return config;
+        }
+    }
+
+    public static class Config {
+        private final int users;
+        private final int games;
+        private final double ownedMean;
+        private final double friendsMean;
+        private final int inventoryKeysPerGame;
+        private final double steamLinkedFraction;
+        private final double steamLibraryMean;
+        // The last reservedGames games are never owned, so a benchmark can buy them
+        private final int reservedGames;
+
+        public Config(int users, int games, double ownedMean, double friendsMean, int inventoryKeysPerGame,
+                      double steamLinkedFraction, double steamLibraryMean) {
+            this(users, games, ownedMean, friendsMean, inventoryKeysPerGame, steamLinkedFraction,
+                steamLibraryMean, 0);
+        }
+
+        public Config(int users, int games, double ownedMean, double friendsMean, int inventoryKeysPerGame,
+                      double steamLinkedFraction, double steamLibraryMean, int reservedGames) {
+            if (reservedGames >= games) {
+                throw new IllegalArgumentException("reservedGames must be less than games");
+            }
+            this.users = users;
+            this.games = games;
+            this.ownedMean = ownedMean;
+            this.friendsMean = friendsMean;
+            this.inventoryKeysPerGame = inventoryKeysPerGame;
+            this.steamLinkedFraction = steamLinkedFraction;
+            this.steamLibraryMean = steamLibraryMean;
+            this.reservedGames = reservedGames;
+        }
+
+        public Config withReservedGames(int reservedGames) {
+            return new Config(users, games, ownedMean, friendsMean, inventoryKeysPerGame, steamLinkedFraction,
+                steamLibraryMean, reservedGames);
+        }
+
+        public int getUsers() { return users; }
+        public int getGames() { return games; }
+        public double getOwnedMean() { return ownedMean; }
+        public double getFriendsMean() { return friendsMean; }
+        public int getInventoryKeysPerGame() { return inventoryKeysPerGame; }
+        public double getSteamLinkedFraction() { return steamLinkedFraction; }
+        public double getSteamLibraryMean() { return steamLibraryMean; }
+        public int getReservedGames() { return reservedGames; }
+
+        @Override
+        public String toString() {
+            return String.format("users=%d, games=%d, ownedMean=%.1f, friendsMean=%.1f, keysPerGame=%d, " +
+                    "steamLinked=%.2f, steamLibraryMean=%.1f, reservedGames=%d",
+                    users, games, ownedMean, friendsMean, inventoryKeysPerGame, steamLinkedFraction,
+                    steamLibraryMean, reservedGames);
+        }
+    }
+
+    private final Config config;
+    private final long seed;
+    private final int batchSize;
+    // Game and Steam app popularity: rank -> id, and the cumulative Zipf weight of each rank
+    private final int[] gameByRank;
+    private final double[] gameCdf;
+    private final int steamApps;
+    private final double[] steamCdf;
+    private final long now = System.currentTimeMillis();
+
+    public DatasetGenerator(Config config, long seed, int batchSize) {
+        this.config = config;
+        this.seed = seed;
+        this.batchSize = batchSize;
+        int ownable = config.games - config.reservedGames;
+        this.gameByRank = shuffledIds(ownable, new SplittableRandom(mix(seed, POPULARITY, 0)));
+        this.gameCdf = zipfCdf(ownable);
+        this.steamApps = Math.max(10_000, config.games * 5);
+        this.steamCdf = zipfCdf(steamApps);
+    }
+
+    // Expects empty tables; users get ids 1..users and games 1..games
+    // Runs on the borrowed handle itself: the rows go out in JDBC batches, so the pool and
+    // instrumentation proxies cost a method call per row, not a round trip
+    public void generate(Connection conn) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            logger.info("Generating dataset: " + config + ", seed=" + seed);
+            insertGames(conn);
+            insertUsers(conn);
+            insertInventory(conn);
+            insertLibraries(conn);
+            insertFriends(conn);
+            insertSteamLibraries(conn);
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    private void insertGames(Connection conn) throws SQLException {
+        String sql = "INSERT INTO games (game_id, title, description, price, app_id, developer, publisher, genre) " +
+                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        try (Batch batch = new Batch(conn, sql, "games")) {
+            PreparedStatement stmt = batch.stmt;
+            for (int gameId = 1; gameId <= config.games; gameId++) {
+                SplittableRandom random = random(GAMES, gameId);
+                String title = title(random);
+                String genre = GENRES[random.nextInt(GENRES.length)];
+                stmt.setInt(1, gameId);
+                stmt.setString(2, title);
+                stmt.setString(3, "A " + genre.toLowerCase() + " game about " + title);
+                stmt.setDouble(4, gamePrice(gameId));
+                stmt.setInt(5, STEAM_APP_ID_BASE + gameId);
+                stmt.setString(6, "Studio " + (1 + random.nextInt(Math.max(1, config.games / 10))));
+                stmt.setString(7, "Publisher " + (1 + random.nextInt(Math.max(1, config.games / 50))));
+                stmt.setString(8, genre);
+                batch.add();
+            }
+        }
+    }
+
+    private void insertUsers(Connection conn) throws SQLException {
+        String sql = "INSERT INTO users (user_id, username, password, email, role, balance, steam_id, last_login) " +
+                     "VALUES (?, ?, ?, ?, 'USER', ?, ?, ?)";
+        try (Batch batch = new Batch(conn, sql, "users")) {
+            PreparedStatement stmt = batch.stmt;
+            for (int userId = 1; userId <= config.users; userId++) {
+                SplittableRandom random = random(USERS, userId);
+                stmt.setInt(1, userId);
+                stmt.setString(2, username(userId));
+                stmt.setString(3, "password");
+                stmt.setString(4, username(userId) + "@example.com");
+                stmt.setDouble(5, Math.round(random.nextDouble() * 20_000) / 100.0);
+                stmt.setString(6, isSteamLinked(userId) ? String.valueOf(STEAM_ID_BASE + userId) : null);
+                // Recent logins are more common than old ones
+                double daysAgo = 180 * Math.pow(random.nextDouble(), 3);
+                stmt.setTimestamp(7, random.nextDouble() < 0.05 ? null
+                    : new Timestamp(now - (long) (daysAgo * DAY_MILLIS)));
+                batch.add();
+            }
+        }
+    }
+
+    // Unsold keys; more popular games hold more stock
+    private void insertInventory(Connection conn) throws SQLException {
+        String sql = "INSERT INTO game_keys (game_id, key_value) VALUES (?, ?)";
+        try (Batch batch = new Batch(conn, sql, "game_keys (inventory)")) {
+            PreparedStatement stmt = batch.stmt;
+            for (int gameId = 1; gameId <= config.games; gameId++) {
+                SplittableRandom random = random(KEYS, gameId);
+                int keys = (int) Math.round(config.inventoryKeysPerGame * (0.25 + 1.5 * random.nextDouble()));
+                for (int n = 0; n < keys; n++) {
+                    stmt.setInt(1, gameId);
+                    stmt.setString(2, keyValue(random));
+                    batch.add();
+                }
+            }
+        }
+    }
+
+    // Each owned game is a user_games row, a purchases row and the sold key, as a checkout leaves them
+    private void insertLibraries(Connection conn) throws SQLException {
+        String ownershipSql = "INSERT INTO user_games (user_id, game_id, purchase_date) VALUES (?, ?, ?)";
+        String purchaseSql = "INSERT INTO purchases (user_id, game_id, price, purchase_date) VALUES (?, ?, ?, ?)";
+        String keySql = "INSERT INTO game_keys (game_id, key_value, is_sold, user_id) VALUES (?, ?, true, ?)";
+        int ownable = gameByRank.length;
+        try (Batch ownership = new Batch(conn, ownershipSql, "user_games");
+             Batch purchases = new Batch(conn, purchaseSql, "purchases");
+             Batch keys = new Batch(conn, keySql, "game_keys (sold)")) {
+            Set<Integer> owned = new HashSet<>();
+            for (int userId = 1; userId <= config.users; userId++) {
+                SplittableRandom random = random(LIBRARY, userId);
+                int size = lomax(random, config.ownedMean, Math.min(MAX_LIBRARY, ownable / 2));
+                pickDistinct(random, size, gameCdf, owned);
+                for (int rank : owned) {
+                    int gameId = gameByRank[rank];
+                    Timestamp purchasedAt = new Timestamp(now - (long) (random.nextDouble() * 1_000 * DAY_MILLIS));
+
+                    ownership.stmt.setInt(1, userId);
+                    ownership.stmt.setInt(2, gameId);
+                    ownership.stmt.setTimestamp(3, purchasedAt);
+                    ownership.add();
+
+                    purchases.stmt.setInt(1, userId);
+                    purchases.stmt.setInt(2, gameId);
+                    purchases.stmt.setDouble(3, gamePrice(gameId));
+                    purchases.stmt.setTimestamp(4, purchasedAt);
+                    purchases.add();
+
+                    keys.stmt.setInt(1, gameId);
+                    keys.stmt.setString(2, keyValue(random));
+                    keys.stmt.setInt(3, userId);
+                    keys.add();
+                }
+            }
+        }
+    }
+
+    // Users are split into consecutive-id communities; most friends come from the user's own one
+    private void insertFriends(Connection conn) throws SQLException {
+        if (config.users < 2) {
+            return;
+        }
+        String sql = "INSERT INTO friends (user_id, friend_id, status) VALUES (?, ?, ?)";
+        try (Batch batch = new Batch(conn, sql, "friends")) {
+            PreparedStatement stmt = batch.stmt;
+            Set<Integer> friends = new HashSet<>();
+            int communityStart = 1;
+            while (communityStart <= config.users) {
+                SplittableRandom communityRandom = random(FRIENDS, -communityStart);
+                int communitySize = Math.min(config.users - communityStart + 1,
+                    MIN_COMMUNITY + communityRandom.nextInt(MAX_COMMUNITY - MIN_COMMUNITY + 1));
+                for (int userId = communityStart; userId < communityStart + communitySize; userId++) {
+                    SplittableRandom random = random(FRIENDS, userId);
+                    int size = lomax(random, config.friendsMean, Math.min(MAX_FRIENDS, config.users - 1));
+                    friends.clear();
+                    for (int attempts = 0; friends.size() < size && attempts < size * 20; attempts++) {
+                        int friendId = communitySize > 1 && random.nextDouble() < FRIENDS_IN_COMMUNITY
+                            ? communityStart + random.nextInt(communitySize)
+                            : 1 + random.nextInt(config.users);
+                        if (friendId != userId) {
+                            friends.add(friendId);
+                        }
+                    }
+                    for (int friendId : friends) {
+                        stmt.setInt(1, userId);
+                        stmt.setInt(2, friendId);
+                        stmt.setString(3, random.nextDouble() < PENDING_FRIENDS ? "PENDING" : "ACCEPTED");
+                        batch.add();
+                    }
+                }
+                communityStart += communitySize;
+            }
+        }
+    }
+
+    private void insertSteamLibraries(Connection conn) throws SQLException {
+        String sql = "INSERT INTO steam_games (user_id, app_id, title, playtime, name, developer, publisher, " +
+                     "genre, description, price, playtime_minutes) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        try (Batch batch = new Batch(conn, sql, "steam_games")) {
+            PreparedStatement stmt = batch.stmt;
+            Set<Integer> apps = new HashSet<>();
+            for (int userId = 1; userId <= config.users; userId++) {
+                if (!isSteamLinked(userId)) {
+                    continue;
+                }
+                SplittableRandom random = random(STEAM, userId);
+                int size = lomax(random, config.steamLibraryMean, Math.min(MAX_LIBRARY, steamApps / 2));
+                pickDistinct(random, size, steamCdf, apps);
+                for (int rank : apps) {
+                    int appId = STEAM_APP_ID_BASE + rank + 1;
+                    // Playtime is heavy-tailed too: most games are barely played
+                    int playtime = lomax(random, 600, 200_000);
+                    String name = "Steam App " + appId;
+                    stmt.setInt(1, userId);
+                    stmt.setInt(2, appId);
+                    stmt.setString(3, name);
+                    stmt.setInt(4, playtime);
+                    stmt.setString(5, name);
+                    stmt.setString(6, "Studio " + (appId % 997));
+                    stmt.setString(7, "Publisher " + (appId % 101));
+                    stmt.setString(8, GENRES[appId % GENRES.length]);
+                    stmt.setString(9, "Imported from Steam");
+                    stmt.setDouble(10, (appId % 60) + 0.99);
+                    stmt.setInt(11, playtime);
+                    batch.add();
+                }
+            }
+        }
+    }
+
+    // Drops every table (bench-schema.sql) and recreates them with the application's migrations, so the
+    // benchmarks run against the same tables and indexes as the app
+    public static void createSchema(Connection conn) throws SQLException {
+        String script;
+        try (InputStream in = DatasetGenerator.class.getResourceAsStream("/bench-schema.sql")) {
+            if (in == null) {
+                throw new SQLException("bench-schema.sql not found on the classpath");
+            }
+            script = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new SQLException("Failed to read bench-schema.sql", e);
+        }
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : script.replaceAll("(?m)^--.*$", "").split(";")) {
+                if (!sql.isBlank()) {
+                    stmt.execute(sql);
+                }
+            }
+        }
+        SchemaMigrator.migrate(conn);
+    }
+
+    public boolean isSteamLinked(int userId) {
+        return random(STEAM, -userId).nextDouble() < config.steamLinkedFraction;
+    }
+
+    public static String username(int userId) {
+        return "player_" + userId;
+    }
+
+    // Fills picked with `count` distinct ranks drawn from the Zipf CDF
+    private static void pickDistinct(SplittableRandom random, int count, double[] cdf, Set<Integer> picked) {
+        picked.clear();
+        for (int attempts = 0; picked.size() < count && attempts < count * 20; attempts++) {
+            picked.add(sample(random, cdf));
+        }
+    }
+
+    static int sample(SplittableRandom random, double[] cdf) {
+        double u = random.nextDouble() * cdf[cdf.length - 1];
+        int low = 0;
+        int high = cdf.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cdf[mid] < u) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Zipf with exponent 1: rank r is picked with weight 1/(r+1)
+    static double[] zipfCdf(int n) {
+        double[] cdf = new double[n];
+        double total = 0;
+        for (int rank = 0; rank < n; rank++) {
+            total += 1.0 / (rank + 1);
+            cdf[rank] = total;
+        }
+        return cdf;
+    }
+
+    // Lomax (Pareto II) draw with the given mean, floored and capped
+    static int lomax(SplittableRandom random, double mean, int max) {
+        double scale = mean * (TAIL_SHAPE - 1);
+        double value = scale * (Math.pow(1 - random.nextDouble(), -1 / TAIL_SHAPE) - 1);
+        return (int) Math.min(max, Math.floor(value));
+    }
+
+    private static int[] shuffledIds(int n, SplittableRandom random) {
+        int[] ids = new int[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = i + 1;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = ids[i];
+            ids[i] = ids[j];
+            ids[j] = tmp;
+        }
+        return ids;
+    }
+
+    private double gamePrice(int gameId) {
+        return Math.round((0.99 + random(GAMES, -gameId).nextDouble() * 69) * 100) / 100.0;
+    }
+
+    private static String title(SplittableRandom random) {
+        return ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + NOUNS[random.nextInt(NOUNS.length)] +
+            " " + (1 + random.nextInt(5));
+    }
+
+    private static String keyValue(SplittableRandom random) {
+        return String.format("%05X-%05X-%05X", random.nextInt(0x100000), random.nextInt(0x100000),
+            random.nextInt(0x100000));
+    }
+
+    private SplittableRandom random(long table, long id) {
+        return new SplittableRandom(mix(seed, table, id));
+    }
+
+    private static long mix(long seed, long table, long id) {
+        long z = seed * 0x9E3779B97F4A7C15L + table * 0xC2B2AE3D27D4EB4FL + id;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // A prepared insert that flushes and commits every batchSize rows, and reports its throughput
+    private class Batch implements AutoCloseable {
+        private final Connection conn;
+        private final PreparedStatement stmt;
+        private final String table;
+        private final long start = System.nanoTime();
+        private int pending;
+        private long rows;
+
+        Batch(Connection conn, String sql, String table) throws SQLException {
+            this.conn = conn;
+            this.stmt = conn.prepareStatement(sql);
+            this.table = table;
+        }
+
+        void add() throws SQLException {
+            stmt.addBatch();
+            rows++;
+            if (++pending >= batchSize) {
+                flush();
+                if (rows % (batchSize * 100L) == 0) {
+                    logger.info(String.format("%s: %,d rows", table, rows));
+                }
+            }
+        }
+
+        private void flush() throws SQLException {
+            if (pending > 0) {
+                stmt.executeBatch();
+                conn.commit();
+                pending = 0;
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                flush();
+            } finally {
+                stmt.close();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            logger.info(String.format("%s: %,d rows in %.1fs (%,.0f rows/s)", table, rows, seconds,
+                seconds == 0 ? 0.0 : rows / seconds));
+        }
+    }
+
+    // Usage: DatasetGenerator [--preset SMALL|MEDIUM|LARGE] [--seed N] [--batch N] [--reset]
+    // Connects with the application's settings (-Dgameshop.db.url etc.). --reset drops and recreates
+    // the tables first; otherwise they must exist and be empty.
+    public static void main(String[] args) throws Exception {
+        Preset preset = Preset.SMALL;
+        long seed = 42;
+        int batch = 5_000;
+        boolean reset = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--preset": preset = Preset.valueOf(args[++i].toUpperCase()); break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                case "--batch": batch = Integer.parseInt(args[++i]); break;
+                case "--reset": reset = true; break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        long start = System.nanoTime();
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            if (reset) {
+                createSchema(conn);
+            }
+            new DatasetGenerator(preset.getConfig(), seed, batch).generate(conn);
+        } finally {
+            DatabaseConnection.shutdown();
+        }
+        logger.info(String.format("Done in %.1fs", (System.nanoTime() - start) / 1e9));
+    }
+}
@@ -0,0 +1,444 @@
+package com.example.gameshop.bench;
+
+import com.example.gameshop.dao.DatabaseManager;
+import com.example.gameshop.models.Game;
+import com.example.gameshop.models.User;
+import com.example.gameshop.utils.DatabaseConnection;
+import com.example.gameshop.utils.LatencyHistogram;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.SQLTransientException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Headless load driver: N simulated shoppers log in and then browse, search, look at friends and
+// their library, add friends and buy games through the same DatabaseManager calls the scenes make,
+// with exponential think time in between. Runs one stage per requested user count and reports,
+// per operation, throughput, latency percentiles and how often calls were rejected by business
+// rules, lost to contention (deadlocks, lock waits, pool timeouts) or failed outright.
+//
+// Expects DatasetGenerator data (usernames player_1..player_N); --generate seeds it first.
+public class LoadHarness {
+    private static final Logger logger = Logger.getLogger(LoadHarness.class.getName());
+
+    private static final String[] SEARCH_TERMS = {
+        "da", "dark", "kingdom", "space st", "quest 3", "iron legends", "simulator", "zzyzx"
+    };
+    private static final double TOP_UP_AMOUNT = 100.0;
+
+    enum Op { LOGIN, BROWSE, SEARCH, LIBRARY, FRIENDS, SEARCH_USERS, ADD_FRIEND, PURCHASE, ADD_FUNDS }
+
+    enum Outcome { OK, REJECTED, CONTENTION, ERROR }
+
+    // Relative frequency of each action once logged in
+    private static final Map<Op, Integer> DEFAULT_MIX = new LinkedHashMap<>();
+    static {
+        DEFAULT_MIX.put(Op.BROWSE, 30);
+        DEFAULT_MIX.put(Op.SEARCH, 25);
+        DEFAULT_MIX.put(Op.LIBRARY, 10);
+        DEFAULT_MIX.put(Op.FRIENDS, 10);
+        DEFAULT_MIX.put(Op.SEARCH_USERS, 5);
+        DEFAULT_MIX.put(Op.ADD_FRIEND, 5);
+        DEFAULT_MIX.put(Op.PURCHASE, 15);
+    }
+
+    private final DatabaseManager dbManager = DatabaseManager.getInstance();
+    private final Map<Op, Integer> mix;
+    private final int mixTotal;
+    private final long thinkMillis;
+    private final int sessionActions;
+    private int population;
+    private List<Game> catalog;
+
+    LoadHarness(Map<Op, Integer> mix, long thinkMillis, int sessionActions) {
+        this.mix = mix;
+        this.mixTotal = mix.values().stream().mapToInt(Integer::intValue).sum();
+        this.thinkMillis = thinkMillis;
+        this.sessionActions = sessionActions;
+    }
+
+    void prepare() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT MAX(user_id) FROM users");
+             ResultSet rs = stmt.executeQuery()) {
+            population = rs.next() ? rs.getInt(1) : 0;
+        }
+        catalog = dbManager.getAllGames();
+        if (population < 2 || catalog.isEmpty()) {
+            throw new IllegalStateException("No data to drive; seed the database first (--generate SMALL)");
+        }
+        logger.info(String.format("Driving %,d users and %,d games", population, catalog.size()));
+    }
+
+    StageResult runStage(int users, long durationMillis, long rampUpMillis, long reportMillis)
+            throws InterruptedException {
+        StageResult result = new StageResult(users);
+        long start = System.nanoTime();
+        long end = start + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+        List<Thread> shoppers = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            long startDelay = users == 1 ? 0 : rampUpMillis * i / users;
+            Thread shopper = new Thread(() -> shop(result, startDelay, end), "shopper-" + i);
+            shopper.setDaemon(true);
+            shoppers.add(shopper);
+            shopper.start();
+        }
+
+        long lastTotal = 0;
+        long lastReport = start;
+        while (System.nanoTime() < end) {
+            Thread.sleep(Math.min(reportMillis, Math.max(1, TimeUnit.NANOSECONDS.toMillis(end - System.nanoTime()))));
+            long now = System.nanoTime();
+            long total = result.totalCalls();
+            System.out.printf("[%d users] %5.0fs  %,8.0f ops/s  %s%n", users, (now - start) / 1e9,
+                (total - lastTotal) * 1e9 / (now - lastReport), DatabaseConnection.getPoolStats());
+            lastTotal = total;
+            lastReport = now;
+        }
+        for (Thread shopper : shoppers) {
+            shopper.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    // One simulated user: a session of sessionActions actions, then log in again as someone else
+    private void shop(StageResult result, long startDelay, long endNanos) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try {
+            Thread.sleep(startDelay);
+            while (System.nanoTime() < endNanos) {
+                User user = login(result, 1 + random.nextInt(population));
+                if (user == null) {
+                    think(random);
+                    continue;
+                }
+                for (int i = 0; i < sessionActions && System.nanoTime() < endNanos; i++) {
+                    think(random);
+                    act(result, user, pick(random), random);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private User login(StageResult result, int userId) {
+        return result.call(Op.LOGIN, () -> {
+            User user = dbManager.getUserByUsername(DatasetGenerator.username(userId));
+            if (user != null) {
+                dbManager.recordLogin(user.getUserId());
+            }
+            return user;
+        });
+    }
+
+    private void act(StageResult result, User user, Op op, ThreadLocalRandom random) {
+        int userId = user.getUserId();
+        switch (op) {
+            case BROWSE:
+                // The store scene: catalog plus the owned-game overlay
+                result.call(op, () -> {
+                    dbManager.getAllGames();
+                    return dbManager.getOwnedGameIds(userId);
+                });
+                break;
+            case SEARCH:
+                result.call(op, () -> dbManager.searchGames(SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)]));
+                break;
+            case LIBRARY:
+                result.call(op, () -> dbManager.getUserGames(userId));
+                break;
+            case FRIENDS:
+                result.call(op, () -> dbManager.getUserFriends(userId));
+                break;
+            case SEARCH_USERS:
+                result.call(op, () -> dbManager.searchUsers(String.valueOf(random.nextInt(1000)), userId));
+                break;
+            case ADD_FRIEND: {
+                // Mostly nearby ids, like the generator's communities, so duplicates do happen
+                int friendId = Math.max(1, Math.min(population, userId + random.nextInt(-100, 101)));
+                if (friendId != userId) {
+                    result.call(op, () -> {
+                        dbManager.addFriend(userId, friendId);
+                        return null;
+                    });
+                }
+                break;
+            }
+            case PURCHASE:
+                purchase(result, userId, catalog.get(random.nextInt(catalog.size())));
+                break;
+            default:
+                throw new IllegalArgumentException("Not a session action: " + op);
+        }
+    }
+
+    private void purchase(StageResult result, int userId, Game game) {
+        boolean[] broke = new boolean[1];
+        result.call(Op.PURCHASE, () -> {
+            if (dbManager.userOwnsGame(userId, game.getGameId())) {
+                throw new Rejected("Already owned");
+            }
+            if (!dbManager.purchaseGame(userId, game.getGameId(), game.getPrice())) {
+                broke[0] = true;
+                throw new Rejected("Insufficient balance");
+            }
+            return true;
+        });
+        if (broke[0]) {
+            // Top up like a user would, so later purchases keep exercising the checkout
+            result.call(Op.ADD_FUNDS, () -> {
+                dbManager.updateUserBalance(userId, dbManager.getUserBalance(userId) + TOP_UP_AMOUNT);
+                return null;
+            });
+        }
+    }
+
+    private Op pick(ThreadLocalRandom random) {
+        int roll = random.nextInt(mixTotal);
+        for (Map.Entry<Op, Integer> entry : mix.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Empty mix");
+    }
+
+    private void think(ThreadLocalRandom random) throws InterruptedException {
+        if (thinkMillis > 0) {
+            Thread.sleep((long) (-thinkMillis * Math.log(1 - random.nextDouble())));
+        }
+    }
+
+    static Outcome classify(Exception e) {
+        if (e instanceof Rejected || e instanceof SQLIntegrityConstraintViolationException) {
+            return Outcome.REJECTED;
+        }
+        // Deadlocks, lock wait and pool borrow timeouts
+        if (e instanceof SQLTransientException) {
+            return Outcome.CONTENTION;
+        }
+        String message = e.getMessage() == null ? "" : e.getMessage();
+        // PurchaseEngine's business rules surface as plain SQLExceptions
+        if (message.contains("already own") || message.contains("out of stock")) {
+            return Outcome.REJECTED;
+        }
+        // Drivers without the JDBC 4 subclasses still report the SQL state
+        if (e instanceof SQLException) {
+            String state = ((SQLException) e).getSQLState();
+            if (state != null && (state.startsWith("40") || state.startsWith("HYT"))) {
+                return Outcome.CONTENTION;
+            }
+            if (state != null && state.startsWith("23")) {
+                return Outcome.REJECTED;
+            }
+        }
+        return Outcome.ERROR;
+    }
+
+    // An expected refusal (already owned, no money) rather than a failure
+    private static class Rejected extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        Rejected(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    interface Action<T> {
+        T run() throws Exception;
+    }
+
+    static class OpStats {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final AtomicLong[] outcomes = new AtomicLong[Outcome.values().length];
+
+        OpStats() {
+            for (int i = 0; i < outcomes.length; i++) {
+                outcomes[i] = new AtomicLong();
+            }
+        }
+
+        void record(long nanos, Outcome outcome) {
+            latency.record(nanos);
+            outcomes[outcome.ordinal()].incrementAndGet();
+        }
+
+        long getCount() {
+            return latency.getCount();
+        }
+
+        long get(Outcome outcome) {
+            return outcomes[outcome.ordinal()].get();
+        }
+
+        String format(Op op, double seconds) {
+            long count = getCount();
+            return String.format("%-13s %9d %9.1f %8.2f %8.2f %8.2f %8.2f %9.2f %7.2f%% %7.2f%% %7.2f%%",
+                    op, count, count / seconds,
+                    latency.getValueAtPercentile(50) / 1e6, latency.getValueAtPercentile(95) / 1e6,
+                    latency.getValueAtPercentile(99) / 1e6, latency.getValueAtPercentile(99.9) / 1e6,
+                    latency.getMax() / 1e6,
+                    percent(get(Outcome.REJECTED), count), percent(get(Outcome.CONTENTION), count),
+                    percent(get(Outcome.ERROR), count));
+        }
+
+        private static double percent(long part, long total) {
+            return total == 0 ? 0.0 : 100.0 * part / total;
+        }
+    }
+
+    static class StageResult {
+        private final int users;
+        private final Map<Op, OpStats> stats = new LinkedHashMap<>();
+        private final AtomicLong loggedErrors = new AtomicLong();
+        private long elapsedNanos;
+
+        StageResult(int users) {
+            this.users = users;
+            for (Op op : Op.values()) {
+                stats.put(op, new OpStats());
+            }
+        }
+
+        // Returns the action's result, or null when it didn't succeed
+        <T> T call(Op op, Action<T> action) {
+            long start = System.nanoTime();
+            try {
+                T value = action.run();
+                stats.get(op).record(System.nanoTime() - start, Outcome.OK);
+                return value;
+            } catch (Exception e) {
+                Outcome outcome = classify(e);
+                stats.get(op).record(System.nanoTime() - start, outcome);
+                // A few samples are enough to tell what is going wrong
+                if (outcome == Outcome.ERROR && loggedErrors.incrementAndGet() <= 10) {
+                    logger.log(Level.WARNING, op + " failed", e);
+                }
+                return null;
+            }
+        }
+
+        long totalCalls() {
+            return stats.values().stream().mapToLong(OpStats::getCount).sum();
+        }
+
+        OpStats get(Op op) {
+            return stats.get(op);
+        }
+
+        void print() {
+            double seconds = elapsedNanos / 1e9;
+            System.out.printf("%n=== %d concurrent users, %.0fs, %,.0f ops/s ===%n", users, seconds,
+                totalCalls() / seconds);
+            System.out.printf("%-13s %9s %9s %8s %8s %8s %8s %9s %8s %8s %8s%n", "operation", "calls", "ops/s",
+                "p50 ms", "p95 ms", "p99 ms", "p999 ms", "max ms", "reject", "content", "error");
+            stats.forEach((op, opStats) -> {
+                if (opStats.getCount() > 0) {
+                    System.out.println(opStats.format(op, seconds));
+                }
+            });
+        }
+    }
+
+    static Map<Op, Integer> parseMix(String spec) {
+        Map<Op, Integer> mix = new LinkedHashMap<>();
+        for (String part : spec.split(",")) {
+            String[] pair = part.trim().split("=");
+            Op op = Op.valueOf(pair[0].trim().toUpperCase());
+            if (op == Op.LOGIN || op == Op.ADD_FUNDS) {
+                throw new IllegalArgumentException(op + " is not a session action");
+            }
+            mix.put(op, Integer.parseInt(pair[1].trim()));
+        }
+        return mix;
+    }
+
+    // Usage: LoadHarness [--users 10,50,100] [--duration 60] [--ramp-up 10] [--think 500] [--session 20]
+    //                    [--mix browse=30,search=25,...] [--report 5] [--generate SMALL [--seed 42]]
+    // Connects with the application's settings (-Dgameshop.db.url etc.; raise -Dgameshop.db.pool.maxSize
+    // to test a bigger pool). Each entry in --users is a separate stage, run in order.
+    public static void main(String[] args) throws Exception {
+        List<Integer> stages = List.of(10);
+        long durationSeconds = 60;
+        long rampUpSeconds = 10;
+        long thinkMillis = 500;
+        int session = 20;
+        long reportSeconds = 5;
+        Map<Op, Integer> mix = DEFAULT_MIX;
+        DatasetGenerator.Preset generate = null;
+        long seed = 42;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--users":
+                    stages = new ArrayList<>();
+                    for (String users : args[++i].split(",")) {
+                        stages.add(Integer.parseInt(users.trim()));
+                    }
+                    break;
+                case "--duration": durationSeconds = Long.parseLong(args[++i]); break;
+                case "--ramp-up": rampUpSeconds = Long.parseLong(args[++i]); break;
+                case "--think": thinkMillis = Long.parseLong(args[++i]); break;
+                case "--session": session = Integer.parseInt(args[++i]); break;
+                case "--report": reportSeconds = Long.parseLong(args[++i]); break;
+                case "--mix": mix = parseMix(args[++i]); break;
+                case "--generate": generate = DatasetGenerator.Preset.valueOf(args[++i].toUpperCase()); break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        try {
+            if (generate != null) {
+                try (Connection conn = DatabaseConnection.getConnection()) {
+                    DatasetGenerator.createSchema(conn);
+                    new DatasetGenerator(generate.getConfig(), seed, 5_000).generate(conn);
+                }
+            }
+            LoadHarness harness = new LoadHarness(mix, thinkMillis, session);
+            harness.prepare();
+            List<StageResult> results = new ArrayList<>();
+            for (int users : stages) {
+                results.add(harness.runStage(users, TimeUnit.SECONDS.toMillis(durationSeconds),
+                    TimeUnit.SECONDS.toMillis(rampUpSeconds), TimeUnit.SECONDS.toMillis(reportSeconds)));
+                results.get(results.size() - 1).print();
+            }
+            if (results.size() > 1) {
+                printScaling(results);
+            }
+        } finally {
+            DatabaseConnection.shutdown();
+        }
+    }
+
+    // One line per stage for the operations that usually give out first
+    private static void printScaling(List<StageResult> results) {
+        System.out.printf("%n=== scaling ===%n%-7s %9s %15s %15s %15s%n", "users", "ops/s",
+            "purchase p99", "friends p99", "contention");
+        for (StageResult result : results) {
+            double seconds = result.elapsedNanos / 1e9;
+            long contention = 0;
+            for (Op op : Op.values()) {
+                contention += result.get(op).get(Outcome.CONTENTION);
+            }
+            System.out.printf("%-7d %9.0f %12.2f ms %12.2f ms %14.2f%%%n", result.users,
+                result.totalCalls() / seconds,
+                result.get(Op.PURCHASE).latency.getValueAtPercentile(99) / 1e6,
+                result.get(Op.FRIENDS).latency.getValueAtPercentile(99) / 1e6,
+                OpStats.percent(contention, result.totalCalls()));
+        }
+    }
+}
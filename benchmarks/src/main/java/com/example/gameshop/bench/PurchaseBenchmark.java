@@ -0,0 +1,68 @@
+package com.example.gameshop.bench;
+
+import com.example.gameshop.dao.DatabaseManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Full checkout transaction. Every call buys a different (user, game) pair from the purchasable
+// games, which are reset between iterations; if an iteration runs out of pairs, raise
+// purchasableGames or use a bigger preset.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PurchaseBenchmark {
+    @Param({"SMALL"})
+    public String preset;
+
+    @Param({"10"})
+    public int purchasableGames;
+
+    private DatabaseManager dbManager;
+    private int users;
+    private int firstPurchasableGameId;
+    private final AtomicLong next = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void seed() throws SQLException {
+        DatasetGenerator.Config config = DatasetGenerator.Preset.valueOf(preset).getConfig()
+            .withReservedGames(purchasableGames);
+        BenchmarkDatabase.seed(config);
+        dbManager = DatabaseManager.getInstance();
+        users = config.getUsers();
+        firstPurchasableGameId = config.getGames() - purchasableGames + 1;
+    }
+
+    @Setup(Level.Iteration)
+    public void reset() throws SQLException {
+        BenchmarkDatabase.resetPurchases(firstPurchasableGameId);
+        next.set(0);
+    }
+
+    @Benchmark
+    public boolean purchaseGame() throws SQLException {
+        long n = next.getAndIncrement();
+        if (n >= (long) users * purchasableGames) {
+            throw new IllegalStateException("Ran out of unowned (user, game) pairs after " + n + " purchases");
+        }
+        int userId = (int) (n % users) + 1;
+        int gameId = firstPurchasableGameId + (int) (n / users);
+        return dbManager.purchaseGame(userId, gameId, 9.99);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.gameshop.bench;
+
+import com.example.gameshop.dao.DatabaseManager;
+import com.example.gameshop.models.Game;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// The store's search box: DatabaseManager.searchGames over the cached catalog and its index
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StoreSearchBenchmark {
+    @Param({"1000", "10000", "50000"})
+    public int games;
+
+    // Short prefix, common word, two words and a miss
+    @Param({"da", "kingdom", "space station", "zzyzx"})
+    public String query;
+
+    private DatabaseManager dbManager;
+
+    @Setup
+    public void setUp() throws SQLException {
+        // Only the catalog matters here
+        BenchmarkDatabase.seed(new DatasetGenerator.Config(1, games, 0, 0, 0, 0, 0));
+        dbManager = DatabaseManager.getInstance();
+        dbManager.searchGames(query);
+    }
+
+    @Benchmark
+    public List<Game> searchGames() throws SQLException {
+        return dbManager.searchGames(query);
+    }
+}
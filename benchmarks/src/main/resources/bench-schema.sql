@@ -0,0 +1,11 @@
+-- Wipes the benchmark database on every trial; DatasetGenerator.createSchema then recreates the tables
+-- and indexes with the application's migrations (src/main/resources/db/migration).
+DROP TABLE IF EXISTS schema_version;
+DROP TABLE IF EXISTS steam_sync_state;
+DROP TABLE IF EXISTS steam_games;
+DROP TABLE IF EXISTS friends;
+DROP TABLE IF EXISTS purchases;
+DROP TABLE IF EXISTS user_games;
+DROP TABLE IF EXISTS game_keys;
+DROP TABLE IF EXISTS games;
+DROP TABLE IF EXISTS users;
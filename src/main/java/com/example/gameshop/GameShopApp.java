@@ -1,9 +1,20 @@
 package com.example.gameshop;
 
 import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.scene.Scene;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Label;
+import javafx.scene.layout.StackPane;
 import javafx.stage.Stage;
 import com.example.gameshop.scenes.LoginScene;
+import com.example.gameshop.dao.KeyReservationService;
 import com.example.gameshop.models.User;
+import com.example.gameshop.services.AppDetailsCache;
+import com.example.gameshop.services.SteamSyncScheduler;
+import com.example.gameshop.utils.DatabaseConnection;
+import com.example.gameshop.utils.ThreadPool;
+import java.sql.SQLException;
 
 public class GameShopApp extends Application {
     private Stage primaryStage;
@@ -13,10 +24,42 @@ public class GameShopApp extends Application {
     public void start(Stage primaryStage) {
         this.primaryStage = primaryStage;
         primaryStage.setTitle("Game Shop");
-        
-        // Show login scene first
-        new LoginScene(primaryStage);
+
+        // Schema upgrades can build indexes on large tables, so they run off the FX thread before the
+        // login scene (or the Steam sync scheduler) can touch the database
+        Label status = new Label("Preparing database...");
+        status.setStyle("-fx-font-size: 16; -fx-text-fill: white;");
+        StackPane splash = new StackPane(status);
+        splash.setStyle("-fx-background-color: #2b2b2b;");
+        primaryStage.setScene(new Scene(splash, 400, 200));
         primaryStage.show();
+
+        ThreadPool.execute(ThreadPool.Lane.BACKGROUND, "app.migrate", () -> {
+            try {
+                DatabaseConnection.migrate();
+                Platform.runLater(() -> {
+                    new LoginScene(primaryStage);
+                    SteamSyncScheduler.getInstance().start();
+                });
+            } catch (SQLException e) {
+                Platform.runLater(() -> {
+                    Alert alert = new Alert(Alert.AlertType.ERROR,
+                        "The database could not be prepared: " + e.getMessage());
+                    alert.setHeaderText("Database upgrade failed");
+                    alert.showAndWait();
+                    Platform.exit();
+                });
+            }
+        });
+    }
+
+    @Override
+    public void stop() {
+        SteamSyncScheduler.getInstance().shutdown();
+        ThreadPool.shutdown();
+        KeyReservationService.getInstance().shutdown();
+        AppDetailsCache.getInstance().shutdown();
+        DatabaseConnection.shutdown();
     }
 
     public static void setCurrentUser(User user) {
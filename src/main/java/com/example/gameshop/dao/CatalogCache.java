@@ -0,0 +1,230 @@
+package com.example.gameshop.dao;
+
+import com.example.gameshop.models.Game;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CatalogCache {
+    private static final CatalogCache instance =
+        new CatalogCache(Long.getLong("gameshop.catalog.ttlMs", 300_000L));
+
+    public interface Loader {
+        List<Game> load() throws SQLException;
+    }
+
+    // Notified under the cache lock, in the same order the cache itself changes
+    public interface Listener {
+        void onReload(List<Game> games);
+        void onUpsert(Game game);
+        void onRemove(int gameId);
+    }
+
+    // Readers never lock; loads and write-through patches are serialized on loadLock.
+    // The cached games are private copies: callers get their own instances on every read and
+    // put() stores a copy, so editing a game can't change the catalog before it is saved.
+    private final Object loadLock = new Object();
+    private volatile List<Game> games;
+    private volatile long loadedAt;
+    // Bumped on every load and patch, so readers can tell whether the catalog changed
+    private final AtomicLong version = new AtomicLong();
+    private volatile long ttlMillis;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong totalLoadNanos = new AtomicLong();
+    private volatile long lastLoadNanos;
+
+    CatalogCache(long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+    }
+
+    public static CatalogCache getInstance() {
+        return instance;
+    }
+
+    public List<Game> get(Loader loader) throws SQLException {
+        List<Game> current = games;
+        if (current != null && !isExpired()) {
+            hits.incrementAndGet();
+            return copyOf(current);
+        }
+
+        synchronized (loadLock) {
+            // Another thread may have loaded the catalog while we waited
+            current = games;
+            if (current != null && !isExpired()) {
+                hits.incrementAndGet();
+                return copyOf(current);
+            }
+            misses.incrementAndGet();
+            return copyOf(load(loader));
+        }
+    }
+
+    // Make sure a fresh catalog is loaded without copying it for the caller
+    public void ensureLoaded(Loader loader) throws SQLException {
+        if (games != null && !isExpired()) {
+            return;
+        }
+        get(loader);
+    }
+
+    public List<Game> refresh(Loader loader) throws SQLException {
+        synchronized (loadLock) {
+            return copyOf(load(loader));
+        }
+    }
+
+    private static List<Game> copyOf(List<Game> games) {
+        List<Game> copy = new ArrayList<>(games.size());
+        for (Game game : games) {
+            copy.add(new Game(game));
+        }
+        return copy;
+    }
+
+    private List<Game> load(Loader loader) throws SQLException {
+        long start = System.nanoTime();
+        List<Game> loaded = Collections.unmodifiableList(copyOf(loader.load()));
+        long elapsed = System.nanoTime() - start;
+
+        loads.incrementAndGet();
+        totalLoadNanos.addAndGet(elapsed);
+        lastLoadNanos = elapsed;
+
+        games = loaded;
+        loadedAt = System.currentTimeMillis();
+        version.incrementAndGet();
+        for (Listener listener : listeners) {
+            listener.onReload(loaded);
+        }
+        return loaded;
+    }
+
+    private boolean isExpired() {
+        return System.currentTimeMillis() - loadedAt >= ttlMillis;
+    }
+
+    public void invalidate() {
+        synchronized (loadLock) {
+            games = null;
+        }
+    }
+
+    // Insert or replace a game by id; a cache that was never loaded stays empty
+    public void put(Game game) {
+        synchronized (loadLock) {
+            List<Game> current = games;
+            if (current == null) {
+                return;
+            }
+            game = new Game(game);
+            List<Game> patched = new ArrayList<>(current.size() + 1);
+            boolean replaced = false;
+            for (Game existing : current) {
+                if (existing.getGameId() == game.getGameId()) {
+                    patched.add(game);
+                    replaced = true;
+                } else {
+                    patched.add(existing);
+                }
+            }
+            if (!replaced) {
+                patched.add(game);
+            }
+            games = Collections.unmodifiableList(patched);
+            version.incrementAndGet();
+            for (Listener listener : listeners) {
+                listener.onUpsert(game);
+            }
+        }
+    }
+
+    public void remove(int gameId) {
+        synchronized (loadLock) {
+            List<Game> current = games;
+            if (current == null) {
+                return;
+            }
+            List<Game> patched = new ArrayList<>(current);
+            patched.removeIf(game -> game.getGameId() == gameId);
+            games = Collections.unmodifiableList(patched);
+            version.incrementAndGet();
+            for (Listener listener : listeners) {
+                listener.onRemove(gameId);
+            }
+        }
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    public void setTtlMillis(long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+    }
+
+    public Stats getStats() {
+        List<Game> current = games;
+        long loadCount = loads.get();
+        return new Stats(
+            hits.get(),
+            misses.get(),
+            loadCount,
+            loadCount == 0 ? 0.0 : totalLoadNanos.get() / 1_000_000.0 / loadCount,
+            lastLoadNanos / 1_000_000.0,
+            current == null ? 0 : current.size()
+        );
+    }
+
+    public static class Stats {
+        private final long hits;
+        private final long misses;
+        private final long loads;
+        private final double avgLoadMillis;
+        private final double lastLoadMillis;
+        private final int size;
+
+        Stats(long hits, long misses, long loads, double avgLoadMillis, double lastLoadMillis, int size) {
+            this.hits = hits;
+            this.misses = misses;
+            this.loads = loads;
+            this.avgLoadMillis = avgLoadMillis;
+            this.lastLoadMillis = lastLoadMillis;
+            this.size = size;
+        }
+
+        public long getHits() { return hits; }
+        public long getMisses() { return misses; }
+        public long getLoads() { return loads; }
+        public double getAvgLoadMillis() { return avgLoadMillis; }
+        public double getLastLoadMillis() { return lastLoadMillis; }
+        public int getSize() { return size; }
+
+        public double getHitRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("catalog[size=%d, hits=%d, misses=%d, hitRatio=%.1f%%, loads=%d, " +
+                    "avgLoad=%.2fms, lastLoad=%.2fms]",
+                    size, hits, misses, getHitRatio() * 100, loads, avgLoadMillis, lastLoadMillis);
+        }
+    }
+}
@@ -6,17 +6,38 @@ import com.example.gameshop.models.GameKey;
 import com.example.gameshop.models.UserGame;
 import com.example.gameshop.utils.DatabaseConnection;
 import com.example.gameshop.models.GameDetails;
+import com.example.gameshop.models.SteamSyncResult;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.Map;
-import java.util.HashSet;
+import java.util.HashMap;
 import com.example.gameshop.utils.DatabaseValidator;
+import com.example.gameshop.utils.GameSearchIndex;
+import com.example.gameshop.utils.SqlDialect;
 import com.example.gameshop.GameShopApp;
 
 public class DatabaseManager {
+    private static final int SEARCH_LIMIT = 200;
+
+    static {
+        CatalogCache.getInstance().addListener(GameSearchIndex.getInstance());
+    }
+
+    // Holds no per-caller state, so the scenes share one instance
+    private static final DatabaseManager instance = new DatabaseManager();
+
+    private final CatalogCache catalogCache = CatalogCache.getInstance();
+    private final PurchaseEngine purchaseEngine = new PurchaseEngine();
+
+    public static DatabaseManager getInstance() {
+        return instance;
+    }
+
     public User getUserByUsername(String username) throws SQLException {
         String sql = "SELECT * FROM users WHERE username = ?";
         try (Connection conn = DatabaseConnection.getConnection();
@@ -103,6 +124,26 @@ public class DatabaseManager {
     }
 
     public List<Game> getAllGames() throws SQLException {
+        return catalogCache.get(this::loadAllGames);
+    }
+
+    // Changes whenever the cached catalog does; read it before getAllGames() to detect changes
+    public long getCatalogVersion() {
+        return catalogCache.getVersion();
+    }
+
+    // Bypass the TTL and re-read the catalog from the database
+    public List<Game> refreshGames() throws SQLException {
+        return catalogCache.refresh(this::loadAllGames);
+    }
+
+    // Ranked title/developer/publisher/genre search served from the in-memory index
+    public List<Game> searchGames(String query) throws SQLException {
+        catalogCache.ensureLoaded(this::loadAllGames);
+        return GameSearchIndex.getInstance().search(query, SEARCH_LIMIT);
+    }
+
+    private List<Game> loadAllGames() throws SQLException {
         String sql = "SELECT game_id, title, description, price, developer, publisher, genre FROM games";
         List<Game> games = new ArrayList<>();
         
@@ -143,6 +184,7 @@ public class DatabaseManager {
                 }
             }
         }
+        catalogCache.put(game);
     }
 
     public GameKey getAvailableGameKey(int gameId) throws SQLException {
@@ -237,6 +279,24 @@ public class DatabaseManager {
         }
     }
 
+    // Ids of every game the user owns in one query; game ids are dense auto-increment keys so a BitSet stays small
+    public BitSet getOwnedGameIds(int userId) throws SQLException {
+        String sql = "SELECT game_id FROM user_games WHERE user_id = ?";
+        BitSet owned = new BitSet();
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, userId);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    owned.set(rs.getInt("game_id"));
+                }
+            }
+        }
+        return owned;
+    }
+
     public double getUserBalance(int userId) throws SQLException {
         String sql = "SELECT balance FROM users WHERE user_id = ?";
         try (Connection conn = DatabaseConnection.getConnection();
@@ -286,9 +346,10 @@ public class DatabaseManager {
     }
 
     public void saveSteamGames(int userId, List<Game> steamGames) throws SQLException {
-        String sql = "INSERT INTO steam_games (user_id, app_id, title, playtime) " +
-                    "VALUES (?, ?, ?, ?) " +
-                    "ON DUPLICATE KEY UPDATE playtime = VALUES(playtime)";
+        SqlDialect dialect = DatabaseConnection.getDialect();
+        String sql = dialect.upsert("steam_games",
+                    new String[] {"user_id", "app_id", "title", "playtime"}, new String[] {"user_id", "app_id"},
+                    "playtime = " + dialect.incoming("playtime"));
                     
         try (Connection conn = DatabaseConnection.getConnection()) {
             conn.setAutoCommit(false);
@@ -311,6 +372,138 @@ public class DatabaseManager {
         }
     }
 
+    // Applies only the difference between the stored library and the fetched one, so a re-sync
+    // where nothing changed writes no rows at all
+    public SteamSyncResult syncSteamGames(int userId, List<Game> steamGames) throws SQLException {
+        long start = System.currentTimeMillis();
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                List<Game> stored = new ArrayList<>();
+                String selectSql = "SELECT app_id, title, playtime FROM steam_games WHERE user_id = ? FOR UPDATE";
+                try (PreparedStatement stmt = conn.prepareStatement(selectSql)) {
+                    stmt.setInt(1, userId);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            Game game = new Game(rs.getString("title"), "", 0.0);
+                            game.setAppId(rs.getInt("app_id"));
+                            game.setPlaytime(rs.getInt("playtime"));
+                            stored.add(game);
+                        }
+                    }
+                }
+
+                SteamLibraryDiff diff = SteamLibraryDiff.compute(stored, steamGames);
+                if (!diff.getInserts().isEmpty()) {
+                    String sql = "INSERT INTO steam_games (user_id, app_id, title, playtime) VALUES (?, ?, ?, ?)";
+                    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                        for (Game game : diff.getInserts()) {
+                            stmt.setInt(1, userId);
+                            stmt.setInt(2, game.getAppId());
+                            stmt.setString(3, game.getTitle());
+                            stmt.setInt(4, game.getPlaytime());
+                            stmt.addBatch();
+                        }
+                        stmt.executeBatch();
+                    }
+                }
+                if (!diff.getUpdates().isEmpty()) {
+                    String sql = "UPDATE steam_games SET title = ?, playtime = ? WHERE user_id = ? AND app_id = ?";
+                    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                        for (Game game : diff.getUpdates()) {
+                            stmt.setString(1, game.getTitle());
+                            stmt.setInt(2, game.getPlaytime());
+                            stmt.setInt(3, userId);
+                            stmt.setInt(4, game.getAppId());
+                            stmt.addBatch();
+                        }
+                        stmt.executeBatch();
+                    }
+                }
+                if (!diff.getDeletes().isEmpty()) {
+                    String sql = "DELETE FROM steam_games WHERE user_id = ? AND app_id = ?";
+                    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                        for (int appId : diff.getDeletes()) {
+                            stmt.setInt(1, userId);
+                            stmt.setInt(2, appId);
+                            stmt.addBatch();
+                        }
+                        stmt.executeBatch();
+                    }
+                }
+                conn.commit();
+
+                return new SteamSyncResult(diff.getInserts().size(), diff.getUpdates().size(),
+                    diff.getDeletes().size(), diff.getUnchanged(), System.currentTimeMillis() - start);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    public void recordLogin(int userId) throws SQLException {
+        String sql = "UPDATE users SET last_login = NOW() WHERE user_id = ?";
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, userId);
+            pstmt.executeUpdate();
+        }
+    }
+
+    // Linked accounts whose next background sync is due, most recently active users first
+    public List<SteamSyncState> getDueSteamSyncs(int limit) throws SQLException {
+        String sql = "SELECT u.user_id, u.steam_id, u.last_login, s.last_synced_at, " +
+                     "COALESCE(s.consecutive_failures, 0) AS consecutive_failures " +
+                     "FROM users u LEFT JOIN steam_sync_state s ON s.user_id = u.user_id " +
+                     "WHERE u.steam_id IS NOT NULL AND u.steam_id <> '' " +
+                     "AND (s.next_sync_at IS NULL OR s.next_sync_at <= NOW()) " +
+                     "ORDER BY u.last_login IS NULL, u.last_login DESC, s.next_sync_at LIMIT ?";
+        List<SteamSyncState> due = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    due.add(new SteamSyncState(
+                        rs.getInt("user_id"),
+                        rs.getString("steam_id"),
+                        rs.getTimestamp("last_login"),
+                        rs.getTimestamp("last_synced_at"),
+                        rs.getInt("consecutive_failures")
+                    ));
+                }
+            }
+        }
+        return due;
+    }
+
+    // Persists the outcome of a library sync so a restarted scheduler picks up where it stopped
+    public void saveSteamSyncState(int userId, boolean success, Timestamp nextSyncAt, String error)
+            throws SQLException {
+        SqlDialect dialect = DatabaseConnection.getDialect();
+        String sql = dialect.upsert("steam_sync_state",
+                     new String[] {"user_id", "last_synced_at", "next_sync_at", "consecutive_failures", "last_error"},
+                     new String[] {"user_id"},
+                     "last_synced_at = COALESCE(" + dialect.incoming("last_synced_at") + ", " +
+                         dialect.existing("last_synced_at") + ")",
+                     "next_sync_at = " + dialect.incoming("next_sync_at"),
+                     "consecutive_failures = CASE WHEN ? THEN 0 ELSE " + dialect.existing("consecutive_failures") + " + 1 END",
+                     "last_error = " + dialect.incoming("last_error"));
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, userId);
+            stmt.setTimestamp(2, success ? new Timestamp(System.currentTimeMillis()) : null);
+            stmt.setTimestamp(3, nextSyncAt);
+            stmt.setInt(4, success ? 0 : 1);
+            stmt.setString(5, error == null ? null : DatabaseValidator.validateString(error, "error", 255));
+            stmt.setBoolean(6, success);
+            stmt.executeUpdate();
+        }
+    }
+
     public void updateUserSteamId(int userId, String steamId) throws SQLException {
         String sql = "UPDATE users SET steam_id = ? WHERE user_id = ?";
         try (Connection conn = DatabaseConnection.getConnection();
@@ -348,70 +541,19 @@ public class DatabaseManager {
         return games;
     }
 
-    public void importSteamGames(int userId, List<Game> steamGames) throws SQLException {
-        try (Connection conn = DatabaseConnection.getConnection()) {
-            conn.setAutoCommit(false);
-            try {
-                // First, delete all existing Steam games for this user
-                String deleteSql = "DELETE FROM steam_games WHERE user_id = ?";
-                try (PreparedStatement deleteStmt = conn.prepareStatement(deleteSql)) {
-                    deleteStmt.setInt(1, userId);
-                    deleteStmt.executeUpdate();
-                }
-
-                // Create a Set to track unique game names
-                Set<String> addedGames = new HashSet<>();
-
-                String insertSql = "INSERT INTO steam_games (user_id, app_id, name, developer, publisher, " +
-                                 "genre, description, price, playtime_minutes) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
-
-                try (PreparedStatement insertStmt = conn.prepareStatement(insertSql)) {
-                    for (Game game : steamGames) {
-                        // Validate game name and skip duplicates
-                        String validatedName = DatabaseValidator.validateString(game.getTitle(), "Game Title", 100);
-                        if (validatedName.equals("Unknown Game Title") || !addedGames.add(validatedName)) {
-                            continue;
-                        }
-
-                        // Validate and set each field
-                        insertStmt.setInt(1, userId);
-                        insertStmt.setInt(2, DatabaseValidator.validateInteger(game.getAppId(), "App ID"));
-                        insertStmt.setString(3, validatedName);
-                        insertStmt.setString(4, DatabaseValidator.validateString(
-                            game.getDetails().getDeveloper(), "Developer", 50));
-                        insertStmt.setString(5, DatabaseValidator.validateString(
-                            game.getDetails().getPublisher(), "Publisher", 50));
-                        insertStmt.setString(6, DatabaseValidator.validateString(
-                            game.getDetails().getGenre(), "Genre", 30));
-                        insertStmt.setString(7, DatabaseValidator.validateString(
-                            game.getDetails().getDescription(), "Description", 500));
-                        insertStmt.setDouble(8, DatabaseValidator.validatePrice(game.getPrice()));
-                        insertStmt.setInt(9, DatabaseValidator.validateInteger(
-                            game.getPlaytimeMinutes(), "Playtime"));
-
-                        insertStmt.addBatch();
-                    }
-                    insertStmt.executeBatch();
-                }
-                
-                conn.commit();
-            } catch (SQLException e) {
-                conn.rollback();
-                throw e;
-            } finally {
-                conn.setAutoCommit(true);
-            }
-        }
+    public List<User> searchUsers(String username) throws SQLException {
+        return searchUsers(username, GameShopApp.getCurrentUser().getUserId());
     }
 
-    public List<User> searchUsers(String username) throws SQLException {
+    // Same search on behalf of an explicit user, for callers without a logged-in UI session
+    public List<User> searchUsers(String username, int excludeUserId) throws SQLException {
         String sql = "SELECT * FROM users WHERE username LIKE ? AND user_id != ?";
         List<User> users = new ArrayList<>();
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, "%" + username + "%");
-            stmt.setInt(2, GameShopApp.getCurrentUser().getUserId());
+            stmt.setInt(2, excludeUserId);
             
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
@@ -455,56 +597,13 @@ public class DatabaseManager {
     }
 
     public boolean purchaseGame(int userId, int gameId, double price) throws SQLException {
-        // First check if user already owns the game
-        if (userOwnsGame(userId, gameId)) {
-            throw new SQLException("You already own this game!");
-            // This will be caught and displayed in the UI
-        }
+        return purchaseGameKey(userId, gameId, price) != null;
+    }
 
-        Connection conn = DatabaseConnection.getConnection();
-        conn.setAutoCommit(false);
-        
-        try {
-            // First deduct balance
-            String updateBalanceSql = "UPDATE users SET balance = balance - ? WHERE user_id = ? AND balance >= ?";
-            try (PreparedStatement stmt = conn.prepareStatement(updateBalanceSql)) {
-                stmt.setDouble(1, price);
-                stmt.setInt(2, userId);
-                stmt.setDouble(3, price);
-                
-                if (stmt.executeUpdate() == 0) {
-                    conn.rollback();
-                    return false;
-                }
-            }
-            
-            // Then add to user_games
-            String insertGameSql = "INSERT INTO user_games (user_id, game_id) VALUES (?, ?)";
-            try (PreparedStatement stmt = conn.prepareStatement(insertGameSql)) {
-                stmt.setInt(1, userId);
-                stmt.setInt(2, gameId);
-                stmt.executeUpdate();
-            }
-            
-            // Add purchase record
-            String insertPurchaseSql = "INSERT INTO purchases (user_id, game_id, price) VALUES (?, ?, ?)";
-            try (PreparedStatement stmt = conn.prepareStatement(insertPurchaseSql)) {
-                stmt.setInt(1, userId);
-                stmt.setInt(2, gameId);
-                stmt.setDouble(3, price);
-                stmt.executeUpdate();
-            }
-            
-            conn.commit();
-            return true;
-            
-        } catch (SQLException e) {
-            conn.rollback();
-            throw e;
-        } finally {
-            conn.setAutoCommit(true);
-            conn.close();
-        }
+    // Ownership check, debit, key claim and purchase record in a single transaction.
+    // Returns the key sold to the user, or null if the balance is too low.
+    public GameKey purchaseGameKey(int userId, int gameId, double price) throws SQLException {
+        return purchaseEngine.purchase(userId, gameId, price);
     }
 
     public void deleteUser(int userId) throws SQLException {
@@ -532,6 +631,7 @@ public class DatabaseManager {
                 }
             }
         }
+        catalogCache.put(game);
     }
 
     public void deleteGame(int gameId) throws SQLException {
@@ -541,6 +641,7 @@ public class DatabaseManager {
             stmt.setInt(1, gameId);
             stmt.executeUpdate();
         }
+        catalogCache.remove(gameId);
     }
 
     public void updateGame(Game game) throws SQLException {
@@ -553,6 +654,7 @@ public class DatabaseManager {
             stmt.setInt(4, game.getGameId());
             stmt.executeUpdate();
         }
+        catalogCache.put(game);
     }
 
     public void addGameKey(int gameId, String keyValue) throws SQLException {
@@ -565,6 +667,25 @@ public class DatabaseManager {
         }
     }
 
+    public KeyImporter.Progress importGameKeys(int gameId, Path file, KeyImporter.ProgressListener listener)
+            throws IOException, SQLException {
+        return new KeyImporter().importKeys(gameId, file, listener);
+    }
+
+    // Unsold keys per game, including ones currently reserved by a running instance
+    public Map<Integer, Integer> getAvailableKeyCounts() throws SQLException {
+        String sql = "SELECT game_id, COUNT(*) AS available FROM game_keys WHERE is_sold = false GROUP BY game_id";
+        Map<Integer, Integer> counts = new HashMap<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                counts.put(rs.getInt("game_id"), rs.getInt("available"));
+            }
+        }
+        return counts;
+    }
+
     public String getUserSteamId(int userId) throws SQLException {
         String sql = "SELECT steam_id FROM users WHERE user_id = ?";
         try (Connection conn = DatabaseConnection.getConnection();
@@ -0,0 +1,262 @@
+package com.example.gameshop.dao;
+
+import com.example.gameshop.utils.DatabaseConnection;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+// Streams a publisher key file (one key per line, or CSV with the key in the first column) into
+// game_keys using JDBC batches committed in fixed-size chunks. Memory is bounded by the dedupe set.
+public class KeyImporter {
+    private static final int CHUNK_SIZE = 5_000;
+    private static final int MAX_KEY_LENGTH = 100;
+    private static final Pattern KEY_PATTERN = Pattern.compile("^[A-Za-z0-9][A-Za-z0-9-]*$");
+
+    private static final String EXISTING_KEYS_SQL = "SELECT key_value FROM game_keys WHERE game_id = ?";
+    private static final String INSERT_SQL =
+        "INSERT INTO game_keys (game_id, key_value, is_sold) VALUES (?, ?, false)";
+
+    private final int chunkSize;
+
+    public interface ProgressListener {
+        void onProgress(Progress progress);
+    }
+
+    public KeyImporter() {
+        this(CHUNK_SIZE);
+    }
+
+    KeyImporter(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public Progress importKeys(int gameId, Path file, ProgressListener listener) throws IOException, SQLException {
+        long totalBytes = Files.size(file);
+        long start = System.nanoTime();
+        Counters counters = new Counters();
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            Set<String> seen = loadExistingKeys(conn, gameId);
+
+            try (CountingInputStream in = new CountingInputStream(Files.newInputStream(file));
+                 BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16)) {
+                conn.setAutoCommit(false);
+                try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL)) {
+                    int pending = 0;
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        counters.lines++;
+                        String key = parseKey(line, counters.lines == 1);
+                        if (key == null) {
+                            continue;
+                        }
+                        if (!isValid(key)) {
+                            counters.invalid++;
+                            continue;
+                        }
+                        if (!seen.add(key)) {
+                            counters.duplicates++;
+                            continue;
+                        }
+
+                        stmt.setInt(1, gameId);
+                        stmt.setString(2, key);
+                        stmt.addBatch();
+                        if (++pending == chunkSize) {
+                            flush(conn, stmt, counters, pending);
+                            pending = 0;
+                            report(listener, counters, in.count, totalBytes, start, false);
+                        }
+                    }
+                    if (pending > 0) {
+                        flush(conn, stmt, counters, pending);
+                    }
+                } catch (SQLException | IOException e) {
+                    // Only the current chunk is rolled back; the ones before it stay committed
+                    conn.rollback();
+                    if (counters.imported > 0) {
+                        throw new PartialImportException(counters.imported, e);
+                    }
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            }
+        }
+
+        return report(listener, counters, totalBytes, totalBytes, start, true);
+    }
+
+    private Set<String> loadExistingKeys(Connection conn, int gameId) throws SQLException {
+        Set<String> keys = new HashSet<>();
+        try (PreparedStatement stmt = conn.prepareStatement(EXISTING_KEYS_SQL)) {
+            stmt.setInt(1, gameId);
+            stmt.setFetchSize(chunkSize);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    keys.add(rs.getString(1));
+                }
+            }
+        }
+        return keys;
+    }
+
+    private void flush(Connection conn, PreparedStatement stmt, Counters counters, int pending) throws SQLException {
+        stmt.executeBatch();
+        conn.commit();
+        counters.imported += pending;
+    }
+
+    // Returns null for lines that are not keys at all: blanks, comments and a CSV header
+    static String parseKey(String line, boolean firstLine) {
+        if (firstLine && !line.isEmpty() && line.charAt(0) == '\uFEFF') {
+            line = line.substring(1);
+        }
+        String value = line.trim();
+        if (value.isEmpty() || value.startsWith("#")) {
+            return null;
+        }
+        int separator = indexOfSeparator(value);
+        if (separator >= 0) {
+            value = value.substring(0, separator).trim();
+        }
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1).trim();
+        }
+        if (firstLine && (value.equalsIgnoreCase("key") || value.equalsIgnoreCase("key_value"))) {
+            return null;
+        }
+        return value;
+    }
+
+    private static int indexOfSeparator(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == ';' || c == '\t') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static boolean isValid(String key) {
+        return !key.isEmpty() && key.length() <= MAX_KEY_LENGTH && KEY_PATTERN.matcher(key).matches();
+    }
+
+    private Progress report(ProgressListener listener, Counters counters, long bytesRead, long totalBytes,
+                            long start, boolean finished) {
+        Progress progress = new Progress(counters.lines, counters.imported, counters.duplicates, counters.invalid,
+                bytesRead, totalBytes, (System.nanoTime() - start) / 1_000_000, finished);
+        if (listener != null) {
+            listener.onProgress(progress);
+        }
+        return progress;
+    }
+
+    private static class Counters {
+        private long lines;
+        private long imported;
+        private long duplicates;
+        private long invalid;
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        private volatile long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int off, int len) throws IOException {
+            int n = super.read(buffer, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+    }
+
+    // A chunk failed after earlier chunks were committed. Those keys stay in game_keys; importing
+    // the same file again skips them as duplicates.
+    public static class PartialImportException extends SQLException {
+        private static final long serialVersionUID = 1L;
+
+        private final long committed;
+
+        PartialImportException(long committed, Exception cause) {
+            super(String.format("%s (%,d keys were already imported)", cause.getMessage(), committed), cause);
+            this.committed = committed;
+        }
+
+        public long getCommitted() {
+            return committed;
+        }
+    }
+
+    public static class Progress {
+        private final long linesRead;
+        private final long imported;
+        private final long duplicates;
+        private final long invalid;
+        private final long bytesRead;
+        private final long totalBytes;
+        private final long elapsedMillis;
+        private final boolean finished;
+
+        Progress(long linesRead, long imported, long duplicates, long invalid, long bytesRead,
+                 long totalBytes, long elapsedMillis, boolean finished) {
+            this.linesRead = linesRead;
+            this.imported = imported;
+            this.duplicates = duplicates;
+            this.invalid = invalid;
+            this.bytesRead = bytesRead;
+            this.totalBytes = totalBytes;
+            this.elapsedMillis = elapsedMillis;
+            this.finished = finished;
+        }
+
+        public long getLinesRead() { return linesRead; }
+        public long getImported() { return imported; }
+        public long getDuplicates() { return duplicates; }
+        public long getInvalid() { return invalid; }
+        public long getElapsedMillis() { return elapsedMillis; }
+        public boolean isFinished() { return finished; }
+
+        public double getFraction() {
+            return totalBytes == 0 ? 1.0 : Math.min(1.0, (double) bytesRead / totalBytes);
+        }
+
+        public double getKeysPerSecond() {
+            return elapsedMillis == 0 ? 0.0 : imported * 1000.0 / elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%,d imported, %,d duplicates, %,d invalid (%,.0f keys/s)",
+                    imported, duplicates, invalid, getKeysPerSecond());
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package com.example.gameshop.dao;
+
+import com.example.gameshop.models.GameKey;
+import com.example.gameshop.utils.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+// Claims unsold keys from game_keys in blocks and hands them to checkouts from a per-game
+// in-memory queue, so a launch-day rush doesn't serialize on the same game_keys index range.
+// Reserved rows are tagged with this process's owner id and an expiry, and are given back on
+// expiry or shutdown.
+public class KeyReservationService {
+    private static final Logger logger = Logger.getLogger(KeyReservationService.class.getName());
+
+    private static final KeyReservationService instance = new KeyReservationService(
+        Integer.getInteger("gameshop.keys.blockSize", 20),
+        Long.getLong("gameshop.keys.reservationTtlSec", 300L));
+
+    // Stop handing out a reservation this long before the database considers it expired; short
+    // TTLs get a quarter of the TTL instead, so a block is never expired the moment it is claimed
+    private static final long EXPIRY_MARGIN_MS = 10_000;
+
+    // No ORDER BY: H2 sorts after reading and so locks every free key of the game, leaving nothing for
+    // concurrent direct claims until the refill commits. MySQL walks idx_game_keys_game_sold in key_id
+    // order either way.
+    private static final String CLAIM_BLOCK_SQL =
+        "SELECT key_id, key_value FROM game_keys WHERE game_id = ? AND is_sold = false " +
+        "AND (reserved_until IS NULL OR reserved_until < NOW()) " +
+        "LIMIT ? FOR UPDATE SKIP LOCKED";
+    private static final String RESERVE_SQL =
+        "UPDATE game_keys SET reserved_by = ?, reserved_until = TIMESTAMPADD(SECOND, ?, NOW()) WHERE key_id = ?";
+    private static final String COUNT_FREE_SQL =
+        "SELECT COUNT(*) FROM game_keys WHERE game_id = ? AND is_sold = false " +
+        "AND (reserved_until IS NULL OR reserved_until < NOW())";
+    private static final String RELEASE_SQL =
+        "UPDATE game_keys SET reserved_by = NULL, reserved_until = NULL " +
+        "WHERE key_id = ? AND reserved_by = ? AND is_sold = false";
+    private static final String RELEASE_ALL_SQL =
+        "UPDATE game_keys SET reserved_by = NULL, reserved_until = NULL " +
+        "WHERE reserved_by = ? AND is_sold = false";
+
+    private final int blockSize;
+    private final long reservationTtlSeconds;
+    private final long expiryMarginMillis;
+    private final String ownerId;
+    private final Map<Integer, GameStock> stock = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService housekeeper;
+
+    KeyReservationService(int blockSize, long reservationTtlSeconds) {
+        this.blockSize = blockSize;
+        this.reservationTtlSeconds = reservationTtlSeconds;
+        this.expiryMarginMillis = Math.min(EXPIRY_MARGIN_MS, reservationTtlSeconds * 1000 / 4);
+        this.ownerId = "pid-" + ProcessHandle.current().pid() + "-" +
+                UUID.randomUUID().toString().substring(0, 8);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "key-reservation-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1, reservationTtlSeconds / 4);
+        housekeeper.scheduleWithFixedDelay(this::releaseExpired, period, period, TimeUnit.SECONDS);
+    }
+
+    public static KeyReservationService getInstance() {
+        return instance;
+    }
+
+    public String getOwnerId() {
+        return ownerId;
+    }
+
+    // Next reserved key for the game, refilling the queue from the database when it runs dry.
+    // Returns null if there is no stock, another thread is already refilling, or the refill failed;
+    // callers then claim a key directly, and ask again before reporting the game out of stock.
+    public Reservation take(int gameId) {
+        GameStock game = stockFor(gameId);
+        Reservation reservation = poll(game);
+        if (reservation != null) {
+            return reservation;
+        }
+        if (game.refilling.compareAndSet(false, true)) {
+            try {
+                refill(game);
+            } catch (SQLException e) {
+                logger.warning("Failed to reserve keys for game " + gameId + ": " + e.getMessage());
+                return null;
+            } finally {
+                game.refilling.set(false);
+            }
+            return poll(game);
+        }
+        return null;
+    }
+
+    private Reservation poll(GameStock game) {
+        Reservation reservation;
+        while ((reservation = game.queue.poll()) != null) {
+            game.reserved.decrementAndGet();
+            if (!reservation.isExpired()) {
+                return reservation;
+            }
+            // The database may already have handed this row to someone else; just forget it
+            game.expired.incrementAndGet();
+        }
+        return null;
+    }
+
+    // Put back a reservation whose checkout rolled back
+    public void giveBack(Reservation reservation) {
+        if (reservation.isExpired()) {
+            return;
+        }
+        GameStock game = stockFor(reservation.key.getGameId());
+        game.queue.offer(reservation);
+        game.reserved.incrementAndGet();
+    }
+
+    void recordSale(int gameId) {
+        stockFor(gameId).sold.incrementAndGet();
+    }
+
+    private void refill(GameStock game) throws SQLException {
+        List<GameKey> claimed = new ArrayList<>();
+        int free;
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement stmt = conn.prepareStatement(CLAIM_BLOCK_SQL)) {
+                    stmt.setInt(1, game.gameId);
+                    stmt.setInt(2, blockSize);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            GameKey key = new GameKey(game.gameId, rs.getString("key_value"));
+                            key.setKeyId(rs.getInt("key_id"));
+                            claimed.add(key);
+                        }
+                    }
+                }
+                if (!claimed.isEmpty()) {
+                    try (PreparedStatement stmt = conn.prepareStatement(RESERVE_SQL)) {
+                        for (GameKey key : claimed) {
+                            stmt.setString(1, ownerId);
+                            stmt.setLong(2, reservationTtlSeconds);
+                            stmt.setInt(3, key.getKeyId());
+                            stmt.addBatch();
+                        }
+                        stmt.executeBatch();
+                    }
+                }
+                try (PreparedStatement stmt = conn.prepareStatement(COUNT_FREE_SQL)) {
+                    stmt.setInt(1, game.gameId);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        free = rs.next() ? rs.getInt(1) : 0;
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+
+        long expiresAt = System.currentTimeMillis() + reservationTtlSeconds * 1000 - expiryMarginMillis;
+        for (GameKey key : claimed) {
+            game.queue.offer(new Reservation(key, expiresAt));
+        }
+        game.reserved.addAndGet(claimed.size());
+        game.freeInDatabase = free;
+        game.refills.incrementAndGet();
+    }
+
+    private void releaseExpired() {
+        for (GameStock game : stock.values()) {
+            List<Reservation> expired = new ArrayList<>();
+            for (Reservation reservation : game.queue) {
+                if (reservation.isExpired() && game.queue.remove(reservation)) {
+                    game.reserved.decrementAndGet();
+                    game.expired.incrementAndGet();
+                    expired.add(reservation);
+                }
+            }
+            if (!expired.isEmpty()) {
+                try {
+                    release(expired);
+                } catch (SQLException e) {
+                    logger.warning("Failed to release expired key reservations: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void release(List<Reservation> reservations) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(RELEASE_SQL)) {
+            for (Reservation reservation : reservations) {
+                stmt.setInt(1, reservation.key.getKeyId());
+                stmt.setString(2, ownerId);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    // Hand every unsold reservation held by this process back to the shared pool
+    public void shutdown() {
+        housekeeper.shutdownNow();
+        for (GameStock game : stock.values()) {
+            game.queue.clear();
+            game.reserved.set(0);
+        }
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(RELEASE_ALL_SQL)) {
+            stmt.setString(1, ownerId);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            logger.warning("Failed to release key reservations on shutdown: " + e.getMessage());
+        }
+    }
+
+    private GameStock stockFor(int gameId) {
+        return stock.computeIfAbsent(gameId, GameStock::new);
+    }
+
+    public Map<Integer, Stock> getStockSnapshot() {
+        Map<Integer, Stock> snapshot = new HashMap<>();
+        for (GameStock game : stock.values()) {
+            snapshot.put(game.gameId, game.snapshot());
+        }
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    public Stock getStock(int gameId) {
+        GameStock game = stock.get(gameId);
+        return game == null ? null : game.snapshot();
+    }
+
+    public static class Reservation {
+        private final GameKey key;
+        private volatile long expiresAt;
+
+        Reservation(GameKey key, long expiresAt) {
+            this.key = key;
+            this.expiresAt = expiresAt;
+        }
+
+        public GameKey getKey() { return key; }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+
+        // The row is no longer ours (e.g. reclaimed after expiry); never hand it out again
+        void discard() {
+            expiresAt = 0;
+        }
+    }
+
+    private static class GameStock {
+        private final int gameId;
+        private final ConcurrentLinkedQueue<Reservation> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean refilling = new AtomicBoolean();
+        private final AtomicInteger reserved = new AtomicInteger();
+        private final AtomicLong sold = new AtomicLong();
+        private final AtomicLong refills = new AtomicLong();
+        private final AtomicLong expired = new AtomicLong();
+        private volatile int freeInDatabase;
+
+        GameStock(int gameId) {
+            this.gameId = gameId;
+        }
+
+        Stock snapshot() {
+            return new Stock(gameId, reserved.get(), freeInDatabase, sold.get(), refills.get(), expired.get());
+        }
+    }
+
+    public static class Stock {
+        private final int gameId;
+        private final int reserved;
+        private final int freeInDatabase;
+        private final long sold;
+        private final long refills;
+        private final long expired;
+
+        Stock(int gameId, int reserved, int freeInDatabase, long sold, long refills, long expired) {
+            this.gameId = gameId;
+            this.reserved = reserved;
+            this.freeInDatabase = freeInDatabase;
+            this.sold = sold;
+            this.refills = refills;
+            this.expired = expired;
+        }
+
+        public int getGameId() { return gameId; }
+        public int getReserved() { return reserved; }
+        // Unreserved, unsold keys as of the last refill
+        public int getFreeInDatabase() { return freeInDatabase; }
+        public int getRemaining() { return reserved + freeInDatabase; }
+        public long getSold() { return sold; }
+        public long getRefills() { return refills; }
+        public long getExpired() { return expired; }
+    }
+}
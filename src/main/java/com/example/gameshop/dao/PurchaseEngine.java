@@ -0,0 +1,205 @@
+package com.example.gameshop.dao;
+
+import com.example.gameshop.models.GameKey;
+import com.example.gameshop.utils.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransactionRollbackException;
+
+// Runs a whole checkout on one connection in one transaction. Locks are always taken in the same
+// order (buyer row, then key row). Keys normally come pre-reserved from KeyReservationService;
+// otherwise they are claimed with SKIP LOCKED, so concurrent buyers of the same game each get a
+// different key instead of queueing behind one another.
+public class PurchaseEngine {
+    private static final int MAX_ATTEMPTS = 3;
+
+    private static final String LOCK_BUYER_SQL =
+        "SELECT balance FROM users WHERE user_id = ? FOR UPDATE";
+    private static final String OWNS_GAME_SQL =
+        "SELECT 1 FROM user_games WHERE user_id = ? AND game_id = ?";
+    private static final String CLAIM_KEY_SQL =
+        "SELECT key_id, key_value FROM game_keys WHERE game_id = ? AND is_sold = false " +
+        "AND (reserved_until IS NULL OR reserved_until < NOW()) " +
+        "LIMIT 1 FOR UPDATE SKIP LOCKED";
+    private static final String MARK_KEY_SOLD_SQL =
+        "UPDATE game_keys SET is_sold = true, user_id = ?, reserved_by = NULL, reserved_until = NULL " +
+        "WHERE key_id = ?";
+    private static final String MARK_RESERVED_KEY_SOLD_SQL =
+        "UPDATE game_keys SET is_sold = true, user_id = ?, reserved_by = NULL, reserved_until = NULL " +
+        "WHERE key_id = ? AND is_sold = false AND reserved_by = ?";
+    private static final String DEBIT_SQL =
+        "UPDATE users SET balance = balance - ? WHERE user_id = ?";
+    private static final String INSERT_OWNERSHIP_SQL =
+        "INSERT INTO user_games (user_id, game_id) VALUES (?, ?)";
+    private static final String INSERT_PURCHASE_SQL =
+        "INSERT INTO purchases (user_id, game_id, price) VALUES (?, ?, ?)";
+
+    private final KeyReservationService reservations;
+
+    public PurchaseEngine() {
+        this(KeyReservationService.getInstance());
+    }
+
+    PurchaseEngine(KeyReservationService reservations) {
+        this.reservations = reservations;
+    }
+
+    // Returns the key sold to the user, or null when their balance doesn't cover the price
+    public GameKey purchase(int userId, int gameId, double price) throws SQLException {
+        int attempt = 1;
+        boolean retriedTake = false;
+        while (true) {
+            // Taken before borrowing the checkout connection, since a refill needs a connection of its own
+            KeyReservationService.Reservation reservation = reservations.take(gameId);
+            GameKey key = null;
+            try {
+                key = attemptPurchase(userId, gameId, price, reservation);
+                if (key != null) {
+                    reservations.recordSale(gameId);
+                }
+                return key;
+            } catch (OutOfStockException e) {
+                // take() comes back empty while another checkout refills the queue, and the direct
+                // claim skips the rows that refill reserves, so ask the queue once more before giving up
+                if (retriedTake) {
+                    throw e;
+                }
+                retriedTake = true;
+            } catch (SQLTransactionRollbackException e) {
+                // Deadlock or lock wait timeout: the server already rolled back, so retrying is safe
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+                attempt++;
+            } finally {
+                if (reservation != null && (key == null || key != reservation.getKey())) {
+                    reservations.giveBack(reservation);
+                }
+            }
+        }
+    }
+
+    private GameKey attemptPurchase(int userId, int gameId, double price,
+                                    KeyReservationService.Reservation reservation) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                double balance = lockBuyer(conn, userId);
+
+                // Checked under the buyer lock, so two clicks can't both pass it
+                if (ownsGame(conn, userId, gameId)) {
+                    throw new SQLException("You already own this game!");
+                }
+                if (balance < price) {
+                    conn.rollback();
+                    return null;
+                }
+
+                GameKey key = null;
+                if (reservation != null && markReservedKeySold(conn, userId, reservation)) {
+                    key = reservation.getKey();
+                }
+                if (key == null) {
+                    key = claimKey(conn, userId, gameId);
+                }
+                if (key == null) {
+                    throw new OutOfStockException();
+                }
+
+                try (PreparedStatement stmt = conn.prepareStatement(DEBIT_SQL)) {
+                    stmt.setDouble(1, price);
+                    stmt.setInt(2, userId);
+                    stmt.executeUpdate();
+                }
+                try (PreparedStatement stmt = conn.prepareStatement(INSERT_OWNERSHIP_SQL)) {
+                    stmt.setInt(1, userId);
+                    stmt.setInt(2, gameId);
+                    stmt.executeUpdate();
+                }
+                try (PreparedStatement stmt = conn.prepareStatement(INSERT_PURCHASE_SQL)) {
+                    stmt.setInt(1, userId);
+                    stmt.setInt(2, gameId);
+                    stmt.setDouble(3, price);
+                    stmt.executeUpdate();
+                }
+
+                conn.commit();
+                key.setSold(true);
+                return key;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    private double lockBuyer(Connection conn, int userId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(LOCK_BUYER_SQL)) {
+            stmt.setInt(1, userId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("User " + userId + " not found");
+                }
+                return rs.getDouble("balance");
+            }
+        }
+    }
+
+    private boolean ownsGame(Connection conn, int userId, int gameId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(OWNS_GAME_SQL)) {
+            stmt.setInt(1, userId);
+            stmt.setInt(2, gameId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private boolean markReservedKeySold(Connection conn, int userId,
+                                        KeyReservationService.Reservation reservation) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(MARK_RESERVED_KEY_SOLD_SQL)) {
+            stmt.setInt(1, userId);
+            stmt.setInt(2, reservation.getKey().getKeyId());
+            stmt.setString(3, reservations.getOwnerId());
+            if (stmt.executeUpdate() == 1) {
+                return true;
+            }
+        }
+        // Our reservation lapsed and the row was reclaimed, so fall back to a fresh claim
+        reservation.discard();
+        return false;
+    }
+
+    private GameKey claimKey(Connection conn, int userId, int gameId) throws SQLException {
+        GameKey key;
+        try (PreparedStatement stmt = conn.prepareStatement(CLAIM_KEY_SQL)) {
+            stmt.setInt(1, gameId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                key = new GameKey(gameId, rs.getString("key_value"));
+                key.setKeyId(rs.getInt("key_id"));
+            }
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(MARK_KEY_SOLD_SQL)) {
+            stmt.setInt(1, userId);
+            stmt.setInt(2, key.getKeyId());
+            stmt.executeUpdate();
+        }
+        return key;
+    }
+
+    private static class OutOfStockException extends SQLException {
+        private static final long serialVersionUID = 1L;
+
+        OutOfStockException() {
+            super("This game is out of stock");
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.gameshop.dao;
+
+import com.example.gameshop.utils.DatabaseConnection;
+import com.example.gameshop.utils.SqlDialect;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+// Runs EXPLAIN over every SELECT, UPDATE and DELETE the DAO classes send and flags the ones the database
+// answers with a full table scan. The statements are the string constants in the compiled classes, so a
+// new query is audited without being registered anywhere. Statements assembled at runtime (the dialect
+// upserts) aren't seen; inserts aren't explained.
+public final class QueryPlanAuditor {
+    private static final Class<?>[] DAO_CLASSES = {
+        DatabaseManager.class, PurchaseEngine.class, KeyReservationService.class, KeyImporter.class
+    };
+
+    private static final Pattern EXPLAINABLE = Pattern.compile("(?is)\\s*(SELECT|UPDATE|DELETE)\\s.*");
+    private static final Pattern LIMIT_PARAM = Pattern.compile("(?i)\\b(LIMIT|OFFSET)\\s*$");
+    private static final Pattern LIKE_PARAM = Pattern.compile("(?i)\\bLIKE\\s*$");
+
+    private QueryPlanAuditor() {
+    }
+
+    // Audits against the configured database; full scans first, then statements that failed to explain
+    public static List<Finding> audit() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return audit(conn, DatabaseConnection.getDialect());
+        }
+    }
+
+    public static List<Finding> audit(Connection conn, SqlDialect dialect) throws SQLException {
+        Map<String, String> statements = new LinkedHashMap<>();
+        for (Class<?> type : DAO_CLASSES) {
+            try {
+                for (String sql : extractSql(type)) {
+                    statements.putIfAbsent(sql, type.getSimpleName());
+                }
+            } catch (IOException e) {
+                throw new SQLException("Failed to read the statements of " + type.getName(), e);
+            }
+        }
+
+        List<Finding> findings = new ArrayList<>();
+        for (Map.Entry<String, String> entry : statements.entrySet()) {
+            String sql = entry.getKey();
+            try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN " + sql)) {
+                bindPlaceholders(stmt, sql);
+                try (ResultSet plan = stmt.executeQuery()) {
+                    findings.add(new Finding(entry.getValue(), sql, dialect.findFullScans(plan), null));
+                }
+            } catch (SQLException e) {
+                findings.add(new Finding(entry.getValue(), sql, List.of(), e.getMessage()));
+            }
+        }
+        findings.sort(Comparator.comparing((Finding finding) -> !finding.isFlagged())
+            .thenComparing(finding -> finding.getError() == null));
+        return findings;
+    }
+
+    // The explainable SQL string literals of a compiled class, read from its constant pool
+    static List<String> extractSql(Class<?> type) throws IOException {
+        String resource = type.getSimpleName() + ".class";
+        try (InputStream in = type.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException(resource + " not found");
+            }
+            DataInputStream data = new DataInputStream(in);
+            data.skipBytes(8); // magic, minor and major version
+            int count = data.readUnsignedShort();
+            String[] utf8 = new String[count];
+            List<Integer> strings = new ArrayList<>();
+            for (int i = 1; i < count; i++) {
+                int tag = data.readUnsignedByte();
+                switch (tag) {
+                    case 1 -> utf8[i] = data.readUTF();
+                    case 8 -> strings.add(data.readUnsignedShort());
+                    case 7, 16, 19, 20 -> data.skipBytes(2);
+                    case 15 -> data.skipBytes(3);
+                    case 3, 4, 9, 10, 11, 12, 17, 18 -> data.skipBytes(4);
+                    case 5, 6 -> {
+                        data.skipBytes(8);
+                        i++; // longs and doubles take two slots
+                    }
+                    default -> throw new IOException("Unknown constant pool tag " + tag + " in " + resource);
+                }
+            }
+
+            List<String> sql = new ArrayList<>();
+            for (int index : strings) {
+                String value = utf8[index];
+                // \u0001 marks the holes in string concatenation recipes, which aren't whole statements
+                if (value != null && value.indexOf('\u0001') < 0 && EXPLAINABLE.matcher(value).matches()) {
+                    sql.add(value.trim());
+                }
+            }
+            return sql;
+        }
+    }
+
+    // EXPLAIN needs every parameter bound. A string '1' is converted to the column's type by both engines
+    // (so indexes stay usable), except after LIMIT/OFFSET, which only take numbers. LIKE gets the
+    // contains-pattern the user searches bind, since '1' would be planned as an equality lookup.
+    private static void bindPlaceholders(PreparedStatement stmt, String sql) throws SQLException {
+        int index = 0;
+        for (int i = sql.indexOf('?'); i >= 0; i = sql.indexOf('?', i + 1)) {
+            index++;
+            String before = sql.substring(0, i);
+            if (LIMIT_PARAM.matcher(before).find()) {
+                stmt.setInt(index, 1);
+            } else if (LIKE_PARAM.matcher(before).find()) {
+                stmt.setString(index, "%1%");
+            } else {
+                stmt.setString(index, "1");
+            }
+        }
+    }
+
+    public static class Finding {
+        private final String source;
+        private final String sql;
+        private final List<String> fullScans;
+        private final String error;
+
+        Finding(String source, String sql, List<String> fullScans, String error) {
+            this.source = source;
+            this.sql = sql;
+            this.fullScans = fullScans;
+            this.error = error;
+        }
+
+        public String getSource() {
+            return source;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        // Tables read in full, empty when every table is reached through an index
+        public List<String> getFullScans() {
+            return fullScans;
+        }
+
+        // Why the statement couldn't be explained, or null
+        public String getError() {
+            return error;
+        }
+
+        public boolean isFlagged() {
+            return !fullScans.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            String status = error != null ? "EXPLAIN failed (" + error + ")"
+                : isFlagged() ? "FULL SCAN of " + String.join(", ", fullScans).toLowerCase(Locale.ROOT) : "ok";
+            return String.format("%s  %s: %s", status, source, sql);
+        }
+    }
+}
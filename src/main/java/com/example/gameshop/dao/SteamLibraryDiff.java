@@ -0,0 +1,65 @@
+package com.example.gameshop.dao;
+
+import com.example.gameshop.models.Game;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+// Delta between a user's stored Steam library and a freshly fetched one, keyed by app_id.
+// A stored game counts as changed when its title or playtime differs.
+public class SteamLibraryDiff {
+    private final List<Game> inserts;
+    private final List<Game> updates;
+    private final List<Integer> deletes;
+    private final int unchanged;
+
+    private SteamLibraryDiff(List<Game> inserts, List<Game> updates, List<Integer> deletes, int unchanged) {
+        this.inserts = Collections.unmodifiableList(inserts);
+        this.updates = Collections.unmodifiableList(updates);
+        this.deletes = Collections.unmodifiableList(deletes);
+        this.unchanged = unchanged;
+    }
+
+    public static SteamLibraryDiff compute(List<Game> stored, List<Game> fetched) {
+        Map<Integer, Game> remaining = new LinkedHashMap<>();
+        for (Game game : stored) {
+            remaining.put(game.getAppId(), game);
+        }
+
+        List<Game> inserts = new ArrayList<>();
+        List<Game> updates = new ArrayList<>();
+        Set<Integer> seen = new HashSet<>();
+        int unchanged = 0;
+        for (Game game : fetched) {
+            // Steam shouldn't list an app twice, but the table is unique per (user_id, app_id)
+            if (!seen.add(game.getAppId())) {
+                continue;
+            }
+            Game existing = remaining.remove(game.getAppId());
+            if (existing == null) {
+                inserts.add(game);
+            } else if (existing.getPlaytime() != game.getPlaytime()
+                    || !Objects.equals(existing.getTitle(), game.getTitle())) {
+                updates.add(game);
+            } else {
+                unchanged++;
+            }
+        }
+        return new SteamLibraryDiff(inserts, updates, new ArrayList<>(remaining.keySet()), unchanged);
+    }
+
+    public List<Game> getInserts() { return inserts; }
+    public List<Game> getUpdates() { return updates; }
+    public List<Integer> getDeletes() { return deletes; }
+    public int getUnchanged() { return unchanged; }
+
+    public boolean isEmpty() {
+        return inserts.isEmpty() && updates.isEmpty() && deletes.isEmpty();
+    }
+}
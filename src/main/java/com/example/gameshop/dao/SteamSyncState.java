@@ -0,0 +1,29 @@
+package com.example.gameshop.dao;
+
+import java.sql.Timestamp;
+
+// A user with a linked Steam account and where the background refresh left off for them
+// (a row of users joined with steam_sync_state)
+public class SteamSyncState {
+    private final int userId;
+    private final String steamId;
+    private final Timestamp lastLogin;
+    private final Timestamp lastSyncedAt;
+    private final int consecutiveFailures;
+
+    SteamSyncState(int userId, String steamId, Timestamp lastLogin, Timestamp lastSyncedAt, int consecutiveFailures) {
+        this.userId = userId;
+        this.steamId = steamId;
+        this.lastLogin = lastLogin;
+        this.lastSyncedAt = lastSyncedAt;
+        this.consecutiveFailures = consecutiveFailures;
+    }
+
+    public int getUserId() { return userId; }
+    public String getSteamId() { return steamId; }
+    // Null for users who haven't logged in since last_login was added
+    public Timestamp getLastLogin() { return lastLogin; }
+    // Null if the library was never synced
+    public Timestamp getLastSyncedAt() { return lastSyncedAt; }
+    public int getConsecutiveFailures() { return consecutiveFailures; }
+}
@@ -31,6 +31,21 @@ public class Game {
         this.price = details.getPrice();
     }
 
+    // Copy constructor, so a cached game can be handed out without sharing its state
+    public Game(Game other) {
+        this.gameId = other.gameId;
+        this.title = other.title;
+        this.description = other.description;
+        this.price = other.price;
+        this.appId = other.appId;
+        this.details = other.details;
+        this.playtimeMinutes = other.playtimeMinutes;
+        this.playtime = other.playtime;
+        this.developer = other.developer;
+        this.publisher = other.publisher;
+        this.genre = other.genre;
+    }
+
     // Original getters and setters
     public int getGameId() { return gameId; }
     public void setGameId(int gameId) { this.gameId = gameId; }
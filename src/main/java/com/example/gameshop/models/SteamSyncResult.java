@@ -0,0 +1,33 @@
+package com.example.gameshop.models;
+
+// What one Steam library sync wrote
+public class SteamSyncResult {
+    private final int inserted;
+    private final int updated;
+    private final int deleted;
+    private final int unchanged;
+    private final long elapsedMillis;
+
+    public SteamSyncResult(int inserted, int updated, int deleted, int unchanged, long elapsedMillis) {
+        this.inserted = inserted;
+        this.updated = updated;
+        this.deleted = deleted;
+        this.unchanged = unchanged;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public int getInserted() { return inserted; }
+    public int getUpdated() { return updated; }
+    public int getDeleted() { return deleted; }
+    public int getUnchanged() { return unchanged; }
+    public long getElapsedMillis() { return elapsedMillis; }
+
+    public int getRowsTouched() {
+        return inserted + updated + deleted;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d added, %d updated, %d removed, %d unchanged", inserted, updated, deleted, unchanged);
+    }
+}
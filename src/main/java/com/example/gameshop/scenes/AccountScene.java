@@ -11,8 +11,11 @@ import com.example.gameshop.dao.DatabaseManager;
 import com.example.gameshop.models.*;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Objects;
 import com.example.gameshop.utils.ThreadPool;
-import com.example.gameshop.utils.SteamAPI;
+import com.example.gameshop.services.SteamSyncScheduler;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import javafx.geometry.Pos;
 import javafx.scene.layout.Priority;
 import java.util.ArrayList;
@@ -22,20 +25,63 @@ import javafx.scene.control.ScrollPane;
 import javafx.scene.input.KeyCode;
 import javafx.scene.Node;
 
-public class AccountScene {
+public class AccountScene implements SceneNavigator.CachedScene {
     private Stage stage;
+    private Scene scene;
     private DatabaseManager dbManager;
     private VBox contentArea;
     private FlowPane gamesContainer;
     private TextField searchField;
     private String currentView = "all"; // Can be "all", "store", or "steam"
+    private List<Game> shownGames = new ArrayList<>();
+    private final ThreadPool.TaskGroup tasks = ThreadPool.newGroup("account");
 
     public AccountScene(Stage stage) {
         this.stage = stage;
-        this.dbManager = new DatabaseManager();
+        this.dbManager = DatabaseManager.getInstance();
         createAccountScene();
     }
 
+    @Override
+    public Scene getScene() {
+        return scene;
+    }
+
+    @Override
+    public String getTitle() {
+        return "Account - Game Library";
+    }
+
+    // Shown again from the navigator: the cached library stays on screen while it's re-read,
+    // and is only redrawn if it changed (e.g. after a purchase or a background Steam sync)
+    @Override
+    public void revalidate() {
+        String view = currentView;
+        tasks.execute("library", () -> {
+            try {
+                List<Game> games = fetchGames(view);
+                Platform.runLater(() -> {
+                    // Leave it alone if the user switched filters or searched in the meantime
+                    if (view.equals(currentView) && searchField.getText().trim().isEmpty()
+                            && !sameGames(games, shownGames)) {
+                        showGames(games);
+                    }
+                });
+            } catch (SQLException e) {
+                System.err.println("Failed to refresh library: " + e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public void dispose() {
+    }
+
+    @Override
+    public void cancelTasks() {
+        tasks.cancelAll();
+    }
+
     private void createAccountScene() {
         BorderPane layout = new BorderPane();
         layout.setStyle("-fx-background-color: #2b2b2b;");
@@ -59,10 +105,7 @@ public class AccountScene {
         contentArea.getChildren().add(scrollPane);
         layout.setCenter(contentArea);
 
-        Scene scene = new Scene(layout, 1000, 600);
-        scene.getStylesheets().add(getClass().getResource("/styles/dark-theme.css").toExternalForm());
-        stage.setScene(scene);
-        stage.setTitle("Account - Game Library");
+        scene = SceneNavigator.createScene(layout, 1000, 600);
 
         // Load games initially
         loadGames("all");
@@ -80,8 +123,8 @@ public class AccountScene {
         Button friendsBtn = new Button("Search Friends");
         Button logoutBtn = new Button("Logout");
 
-        storeBtn.setOnAction(e -> new StoreScene(stage));
-        accountBtn.setOnAction(e -> new AccountScene(stage));
+        storeBtn.setOnAction(e -> SceneNavigator.getInstance().showStore(stage));
+        accountBtn.setOnAction(e -> SceneNavigator.getInstance().showAccount(stage));
         friendsBtn.setOnAction(e -> new FriendSearchScene(stage));
         logoutBtn.setOnAction(e -> handleLogout());
 
@@ -156,39 +199,64 @@ public class AccountScene {
         gamesContainer.getChildren().clear();
         
         try {
-            List<Game> games = new ArrayList<>();
-            
-            switch (viewType) {
-                case "all":
-                    games.addAll(dbManager.getUserGames(GameShopApp.getCurrentUser().getUserId())
-                               .stream()
-                               .map(UserGame::getGame)
-                               .collect(Collectors.toList()));
-                    games.addAll(dbManager.getUserSteamGames(GameShopApp.getCurrentUser().getUserId()));
-                    break;
-                    
-                case "store":
-                    games.addAll(dbManager.getUserGames(GameShopApp.getCurrentUser().getUserId())
-                               .stream()
-                               .map(UserGame::getGame)
-                               .collect(Collectors.toList()));
-                    break;
-                    
-                case "steam":
-                    games.addAll(dbManager.getUserSteamGames(GameShopApp.getCurrentUser().getUserId()));
-                    break;
-            }
-            
-            for (Game game : games) {
-                VBox gameBox = createGameBox(game);
-                gamesContainer.getChildren().add(gameBox);
-            }
-            
+            showGames(fetchGames(viewType));
         } catch (SQLException e) {
             showAlert("Error", "Failed to load games: " + e.getMessage());
         }
     }
 
+    private List<Game> fetchGames(String viewType) throws SQLException {
+        List<Game> games = new ArrayList<>();
+        
+        switch (viewType) {
+            case "all":
+                games.addAll(dbManager.getUserGames(GameShopApp.getCurrentUser().getUserId())
+                           .stream()
+                           .map(UserGame::getGame)
+                           .collect(Collectors.toList()));
+                games.addAll(dbManager.getUserSteamGames(GameShopApp.getCurrentUser().getUserId()));
+                break;
+                
+            case "store":
+                games.addAll(dbManager.getUserGames(GameShopApp.getCurrentUser().getUserId())
+                           .stream()
+                           .map(UserGame::getGame)
+                           .collect(Collectors.toList()));
+                break;
+                
+            case "steam":
+                games.addAll(dbManager.getUserSteamGames(GameShopApp.getCurrentUser().getUserId()));
+                break;
+        }
+        return games;
+    }
+
+    private void showGames(List<Game> games) {
+        shownGames = games;
+        gamesContainer.getChildren().clear();
+        for (Game game : games) {
+            VBox gameBox = createGameBox(game);
+            gamesContainer.getChildren().add(gameBox);
+        }
+    }
+
+    // Rows are re-read from the database, so compare by content rather than identity
+    private static boolean sameGames(List<Game> a, List<Game> b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.size(); i++) {
+            Game x = a.get(i);
+            Game y = b.get(i);
+            if (x.getGameId() != y.getGameId() || x.getAppId() != y.getAppId()
+                    || x.getPlaytime() != y.getPlaytime() || x.getPrice() != y.getPrice()
+                    || !Objects.equals(x.getTitle(), y.getTitle())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private VBox createGameBox(Game game) {
         VBox gameBox = new VBox(5);
         gameBox.setStyle("-fx-background-color: #3c3f41; -fx-padding: 10; -fx-background-radius: 5;");
@@ -245,8 +313,7 @@ public class AccountScene {
     }
 
     private void handleLogout() {
-        GameShopApp.setCurrentUser(null);
-        new LoginScene(stage);
+        SceneNavigator.getInstance().logout(stage);
     }
 
     private void showAlert(String title, String content) {
@@ -267,26 +334,29 @@ public class AccountScene {
         ProgressIndicator progress = new ProgressIndicator();
         contentArea.getChildren().add(progress);
 
-        ThreadPool.execute(() -> {
-            try {
-                // Save Steam ID to user profile
-                dbManager.updateUserSteamId(GameShopApp.getCurrentUser().getUserId(), steamId);
-
-                // Fetch and save Steam games
-                List<Game> steamGames = SteamAPI.getUserGames(steamId);
-                dbManager.saveSteamGames(GameShopApp.getCurrentUser().getUserId(), steamGames);
-
-                Platform.runLater(() -> {
-                    contentArea.getChildren().remove(progress);
-                    showAlert("Success", "Steam library imported successfully!");
+        int userId = GameShopApp.getCurrentUser().getUserId();
+
+        // Goes through the background scheduler so this account isn't re-synced right after;
+        // the fetch itself holds no thread, only the database writes run on the worker pool
+        CompletableFuture.runAsync(() -> {
+                try {
+                    // Save Steam ID to user profile
+                    dbManager.updateUserSteamId(userId, steamId);
+                } catch (SQLException e) {
+                    throw new CompletionException(e);
+                }
+            }, ThreadPool.executor(ThreadPool.Lane.BACKGROUND, "steam.import"))
+            .thenCompose(ignored -> SteamSyncScheduler.getInstance().sync(userId, steamId))
+            .whenComplete((result, error) -> Platform.runLater(() -> {
+                contentArea.getChildren().remove(progress);
+                if (error != null) {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                    showAlert("Error", "Failed to import Steam library: " + cause.getMessage());
+                } else {
+                    showAlert("Success", "Steam library synced: " + result);
                     loadGames(currentView); // Refresh the game list
-                });
-            } catch (Exception e) {
-                Platform.runLater(() -> {
-                    contentArea.getChildren().remove(progress);
-                    showAlert("Error", "Failed to import Steam library: " + e.getMessage());
-                });
-            }
-        });
+                }
+            }));
     }
 } 
\ No newline at end of file
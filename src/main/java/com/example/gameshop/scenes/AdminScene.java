@@ -1,9 +1,15 @@
 package com.example.gameshop.scenes;
 
 import com.example.gameshop.dao.DatabaseManager;
+import com.example.gameshop.dao.KeyImporter;
+import com.example.gameshop.dao.KeyReservationService;
+import com.example.gameshop.dao.QueryPlanAuditor;
 import com.example.gameshop.models.Game;
 import com.example.gameshop.models.User;
-import com.example.gameshop.GameShopApp;
+import com.example.gameshop.services.SteamClient;
+import com.example.gameshop.utils.DaoMetrics;
+import com.example.gameshop.utils.DatabaseConnection;
+import com.example.gameshop.utils.FxThreadGuard;
 import com.example.gameshop.utils.ThreadPool;
 import javafx.application.Platform;
 import javafx.geometry.Insets;
@@ -11,9 +17,14 @@ import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.*;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import java.io.File;
+import java.io.IOException;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 public class AdminScene {
     private Stage stage;
@@ -24,7 +35,7 @@ public class AdminScene {
 
     public AdminScene(Stage stage) {
         this.stage = stage;
-        this.dbManager = new DatabaseManager();
+        this.dbManager = DatabaseManager.getInstance();
         createAdminScene();
     }
 
@@ -44,8 +55,7 @@ public class AdminScene {
         // Initial view - User Management
         showUserManagement();
 
-        Scene scene = new Scene(layout, 1000, 600);
-        scene.getStylesheets().add(getClass().getResource("/styles/dark-theme.css").toExternalForm());
+        Scene scene = SceneNavigator.createScene(layout, 1000, 600);
         stage.setScene(scene);
         stage.setTitle("Admin Panel");
     }
@@ -58,14 +68,16 @@ public class AdminScene {
         Button usersBtn = new Button("Manage Users");
         Button gamesBtn = new Button("Manage Games");
         Button keysBtn = new Button("Manage Keys");
+        Button diagnosticsBtn = new Button("Diagnostics");
         Button logoutBtn = new Button("Logout");
 
         usersBtn.setOnAction(e -> showUserManagement());
         gamesBtn.setOnAction(e -> showGameManagement());
         keysBtn.setOnAction(e -> showKeyManagement());
+        diagnosticsBtn.setOnAction(e -> showDiagnostics());
         logoutBtn.setOnAction(e -> handleLogout());
 
-        menuBar.getChildren().addAll(usersBtn, gamesBtn, keysBtn, logoutBtn);
+        menuBar.getChildren().addAll(usersBtn, gamesBtn, keysBtn, diagnosticsBtn, logoutBtn);
         return menuBar;
     }
 
@@ -131,7 +143,208 @@ public class AdminScene {
             addKeyBtn
         );
 
-        contentArea.getChildren().add(keyManagementBox);
+        // Stock overview
+        ListView<String> stockList = new ListView<>();
+        stockList.setPrefHeight(200);
+        Button refreshStockBtn = new Button("Refresh Stock");
+        refreshStockBtn.setOnAction(e -> loadKeyStock(stockList));
+
+        // Bulk import
+        ProgressBar importProgress = new ProgressBar(0);
+        importProgress.setMaxWidth(Double.MAX_VALUE);
+        Label importStatus = new Label();
+        Button importBtn = new Button("Import Keys From File...");
+        importBtn.setOnAction(e -> importKeysFromFile(gameSelect.getValue(), importBtn, importProgress,
+            importStatus, stockList));
+
+        VBox importBox = new VBox(10,
+            new Label("Bulk Import (one key per line or CSV, key in the first column)"),
+            importBtn,
+            importProgress,
+            importStatus
+        );
+
+        contentArea.getChildren().addAll(keyManagementBox, new Separator(), importBox, new Separator(),
+            new Label("Key Stock"), stockList, refreshStockBtn);
+        loadKeyStock(stockList);
+    }
+
+    private void importKeysFromFile(Game game, Button importBtn, ProgressBar progressBar, Label status,
+                                    ListView<String> stockList) {
+        if (game == null) {
+            showAlert("Error", "Select a game to import keys for");
+            return;
+        }
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Import Keys for " + game.getTitle());
+        chooser.getExtensionFilters().addAll(
+            new FileChooser.ExtensionFilter("Key files", "*.txt", "*.csv"),
+            new FileChooser.ExtensionFilter("All files", "*.*"));
+        File file = chooser.showOpenDialog(stage);
+        if (file == null) {
+            return;
+        }
+
+        importBtn.setDisable(true);
+        progressBar.setProgress(0);
+        status.setText("Importing " + file.getName() + "...");
+
+        ThreadPool.execute(ThreadPool.Lane.BACKGROUND, "admin.keyImport", () -> {
+            try {
+                KeyImporter.Progress result = dbManager.importGameKeys(game.getGameId(), file.toPath(),
+                    progress -> Platform.runLater(() -> {
+                        progressBar.setProgress(progress.getFraction());
+                        status.setText(progress.toString());
+                    }));
+                Platform.runLater(() -> {
+                    progressBar.setProgress(1);
+                    status.setText(String.format("Done in %.1fs: %s",
+                        result.getElapsedMillis() / 1000.0, result));
+                    importBtn.setDisable(false);
+                    loadKeyStock(stockList);
+                });
+            } catch (KeyImporter.PartialImportException e) {
+                Platform.runLater(() -> {
+                    status.setText(String.format("Import stopped after %,d keys", e.getCommitted()));
+                    importBtn.setDisable(false);
+                    loadKeyStock(stockList);
+                    showAlert("Error", String.format("Failed to import keys: %s%n%n" +
+                        "%,d keys from the start of the file were already imported. " +
+                        "Importing the same file again skips them as duplicates.",
+                        e.getCause().getMessage(), e.getCommitted()));
+                });
+            } catch (IOException | SQLException e) {
+                Platform.runLater(() -> {
+                    status.setText("Import failed");
+                    importBtn.setDisable(false);
+                    showAlert("Error", "Failed to import keys: " + e.getMessage());
+                });
+            }
+        });
+    }
+
+    private void loadKeyStock(ListView<String> stockList) {
+        ThreadPool.execute(ThreadPool.Lane.INTERACTIVE, "admin.keyStock", () -> {
+            try {
+                List<Game> games = dbManager.getAllGames();
+                Map<Integer, Integer> available = dbManager.getAvailableKeyCounts();
+                Map<Integer, KeyReservationService.Stock> reserved =
+                    KeyReservationService.getInstance().getStockSnapshot();
+
+                List<String> lines = new ArrayList<>();
+                for (Game game : games) {
+                    KeyReservationService.Stock stock = reserved.get(game.getGameId());
+                    lines.add(String.format("%s: %d unsold (%d reserved here, %d sold since start)",
+                        game.getTitle(),
+                        available.getOrDefault(game.getGameId(), 0),
+                        stock == null ? 0 : stock.getReserved(),
+                        stock == null ? 0 : stock.getSold()));
+                }
+                Platform.runLater(() -> stockList.getItems().setAll(lines));
+            } catch (SQLException e) {
+                Platform.runLater(() -> showAlert("Error", "Failed to load key stock: " + e.getMessage()));
+            }
+        });
+    }
+
+    private void showDiagnostics() {
+        contentArea.getChildren().clear();
+        FxThreadGuard guard = FxThreadGuard.getInstance();
+
+        // FX-thread blocking calls; selecting one shows where it came from
+        ComboBox<FxThreadGuard.Mode> modeSelect = new ComboBox<>();
+        modeSelect.getItems().addAll(FxThreadGuard.Mode.values());
+        modeSelect.setValue(guard.getMode());
+        modeSelect.setOnAction(e -> guard.setMode(modeSelect.getValue()));
+
+        Label summary = new Label();
+        ListView<FxThreadGuard.Site> siteList = new ListView<>();
+        siteList.setPrefHeight(200);
+        ListView<String> sampleList = new ListView<>();
+        sampleList.setPrefHeight(150);
+        siteList.getSelectionModel().selectedItemProperty().addListener((observable, oldSite, site) ->
+            sampleList.getItems().setAll(site == null ? List.of() : site.getSample()));
+
+        // Worker lanes, connection pool and Steam limits
+        ListView<String> runtimeList = new ListView<>();
+        runtimeList.setPrefHeight(150);
+
+        // Per-DAO-method statement latency and the slow-query log
+        DaoMetrics daoMetrics = DaoMetrics.getInstance();
+        ListView<DaoMetrics.MethodSnapshot> daoList = new ListView<>();
+        daoList.setPrefHeight(150);
+        ListView<DaoMetrics.SlowQuery> slowList = new ListView<>();
+        slowList.setPrefHeight(100);
+        TextField slowThresholdField = new TextField(String.valueOf(daoMetrics.getSlowThresholdMillis()));
+        slowThresholdField.setPrefColumnCount(6);
+        slowThresholdField.setOnAction(e -> {
+            try {
+                daoMetrics.setSlowThresholdMillis(Long.parseLong(slowThresholdField.getText().trim()));
+            } catch (NumberFormatException ex) {
+                slowThresholdField.setText(String.valueOf(daoMetrics.getSlowThresholdMillis()));
+            }
+        });
+
+        // EXPLAIN over every DAO statement; on demand only, it runs a query per statement
+        ListView<QueryPlanAuditor.Finding> planList = new ListView<>();
+        planList.setPrefHeight(120);
+        Label planSummary = new Label();
+        Button explainBtn = new Button("Explain Queries");
+        explainBtn.setOnAction(e -> {
+            explainBtn.setDisable(true);
+            planSummary.setText("Running EXPLAIN...");
+            ThreadPool.execute(ThreadPool.Lane.BACKGROUND, "admin.explain", () -> {
+                try {
+                    List<QueryPlanAuditor.Finding> findings = QueryPlanAuditor.audit();
+                    long flagged = findings.stream().filter(QueryPlanAuditor.Finding::isFlagged).count();
+                    Platform.runLater(() -> {
+                        planList.getItems().setAll(findings);
+                        planSummary.setText(String.format("%d statements, %d with full table scans",
+                            findings.size(), flagged));
+                        explainBtn.setDisable(false);
+                    });
+                } catch (SQLException ex) {
+                    Platform.runLater(() -> {
+                        planSummary.setText("EXPLAIN failed: " + ex.getMessage());
+                        explainBtn.setDisable(false);
+                    });
+                }
+            });
+        });
+
+        Runnable refresh = () -> {
+            daoList.getItems().setAll(daoMetrics.getMethodStats());
+            slowList.getItems().setAll(daoMetrics.getSlowQueries());
+            summary.setText(String.format("%d blocking calls on the FX thread at %d call sites%s",
+                guard.getTotalCalls(), guard.getSites().size(),
+                guard.getDropped() > 0 ? " (" + guard.getDropped() + " untracked sites)" : ""));
+            siteList.getItems().setAll(guard.getSites());
+
+            List<String> lines = new ArrayList<>();
+            ThreadPool.getLaneStats().forEach(lane -> lines.add(lane.toString()));
+            ThreadPool.getTaskStats().values().forEach(task -> lines.add(task.toString()));
+            lines.add("db " + DatabaseConnection.getPoolStats());
+            SteamClient.getInstance().getUpstreamStats()
+                .forEach((name, stats) -> lines.add("steam " + stats));
+            runtimeList.getItems().setAll(lines);
+        };
+
+        Button refreshBtn = new Button("Refresh");
+        refreshBtn.setOnAction(e -> refresh.run());
+        Button resetBtn = new Button("Reset");
+        resetBtn.setOnAction(e -> {
+            guard.reset();
+            daoMetrics.reset();
+            refresh.run();
+        });
+
+        HBox controls = new HBox(10, new Label("FX thread guard:"), modeSelect, refreshBtn, resetBtn);
+        contentArea.getChildren().addAll(controls, summary, siteList, new Label("Stack sample"), sampleList,
+            new Separator(), new Label("Database (by total time)"), daoList,
+            new HBox(10, new Label("Slow queries, threshold (ms):"), slowThresholdField), slowList,
+            new Separator(), new HBox(10, new Label("Query plans"), explainBtn, planSummary), planList,
+            new Separator(), new Label("Runtime"), runtimeList);
+        refresh.run();
     }
 
     // Helper methods for user management
@@ -274,10 +487,12 @@ public class AdminScene {
 
             dialog.setResultConverter(buttonType -> {
                 if (buttonType == ButtonType.OK) {
-                    selectedGame.setTitle(titleField.getText());
-                    selectedGame.setDescription(descField.getText());
-                    selectedGame.setPrice(Double.parseDouble(priceField.getText()));
-                    return selectedGame;
+                    // Edit a copy, so the table keeps showing the saved values if the update fails
+                    Game edited = new Game(selectedGame);
+                    edited.setTitle(titleField.getText());
+                    edited.setDescription(descField.getText());
+                    edited.setPrice(Double.parseDouble(priceField.getText()));
+                    return edited;
                 }
                 return null;
             });
@@ -306,8 +521,7 @@ public class AdminScene {
     }
 
     private void handleLogout() {
-        GameShopApp.setCurrentUser(null);
-        new LoginScene(stage);
+        SceneNavigator.getInstance().logout(stage);
     }
 
     private void showAlert(String title, String content) {
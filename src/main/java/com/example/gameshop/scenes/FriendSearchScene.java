@@ -28,7 +28,7 @@ public class FriendSearchScene {
 
     public FriendSearchScene(Stage stage, String username) {
         this.stage = stage;
-        this.dbManager = new DatabaseManager();
+        this.dbManager = DatabaseManager.getInstance();
         this.searchUsername = username;
         createFriendSearchScene();
         
@@ -44,7 +44,7 @@ public class FriendSearchScene {
         // Back button
         Button backButton = new Button("← Back");
         backButton.getStyleClass().add("back-button");
-        backButton.setOnAction(e -> new AccountScene(stage));
+        backButton.setOnAction(e -> SceneNavigator.getInstance().showAccount(stage));
         
         // Search area
         VBox searchArea = new VBox(10);
@@ -75,8 +75,7 @@ public class FriendSearchScene {
 
         searchButton.setOnAction(e -> searchUser(searchField.getText()));
 
-        Scene scene = new Scene(layout, 800, 600);
-        scene.getStylesheets().add(getClass().getResource("/styles/dark-theme.css").toExternalForm());
+        Scene scene = SceneNavigator.createScene(layout, 800, 600);
         stage.setScene(scene);
     }
 
@@ -91,7 +90,7 @@ public class FriendSearchScene {
         contentArea.getChildren().clear();
         contentArea.getChildren().add(loadingIndicator);
 
-        ThreadPool.execute(() -> {
+        ThreadPool.execute(ThreadPool.Lane.INTERACTIVE, "friends.search", () -> {
             try {
                 List<User> users = dbManager.searchUsers(username);
                 Platform.runLater(() -> {
@@ -215,9 +214,9 @@ public class FriendSearchScene {
         MenuItem accountItem = new MenuItem("My Account");
         MenuItem backItem = new MenuItem("Back");
 
-        storeItem.setOnAction(e -> new StoreScene(stage));
-        accountItem.setOnAction(e -> new AccountScene(stage));
-        backItem.setOnAction(e -> new AccountScene(stage));
+        storeItem.setOnAction(e -> SceneNavigator.getInstance().showStore(stage));
+        accountItem.setOnAction(e -> SceneNavigator.getInstance().showAccount(stage));
+        backItem.setOnAction(e -> SceneNavigator.getInstance().showAccount(stage));
 
         accountMenu.getItems().addAll(storeItem, accountItem, backItem);
         menuBar.getMenus().add(accountMenu);
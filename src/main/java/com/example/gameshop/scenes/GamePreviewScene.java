@@ -32,7 +32,7 @@ public class GamePreviewScene {
         
         Button backButton = new Button("Back");
         backButton.getStyleClass().add("back-button");
-        backButton.setOnAction(e -> new AccountScene(stage));
+        backButton.setOnAction(e -> SceneNavigator.getInstance().showAccount(stage));
         
         topSection.getChildren().add(backButton);
         layout.setTop(topSection);
@@ -71,8 +71,7 @@ public class GamePreviewScene {
         
         layout.setCenter(detailsBox);
         
-        Scene scene = new Scene(layout, 800, 600);
-        scene.getStylesheets().add(getClass().getResource("/styles/dark-theme.css").toExternalForm());
+        Scene scene = SceneNavigator.createScene(layout, 800, 600);
         stage.setScene(scene);
     }
 } 
\ No newline at end of file
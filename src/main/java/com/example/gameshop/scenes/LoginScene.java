@@ -8,6 +8,7 @@ import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 import com.example.gameshop.GameShopApp;
 import com.example.gameshop.dao.DatabaseManager;
+import com.example.gameshop.utils.ThreadPool;
 import com.example.gameshop.models.User;
 import java.sql.SQLException;
 
@@ -17,7 +18,7 @@ public class LoginScene {
 
     public LoginScene(Stage stage) {
         this.stage = stage;
-        this.dbManager = new DatabaseManager();
+        this.dbManager = DatabaseManager.getInstance();
         createLoginScene();
     }
 
@@ -66,8 +67,7 @@ public class LoginScene {
             errorLabel
         );
 
-        Scene scene = new Scene(layout, 300, 400);
-        scene.getStylesheets().add(getClass().getResource("/styles/dark-theme.css").toExternalForm());
+        Scene scene = SceneNavigator.createScene(layout, 300, 400);
         stage.setScene(scene);
     }
 
@@ -81,6 +81,14 @@ public class LoginScene {
             User user = dbManager.getUserByUsername(username);
             if (user != null && user.getPassword().equals(password)) {
                 GameShopApp.setCurrentUser(user);
+                // Lets the Steam sync scheduler favour active users; not worth failing a login over
+                ThreadPool.execute(ThreadPool.Lane.BACKGROUND, "login.record", () -> {
+                    try {
+                        dbManager.recordLogin(user.getUserId());
+                    } catch (SQLException ex) {
+                        System.err.println("Failed to record login: " + ex.getMessage());
+                    }
+                });
                 
                 // Debug print to check role
                 System.out.println("User role: " + user.getRole());
@@ -88,7 +96,7 @@ public class LoginScene {
                 if ("ADMIN".equalsIgnoreCase(user.getRole())) {
                     new AdminScene(stage);
                 } else {
-                    new StoreScene(stage);
+                    SceneNavigator.getInstance().showStore(stage);
                 }
             } else {
                 errorLabel.setText("Invalid username or password");
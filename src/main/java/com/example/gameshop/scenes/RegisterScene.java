@@ -17,7 +17,7 @@ public class RegisterScene {
 
     public RegisterScene(Stage stage) {
         this.stage = stage;
-        this.dbManager = new DatabaseManager();
+        this.dbManager = DatabaseManager.getInstance();
         createRegisterScene();
     }
 
@@ -82,8 +82,7 @@ public class RegisterScene {
             errorLabel
         );
 
-        Scene scene = new Scene(layout, 300, 400);
-        scene.getStylesheets().add(getClass().getResource("/styles/dark-theme.css").toExternalForm());
+        Scene scene = SceneNavigator.createScene(layout, 300, 400);
         stage.setScene(scene);
     }
 
@@ -0,0 +1,114 @@
+package com.example.gameshop.scenes;
+
+import com.example.gameshop.GameShopApp;
+import com.example.gameshop.models.User;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+// Keeps the store and account scenes alive between visits. Going back to one shows the cached
+// scene straight away with the data it had, then revalidates in the background and only redraws
+// what changed. Cached scenes belong to the logged-in user and are dropped on logout.
+// Only used from the FX thread.
+public class SceneNavigator {
+    private static final SceneNavigator instance = new SceneNavigator();
+
+    // Resolved once; JavaFX only re-parses a stylesheet when no live scene still references it
+    static final String STYLESHEET = SceneNavigator.class.getResource("/styles/dark-theme.css").toExternalForm();
+
+    // A scene that can be shown again after being navigated away from
+    interface CachedScene {
+        Scene getScene();
+        String getTitle();
+        // Called every time the scene is shown again; refreshes stale data without blocking
+        void revalidate();
+        // Called when the cache drops the scene (logout), to stop background work
+        void dispose();
+        // Called when the scene is hidden: drops the loads it started that haven't begun yet
+        void cancelTasks();
+    }
+
+    private final Map<Class<?>, CachedScene> scenes = new HashMap<>();
+    private int ownerUserId = -1;
+    private Stage watchedStage;
+
+    private SceneNavigator() {
+    }
+
+    public static SceneNavigator getInstance() {
+        return instance;
+    }
+
+    static Scene createScene(Parent root, double width, double height) {
+        Scene scene = new Scene(root, width, height);
+        scene.getStylesheets().add(STYLESHEET);
+        return scene;
+    }
+
+    public void showStore(Stage stage) {
+        show(stage, StoreScene.class, StoreScene::new);
+    }
+
+    public void showAccount(Stage stage) {
+        show(stage, AccountScene.class, AccountScene::new);
+    }
+
+    private <T extends CachedScene> void show(Stage stage, Class<T> type, Function<Stage, T> factory) {
+        watch(stage);
+        User user = GameShopApp.getCurrentUser();
+        int userId = user == null ? -1 : user.getUserId();
+        if (userId != ownerUserId) {
+            clear();
+            ownerUserId = userId;
+        }
+
+        CachedScene cached = scenes.get(type);
+        if (cached == null) {
+            // A new scene loads its own data
+            cached = factory.apply(stage);
+            scenes.put(type, cached);
+        } else {
+            cached.revalidate();
+        }
+        if (stage.getScene() != cached.getScene()) {
+            stage.setScene(cached.getScene());
+        }
+        stage.setTitle(cached.getTitle());
+    }
+
+    // Whatever replaces a cached scene on the stage (including non-cached scenes), the hidden
+    // scene's queued loads are no longer worth running
+    private void watch(Stage stage) {
+        if (watchedStage == stage) {
+            return;
+        }
+        watchedStage = stage;
+        stage.sceneProperty().addListener((observable, oldScene, newScene) -> {
+            for (CachedScene cached : scenes.values()) {
+                if (cached.getScene() == oldScene && oldScene != newScene) {
+                    cached.cancelTasks();
+                }
+            }
+        });
+    }
+
+    public void clear() {
+        for (CachedScene scene : scenes.values()) {
+            scene.cancelTasks();
+            scene.dispose();
+        }
+        scenes.clear();
+        ownerUserId = -1;
+    }
+
+    // Logs the current user out and returns to the login screen
+    public void logout(Stage stage) {
+        clear();
+        GameShopApp.setCurrentUser(null);
+        new LoginScene(stage);
+    }
+}
@@ -10,23 +10,73 @@ import com.example.gameshop.GameShopApp;
 import com.example.gameshop.dao.DatabaseManager;
 import com.example.gameshop.models.*;
 import java.sql.SQLException;
+import java.util.BitSet;
 import java.util.List;
-import com.example.gameshop.utils.ThreadPool;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
+import com.example.gameshop.utils.SearchPipeline;
+import com.example.gameshop.utils.ThreadPool;
 import javafx.geometry.Pos;
 
-public class StoreScene {
+public class StoreScene implements SceneNavigator.CachedScene {
+    private static final long SEARCH_DEBOUNCE_MS = Long.getLong("gameshop.search.debounceMs", 200L);
+
     private Stage stage;
+    private Scene scene;
     private DatabaseManager dbManager;
-    private FlowPane gamesContainer;
+    private VirtualGameGrid gamesGrid;
     private Label balanceLabel;
+    private TextField searchField;
+    private VBox friendsList;
+    private List<String> friendNames;
+    // Owned game ids for the current user, loaded together with the catalog
+    private BitSet ownedGameIds = new BitSet();
+    // Catalog version the grid is showing, or -1 while it shows search results
+    private long shownCatalogVersion = -1;
+    // Games with a checkout in flight, so a second click can't start another; FX thread only
+    private final BitSet purchasing = new BitSet();
+    private SearchPipeline<List<Game>> searchPipeline;
+    private final ThreadPool.TaskGroup tasks = ThreadPool.newGroup("store");
 
     public StoreScene(Stage stage) {
         this.stage = stage;
-        this.dbManager = new DatabaseManager();
+        this.dbManager = DatabaseManager.getInstance();
         createStoreScene();
     }
 
+    @Override
+    public Scene getScene() {
+        return scene;
+    }
+
+    @Override
+    public String getTitle() {
+        return "Game Shop";
+    }
+
+    // Shown again from the navigator: keep the current grid on screen and only redraw what changed
+    @Override
+    public void revalidate() {
+        refreshBalance();
+        String text = searchField.getText();
+        if (text == null || text.trim().isEmpty()) {
+            reloadGames();
+        } else {
+            searchPipeline.submit(text);
+        }
+        loadFriends();
+    }
+
+    @Override
+    public void dispose() {
+        searchPipeline.cancel();
+    }
+
+    @Override
+    public void cancelTasks() {
+        tasks.cancelAll();
+    }
+
     private void createStoreScene() {
         BorderPane layout = new BorderPane();
         layout.setStyle("-fx-background-color: #2b2b2b;");
@@ -54,8 +104,11 @@ public class StoreScene {
         accountBtn.getStyleClass().add("menu-button");
         logoutBtn.getStyleClass().add("menu-button");
         
-        storeBtn.setOnAction(e -> new StoreScene(stage));
-        accountBtn.setOnAction(e -> new AccountScene(stage));
+        storeBtn.setOnAction(e -> SceneNavigator.getInstance().showStore(stage));
+        accountBtn.setOnAction(e -> {
+            searchPipeline.cancel();
+            SceneNavigator.getInstance().showAccount(stage);
+        });
         logoutBtn.setOnAction(e -> handleLogout());
         
         menuBox.getChildren().addAll(storeBtn, accountBtn, logoutBtn, balanceLabel);
@@ -65,13 +118,20 @@ public class StoreScene {
         HBox searchBox = new HBox(10);
         searchBox.setAlignment(Pos.CENTER_RIGHT);
         
-        TextField searchField = new TextField();
+        searchField = new TextField();
         searchField.setPromptText("Search games...");
         searchField.setPrefWidth(200);
         searchField.getStyleClass().add("dark-field");
         
+        searchPipeline = new SearchPipeline<>(
+            SEARCH_DEBOUNCE_MS,
+            text -> text == null || text.trim().isEmpty() ? dbManager.getAllGames() : dbManager.searchGames(text),
+            Platform::runLater,
+            this::showSearchResults,
+            (text, e) -> showAlert("Error", "Failed to search games: " + e.getMessage())
+        );
         searchField.textProperty().addListener((observable, oldValue, newValue) -> {
-            searchGames(newValue);
+            searchPipeline.submit(newValue);
         });
         
         searchBox.getChildren().add(searchField);
@@ -83,22 +143,14 @@ public class StoreScene {
         VBox friendsPanel = createFriendsPanel();
         layout.setLeft(friendsPanel);
 
-        // Games container
-        gamesContainer = new FlowPane();
-        gamesContainer.setHgap(10);
-        gamesContainer.setVgap(10);
-        gamesContainer.setPadding(new Insets(10));
-
-        ScrollPane scrollPane = new ScrollPane(gamesContainer);
-        scrollPane.setFitToWidth(true);
-        scrollPane.setStyle("-fx-background: #2b2b2b; -fx-background-color: #2b2b2b;");
-        layout.setCenter(scrollPane);
+        // Games grid; only the visible cards exist as nodes
+        gamesGrid = new VirtualGameGrid(this::bindActionButton);
+        gamesGrid.setPadding(new Insets(10));
+        layout.setCenter(gamesGrid);
 
         loadGames();
 
-        Scene scene = new Scene(layout, 1000, 600); // Made window wider for friends panel
-        scene.getStylesheets().add(getClass().getResource("/styles/dark-theme.css").toExternalForm());
-        stage.setScene(scene);
+        scene = SceneNavigator.createScene(layout, 1000, 600); // Made window wider for friends panel
     }
 
     private VBox createFriendsPanel() {
@@ -114,21 +166,33 @@ public class StoreScene {
         addFriendBtn.setMaxWidth(Double.MAX_VALUE);
         addFriendBtn.setOnAction(e -> showAddFriendDialog());
         
-        VBox friendsList = new VBox(5);
+        friendsList = new VBox(5);
         friendsList.setPadding(new Insets(5, 0, 5, 0));
         
         // Loading indicator for friends list
         ProgressIndicator loadingIndicator = new ProgressIndicator();
         loadingIndicator.setStyle("-fx-progress-color: #4b6eaf;");
+        friendsList.getChildren().add(loadingIndicator);
+        
+        friendsPanel.getChildren().addAll(titleLabel, addFriendBtn, friendsList);
         
-        friendsPanel.getChildren().addAll(titleLabel, addFriendBtn, loadingIndicator);
+        loadFriends();
         
-        // Load friends list
-        ThreadPool.execute(() -> {
+        return friendsPanel;
+    }
+
+    // Rebuilds the friend buttons only when the list actually changed
+    private void loadFriends() {
+        tasks.execute("friends", () -> {
             try {
                 List<User> friends = dbManager.getUserFriends(GameShopApp.getCurrentUser().getUserId());
+                List<String> names = friends.stream().map(User::getUsername).collect(Collectors.toList());
                 Platform.runLater(() -> {
-                    friendsPanel.getChildren().remove(loadingIndicator);
+                    if (names.equals(friendNames)) {
+                        return;
+                    }
+                    friendNames = names;
+                    friendsList.getChildren().clear();
                     if (friends.isEmpty()) {
                         Label noFriendsLabel = new Label("No friends yet");
                         noFriendsLabel.setStyle("-fx-text-fill: #808080;");
@@ -142,17 +206,16 @@ public class StoreScene {
                             friendsList.getChildren().add(friendBtn);
                         });
                     }
-                    friendsPanel.getChildren().add(friendsList);
                 });
             } catch (SQLException e) {
                 Platform.runLater(() -> {
-                    friendsPanel.getChildren().remove(loadingIndicator);
+                    if (friendNames == null) {
+                        friendsList.getChildren().clear();
+                    }
                     showAlert("Error", "Failed to load friends list");
                 });
             }
         });
-        
-        return friendsPanel;
     }
 
     private void showAddFriendDialog() {
@@ -172,7 +235,7 @@ public class StoreScene {
                     dbManager.addFriend(GameShopApp.getCurrentUser().getUserId(), friend.getUserId());
                     showAlert("Success", "Friend added successfully!");
                     // Refresh friends list
-                    createFriendsPanel();
+                    loadFriends();
                 } else if (friend != null) {
                     showAlert("Error", "You cannot add yourself as a friend");
                 } else {
@@ -192,93 +255,140 @@ public class StoreScene {
         // Center the loading indicator
         StackPane loadingPane = new StackPane(loadingIndicator);
         loadingPane.setPadding(new Insets(20));
-        gamesContainer.getChildren().setAll(loadingPane);
+        gamesGrid.setPlaceholder(loadingPane);
+        gamesGrid.setGames(List.of());
+        shownCatalogVersion = -1;
 
-        ThreadPool.execute(() -> {
+        tasks.execute("catalog", () -> {
             try {
+                long version = dbManager.getCatalogVersion();
                 List<Game> games = dbManager.getAllGames();
+                BitSet owned = dbManager.getOwnedGameIds(GameShopApp.getCurrentUser().getUserId());
                 Platform.runLater(() -> {
-                    gamesContainer.getChildren().clear();
-                    for (Game game : games) {
-                        gamesContainer.getChildren().add(createGameCard(game));
-                    }
+                    ownedGameIds = owned;
+                    gamesGrid.setPlaceholder(null);
+                    gamesGrid.setGames(games);
+                    shownCatalogVersion = version;
                 });
             } catch (SQLException e) {
                 Platform.runLater(() -> {
-                    gamesContainer.getChildren().clear();
+                    gamesGrid.setPlaceholder(null);
                     showAlert("Error", "Failed to load games: " + e.getMessage());
                 });
             }
         });
     }
 
-    private VBox createGameCard(Game game) {
-        VBox card = new VBox(5);
-        card.setPrefWidth(200);
-        card.setStyle("-fx-background-color: #3c3f41; " +
-                     "-fx-border-color: #555555; " +
-                     "-fx-border-radius: 5; " +
-                     "-fx-padding: 10; " +
-                     "-fx-effect: dropshadow(three-pass-box, rgba(0,0,0,0.6), 5, 0, 0, 0);");
-
-        Label titleLabel = new Label(game.getTitle());
-        titleLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 14; -fx-text-fill: white;");
-        
-        Label priceLabel = new Label(String.format("$%.2f", game.getPrice()));
-        priceLabel.setStyle("-fx-font-size: 12; -fx-text-fill: #cccccc;");
-
-        Button actionButton = new Button("Buy");
-        actionButton.setPrefWidth(120);
-        actionButton.getStyleClass().add("game-button");
-
-        try {
-            if (dbManager.userOwnsGame(GameShopApp.getCurrentUser().getUserId(), game.getGameId())) {
-                actionButton.setText("Owned");
-                actionButton.setDisable(true);
-                actionButton.setStyle("-fx-background-color: #2d5a27; -fx-text-fill: #90EE90;");
-            } else {
-                actionButton.setOnAction(e -> handlePurchase(game));
-                actionButton.setStyle("-fx-background-color: #4CAF50; -fx-text-fill: white;");
+    // Background refresh of a grid that's already showing: every read hands out fresh copies of
+    // the cached games, so the catalog version tells whether anything changed and an unchanged
+    // store isn't redrawn at all. The version is read first, so a change racing the read is
+    // picked up on the next visit rather than missed.
+    private void reloadGames() {
+        tasks.execute("catalog", () -> {
+            try {
+                long version = dbManager.getCatalogVersion();
+                List<Game> games = dbManager.getAllGames();
+                BitSet owned = dbManager.getOwnedGameIds(GameShopApp.getCurrentUser().getUserId());
+                Platform.runLater(() -> {
+                    // The first load may have been cancelled by navigating away
+                    gamesGrid.setPlaceholder(null);
+                    boolean ownedChanged = !owned.equals(ownedGameIds);
+                    ownedGameIds = owned;
+                    if (version != shownCatalogVersion) {
+                        gamesGrid.setGames(games);
+                        shownCatalogVersion = version;
+                    } else if (ownedChanged) {
+                        gamesGrid.refresh();
+                    }
+                });
+            } catch (SQLException e) {
+                // Keep showing what we have; the next visit tries again
+                System.err.println("Failed to refresh games: " + e.getMessage());
             }
-        } catch (SQLException e) {
-            System.err.println("Error checking game ownership: " + e.getMessage());
-            actionButton.setOnAction(event -> handlePurchase(game));
+        });
+    }
+
+    // Cards are recycled while scrolling, so every piece of button state is set on each bind
+    private void bindActionButton(Game game, Button actionButton) {
+        if (ownedGameIds.get(game.getGameId())) {
+            markOwned(actionButton);
+            actionButton.setOnAction(null);
+        } else if (purchasing.get(game.getGameId())) {
+            actionButton.setText("Buying...");
+            actionButton.setDisable(true);
+            actionButton.setOnAction(null);
+        } else {
+            actionButton.setText("Buy");
+            actionButton.setDisable(false);
+            actionButton.setOnAction(e -> handlePurchase(game));
+            actionButton.setStyle("-fx-background-color: #4CAF50; -fx-text-fill: white;");
         }
+    }
 
-        card.getChildren().addAll(titleLabel, priceLabel, actionButton);
-        return card;
+    private void markOwned(Button actionButton) {
+        actionButton.setText("Owned");
+        actionButton.setDisable(true);
+        actionButton.setStyle("-fx-background-color: #2d5a27; -fx-text-fill: #90EE90;");
     }
 
+    // The checkout runs on the pool, not in the scene's task group: navigating away must not cancel
+    // a purchase that hasn't started yet
     private void handlePurchase(Game game) {
-        try {
-            User currentUser = GameShopApp.getCurrentUser();
-            if (currentUser == null) {
-                showAlert("Error", "Please log in to purchase games");
-                return;
-            }
+        User currentUser = GameShopApp.getCurrentUser();
+        if (currentUser == null) {
+            showAlert("Error", "Please log in to purchase games");
+            return;
+        }
 
-            if (currentUser.getBalance() < game.getPrice()) {
-                showAlert("Error", "Insufficient balance");
-                return;
-            }
+        if (currentUser.getBalance() < game.getPrice()) {
+            showAlert("Error", "Insufficient balance");
+            return;
+        }
 
-            boolean success = dbManager.purchaseGame(
-                currentUser.getUserId(), 
-                game.getGameId(), 
-                game.getPrice()
-            );
+        int userId = currentUser.getUserId();
+        purchasing.set(game.getGameId());
+        gamesGrid.refresh();
+        try {
+            ThreadPool.execute(ThreadPool.Lane.INTERACTIVE, "store.purchase", () -> {
+                try {
+                    GameKey key = dbManager.purchaseGameKey(userId, game.getGameId(), game.getPrice());
+                    Platform.runLater(() -> purchaseFinished(game, currentUser, key));
+                } catch (SQLException e) {
+                    Platform.runLater(() -> purchaseFailed(game, e));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            purchasing.clear(game.getGameId());
+            gamesGrid.refresh();
+            showAlert("Error", "The store is busy, please try again");
+        }
+    }
 
-            if (success) {
-                currentUser.setBalance(currentUser.getBalance() - game.getPrice());
-                showAlert("Success", "Successfully purchased " + game.getTitle());
-                refreshBalance();
-            }
-        } catch (SQLException e) {
-            if (e.getMessage().contains("already own")) {
-                showAlert("Notice", "You already own this game!");
-            } else {
-                showAlert("Error", "Failed to process purchase: " + e.getMessage());
-            }
+    private void purchaseFinished(Game game, User buyer, GameKey key) {
+        purchasing.clear(game.getGameId());
+        if (key != null) {
+            buyer.setBalance(buyer.getBalance() - game.getPrice());
+            ownedGameIds.set(game.getGameId());
+            // Rebinds the visible cards, including the one that was clicked
+            gamesGrid.refresh();
+            showAlert("Success", "Successfully purchased " + game.getTitle() +
+                "\nYour key: " + key.getKeyValue());
+            refreshBalance();
+        } else {
+            gamesGrid.refresh();
+            showAlert("Error", "Insufficient balance");
+        }
+    }
+
+    private void purchaseFailed(Game game, SQLException e) {
+        purchasing.clear(game.getGameId());
+        gamesGrid.refresh();
+        if (e.getMessage().contains("already own")) {
+            showAlert("Notice", "You already own this game!");
+        } else if (e.getMessage().contains("out of stock")) {
+            showAlert("Notice", game.getTitle() + " is out of stock");
+        } else {
+            showAlert("Error", "Failed to process purchase: " + e.getMessage());
         }
     }
 
@@ -297,50 +407,17 @@ public class StoreScene {
         alert.showAndWait();
     }
 
-    private void searchGames(String searchText) {
-        if (searchText == null || searchText.trim().isEmpty()) {
-            loadGames(); // Show all games if search is empty
-            return;
+    private void showSearchResults(String searchText, List<Game> games) {
+        if (games.isEmpty()) {
+            Label noResults = new Label("No games found matching '" + searchText + "'");
+            noResults.setStyle("-fx-text-fill: white;");
+            gamesGrid.setPlaceholder(noResults);
         }
-
-        // Show loading indicator
-        ProgressIndicator loadingIndicator = new ProgressIndicator();
-        loadingIndicator.setStyle("-fx-progress-color: #4b6eaf;");
-        StackPane loadingPane = new StackPane(loadingIndicator);
-        loadingPane.setPadding(new Insets(20));
-        gamesContainer.getChildren().setAll(loadingPane);
-
-        ThreadPool.execute(() -> {
-            try {
-                List<Game> allGames = dbManager.getAllGames();
-                // Filter games based on search text
-                List<Game> filteredGames = allGames.stream()
-                    .filter(game -> game.getTitle().toLowerCase()
-                        .contains(searchText.toLowerCase()))
-                    .collect(Collectors.toList());
-
-                Platform.runLater(() -> {
-                    gamesContainer.getChildren().clear();
-                    if (filteredGames.isEmpty()) {
-                        Label noResults = new Label("No games found matching '" + searchText + "'");
-                        noResults.setStyle("-fx-text-fill: white;");
-                        gamesContainer.getChildren().add(noResults);
-                    } else {
-                        filteredGames.forEach(game -> 
-                            gamesContainer.getChildren().add(createGameCard(game)));
-                    }
-                });
-            } catch (SQLException e) {
-                Platform.runLater(() -> {
-                    gamesContainer.getChildren().clear();
-                    showAlert("Error", "Failed to search games: " + e.getMessage());
-                });
-            }
-        });
+        gamesGrid.setGames(games);
+        shownCatalogVersion = -1;
     }
 
     private void handleLogout() {
-        GameShopApp.setCurrentUser(null);
-        new LoginScene(stage);
+        SceneNavigator.getInstance().logout(stage);
     }
 } 
\ No newline at end of file
@@ -0,0 +1,133 @@
+package com.example.gameshop.scenes;
+
+import com.example.gameshop.models.Game;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+// Grid of game cards backed by a ListView whose items are rows of games. Only the rows on screen
+// get cells, and their cards are rebound rather than rebuilt while scrolling, so the scene graph
+// stays the same size whether the catalog has 50 games or 100k.
+public class VirtualGameGrid extends ListView<List<Game>> {
+    private static final double CARD_WIDTH = 200;
+    private static final double CARD_HEIGHT = 110;
+    private static final double GAP = 10;
+
+    // Sets up the card's button (text, style, action) for a game; called on every rebind
+    private final BiConsumer<Game, Button> actionBinder;
+    private List<Game> games = Collections.emptyList();
+    private int columns = 1;
+
+    public VirtualGameGrid(BiConsumer<Game, Button> actionBinder) {
+        this.actionBinder = actionBinder;
+        getStyleClass().add("virtual-game-grid");
+        setFocusTraversable(false);
+        // Uniform rows let the ListView skip measuring every cell
+        setFixedCellSize(CARD_HEIGHT + GAP);
+        setCellFactory(view -> new RowCell());
+
+        widthProperty().addListener((observable, oldWidth, newWidth) -> {
+            int fit = columnsFor(newWidth.doubleValue());
+            if (fit != columns) {
+                columns = fit;
+                layoutRows();
+            }
+        });
+    }
+
+    public void setGames(List<Game> games) {
+        this.games = games;
+        layoutRows();
+    }
+
+    public List<Game> getGames() {
+        return games;
+    }
+
+    private void layoutRows() {
+        List<List<Game>> rows = new ArrayList<>((games.size() + columns - 1) / columns);
+        for (int from = 0; from < games.size(); from += columns) {
+            rows.add(games.subList(from, Math.min(from + columns, games.size())));
+        }
+        getItems().setAll(rows);
+    }
+
+    private int columnsFor(double width) {
+        // Leave room for the list's padding and vertical scroll bar
+        double usable = width - getInsets().getLeft() - getInsets().getRight() - 20;
+        return Math.max(1, (int) ((usable + GAP) / (CARD_WIDTH + GAP)));
+    }
+
+    private class RowCell extends ListCell<List<Game>> {
+        private final HBox row = new HBox(GAP);
+        private final List<GameCard> cards = new ArrayList<>();
+
+        RowCell() {
+            getStyleClass().add("game-grid-row");
+            row.setAlignment(Pos.TOP_LEFT);
+            setGraphic(row);
+        }
+
+        @Override
+        protected void updateItem(List<Game> item, boolean empty) {
+            super.updateItem(item, empty);
+            setText(null);
+            if (empty || item == null) {
+                row.setVisible(false);
+                return;
+            }
+            row.setVisible(true);
+            while (cards.size() < item.size()) {
+                GameCard card = new GameCard();
+                cards.add(card);
+                row.getChildren().add(card);
+            }
+            for (int i = 0; i < cards.size(); i++) {
+                GameCard card = cards.get(i);
+                if (i < item.size()) {
+                    card.bind(item.get(i));
+                } else {
+                    // Trailing slots of the last row; kept for reuse once the cell scrolls elsewhere
+                    card.setVisible(false);
+                }
+            }
+        }
+    }
+
+    private class GameCard extends VBox {
+        private final Label titleLabel = new Label();
+        private final Label priceLabel = new Label();
+        private final Button actionButton = new Button();
+
+        GameCard() {
+            super(5);
+            getStyleClass().add("store-card");
+            // Hidden slots shouldn't take up room in the row
+            managedProperty().bind(visibleProperty());
+            setPrefSize(CARD_WIDTH, CARD_HEIGHT);
+            setMinSize(CARD_WIDTH, CARD_HEIGHT);
+            setMaxSize(CARD_WIDTH, CARD_HEIGHT);
+            titleLabel.getStyleClass().add("store-card-title");
+            priceLabel.getStyleClass().add("store-card-price");
+            actionButton.setPrefWidth(120);
+            actionButton.getStyleClass().add("game-button");
+            getChildren().addAll(titleLabel, priceLabel, actionButton);
+        }
+
+        void bind(Game game) {
+            setVisible(true);
+            titleLabel.setText(game.getTitle());
+            priceLabel.setText(String.format("$%.2f", game.getPrice()));
+            actionBinder.accept(game, actionButton);
+        }
+    }
+}
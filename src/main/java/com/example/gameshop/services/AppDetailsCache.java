@@ -0,0 +1,319 @@
+package com.example.gameshop.services;
+
+import com.example.gameshop.models.GameDetails;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+// Steam store details per appid, shared by every user's import. Entries live in memory and are
+// persisted to a compact binary file so they survive restarts. A fresh entry is served as is; a
+// stale one is still served, and the caller revalidates it in the background.
+public class AppDetailsCache {
+    private static final Logger logger = Logger.getLogger(AppDetailsCache.class.getName());
+
+    private static final int MAGIC = 0x47534144; // "GSAD"
+    private static final int FORMAT_VERSION = 1;
+    private static final long FLUSH_INTERVAL_SEC = 60;
+
+    private static final AppDetailsCache instance = new AppDetailsCache(
+        Paths.get(System.getProperty("gameshop.steam.detailsCache",
+            Paths.get(System.getProperty("user.home"), ".gameshop", "appdetails.bin").toString())),
+        TimeUnit.HOURS.toMillis(Long.getLong("gameshop.steam.detailsTtlHours", 24L)),
+        TimeUnit.DAYS.toMillis(Long.getLong("gameshop.steam.detailsMaxStaleDays", 30L)));
+
+    private final Path file;
+    private final long ttlMillis;
+    private final long maxStaleMillis;
+    private final Map<Integer, Entry> entries = new ConcurrentHashMap<>();
+    private final Set<Integer> revalidating = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final ScheduledExecutorService flusher;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong revalidations = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+    private final AtomicLong bytesSaved = new AtomicLong();
+    private final AtomicLong bytesFetched = new AtomicLong();
+
+    AppDetailsCache(Path file, long ttlMillis, long maxStaleMillis) {
+        this.file = file;
+        this.ttlMillis = ttlMillis;
+        this.maxStaleMillis = maxStaleMillis;
+        load();
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "appdetails-flusher");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, FLUSH_INTERVAL_SEC, FLUSH_INTERVAL_SEC, TimeUnit.SECONDS);
+    }
+
+    public static AppDetailsCache getInstance() {
+        return instance;
+    }
+
+    // Null when the app was never fetched or its entry is too old to serve even while revalidating
+    public Lookup lookup(int appId) {
+        Entry entry = entries.get(appId);
+        long age = entry == null ? Long.MAX_VALUE : System.currentTimeMillis() - entry.fetchedAt;
+        if (entry == null || age >= maxStaleMillis) {
+            misses.incrementAndGet();
+            return null;
+        }
+        bytesSaved.addAndGet(entry.bodyBytes);
+        boolean fresh = age < ttlMillis;
+        if (fresh) {
+            hits.incrementAndGet();
+        } else {
+            staleHits.incrementAndGet();
+        }
+        return new Lookup(entry.copyDetails(), fresh, entry.etag);
+    }
+
+    public void put(int appId, GameDetails details, String etag, int bodyBytes) {
+        entries.put(appId, new Entry(System.currentTimeMillis(), etag, bodyBytes,
+            details.getDeveloper(), details.getPublisher(), details.getGenre(),
+            details.getDescription(), details.getPrice()));
+        bytesFetched.addAndGet(bodyBytes);
+        dirty.set(true);
+    }
+
+    // The server confirmed our copy is current (304), so restart its TTL
+    public void touch(int appId) {
+        entries.computeIfPresent(appId, (id, entry) -> entry.refreshed(System.currentTimeMillis()));
+        notModified.incrementAndGet();
+        bytesSaved.addAndGet(entryBytes(appId));
+        dirty.set(true);
+    }
+
+    private int entryBytes(int appId) {
+        Entry entry = entries.get(appId);
+        return entry == null ? 0 : entry.bodyBytes;
+    }
+
+    // At most one background revalidation per app; callers must call finishRevalidation after
+    public boolean startRevalidation(int appId) {
+        if (revalidating.add(appId)) {
+            revalidations.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    public void finishRevalidation(int appId) {
+        revalidating.remove(appId);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void load() {
+        try {
+            if (!Files.exists(file) || Files.size(file) == 0) {
+                return;
+            }
+        } catch (IOException e) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                logger.warning("Ignoring app details cache with unknown format: " + file);
+                return;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                int appId = in.readInt();
+                entries.put(appId, new Entry(in.readLong(), readString(in), in.readInt(),
+                    readString(in), readString(in), readString(in), readString(in), in.readDouble()));
+            }
+        } catch (IOException e) {
+            // A truncated or corrupt file only costs us a refetch
+            logger.warning("Failed to read app details cache " + file + ": " + e.getMessage());
+            entries.clear();
+        }
+    }
+
+    // Writes a temp file and moves it into place, so a crash never leaves a half-written cache
+    public void flush() throws IOException {
+        if (!dirty.getAndSet(false)) {
+            return;
+        }
+        Map<Integer, Entry> snapshot = Map.copyOf(entries);
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(snapshot.size());
+            for (Map.Entry<Integer, Entry> e : snapshot.entrySet()) {
+                Entry entry = e.getValue();
+                out.writeInt(e.getKey());
+                out.writeLong(entry.fetchedAt);
+                writeString(out, entry.etag);
+                out.writeInt(entry.bodyBytes);
+                writeString(out, entry.developer);
+                writeString(out, entry.publisher);
+                writeString(out, entry.genre);
+                writeString(out, entry.description);
+                out.writeDouble(entry.price);
+            }
+        } catch (IOException e) {
+            dirty.set(true);
+            throw e;
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException e) {
+            logger.warning("Failed to write app details cache " + file + ": " + e.getMessage());
+        }
+    }
+
+    public void shutdown() {
+        flusher.shutdownNow();
+        flushQuietly();
+    }
+
+    // writeUTF caps strings at 64KB, and store descriptions can be longer
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public Stats getStats() {
+        return new Stats(hits.get(), staleHits.get(), misses.get(), revalidations.get(),
+            notModified.get(), bytesSaved.get(), bytesFetched.get(), entries.size());
+    }
+
+    public static class Lookup {
+        private final GameDetails details;
+        private final boolean fresh;
+        private final String etag;
+
+        Lookup(GameDetails details, boolean fresh, String etag) {
+            this.details = details;
+            this.fresh = fresh;
+            this.etag = etag;
+        }
+
+        public GameDetails getDetails() { return details; }
+        public boolean isFresh() { return fresh; }
+        public String getEtag() { return etag; }
+    }
+
+    private static class Entry {
+        private final long fetchedAt;
+        private final String etag;
+        private final int bodyBytes;
+        private final String developer;
+        private final String publisher;
+        private final String genre;
+        private final String description;
+        private final double price;
+
+        Entry(long fetchedAt, String etag, int bodyBytes, String developer, String publisher,
+              String genre, String description, double price) {
+            this.fetchedAt = fetchedAt;
+            this.etag = etag;
+            this.bodyBytes = bodyBytes;
+            this.developer = developer;
+            this.publisher = publisher;
+            this.genre = genre;
+            this.description = description;
+            this.price = price;
+        }
+
+        Entry refreshed(long now) {
+            return new Entry(now, etag, bodyBytes, developer, publisher, genre, description, price);
+        }
+
+        GameDetails copyDetails() {
+            return new GameDetails(developer, publisher, genre, description, price);
+        }
+    }
+
+    public static class Stats {
+        private final long hits;
+        private final long staleHits;
+        private final long misses;
+        private final long revalidations;
+        private final long notModified;
+        private final long bytesSaved;
+        private final long bytesFetched;
+        private final int size;
+
+        Stats(long hits, long staleHits, long misses, long revalidations, long notModified,
+              long bytesSaved, long bytesFetched, int size) {
+            this.hits = hits;
+            this.staleHits = staleHits;
+            this.misses = misses;
+            this.revalidations = revalidations;
+            this.notModified = notModified;
+            this.bytesSaved = bytesSaved;
+            this.bytesFetched = bytesFetched;
+            this.size = size;
+        }
+
+        public long getHits() { return hits; }
+        public long getStaleHits() { return staleHits; }
+        public long getMisses() { return misses; }
+        public long getRevalidations() { return revalidations; }
+        public long getNotModified() { return notModified; }
+        public long getBytesSaved() { return bytesSaved; }
+        public long getBytesFetched() { return bytesFetched; }
+        public int getSize() { return size; }
+
+        // Stale entries are still served without waiting on the network, so they count as hits
+        public double getHitRatio() {
+            long total = hits + staleHits + misses;
+            return total == 0 ? 0.0 : (double) (hits + staleHits) / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("appdetails[size=%d, hits=%d, stale=%d, misses=%d, hitRatio=%.1f%%, " +
+                    "revalidations=%d, notModified=%d, bytesSaved=%d, bytesFetched=%d]",
+                    size, hits, staleHits, misses, getHitRatio() * 100, revalidations, notModified,
+                    bytesSaved, bytesFetched);
+        }
+    }
+}
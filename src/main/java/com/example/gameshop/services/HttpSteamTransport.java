@@ -0,0 +1,251 @@
+package com.example.gameshop.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+// Sends Steam requests over one shared HttpClient, so connections and TLS sessions are reused,
+// and caps how many requests run against each host at a time. Requests beyond the cap wait in a
+// per-host queue instead of holding a thread.
+public class HttpSteamTransport implements SteamTransport {
+    private static final Logger logger = Logger.getLogger(HttpSteamTransport.class.getName());
+
+    public enum Mode {
+        // HttpClient.sendAsync on the client's own executor
+        ASYNC,
+        // Blocking send on a virtual thread per request; falls back to ASYNC before Java 21
+        VIRTUAL_THREADS
+    }
+
+    private static final HttpSteamTransport instance = new HttpSteamTransport(
+        Mode.valueOf(System.getProperty("gameshop.steam.fetchMode", "ASYNC")),
+        Integer.getInteger("gameshop.steam.perHostLimit", 8),
+        Duration.ofSeconds(Long.getLong("gameshop.steam.connectTimeoutSec", 10L)));
+
+    private final HttpClient client;
+    private final Mode mode;
+    private final int perHostLimit;
+    private final ExecutorService virtualThreads;
+    private final Map<String, HostLimiter> hosts = new ConcurrentHashMap<>();
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    public HttpSteamTransport(Mode mode, int perHostLimit, Duration connectTimeout) {
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        this.perHostLimit = perHostLimit;
+
+        ExecutorService executor = mode == Mode.VIRTUAL_THREADS ? newVirtualThreadExecutor() : null;
+        this.virtualThreads = executor;
+        this.mode = executor == null ? Mode.ASYNC : mode;
+    }
+
+    public static HttpSteamTransport getInstance() {
+        return instance;
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor exists from Java 21; the build targets 17
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) java.util.concurrent.Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+        } catch (ReflectiveOperationException e) {
+            logger.info("Virtual threads are not available, using async HTTP instead");
+            return null;
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    @Override
+    public <T> CompletableFuture<T> get(URI uri, Map<String, String> headers, Duration timeout,
+                                        ResponseHandler<T> handler) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .header("Accept", "application/json")
+                .GET();
+        headers.forEach(builder::header);
+        HttpRequest request = builder.build();
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        HostLimiter limiter = hosts.computeIfAbsent(uri.getAuthority(), host -> new HostLimiter(perHostLimit));
+        limiter.submit(() -> {
+            CompletableFuture<HttpResponse<InputStream>> sent;
+            try {
+                sent = send(request, HttpResponse.BodyHandlers.ofInputStream());
+            } catch (RuntimeException e) {
+                // sendAsync and the executor throw rather than fail the future for some errors; the
+                // permit still has to go back or the host's queue stalls
+                finished(true);
+                limiter.release();
+                result.completeExceptionally(e);
+                return;
+            }
+            sent.whenComplete((response, error) -> finished(error != null || response.statusCode() >= 400))
+                .thenApply(response -> {
+                    try {
+                        return handler.handle(new HttpResponseAdapter(response));
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    } finally {
+                        // Handlers may stop reading early; closing gives the connection back
+                        close(response.body());
+                    }
+                })
+                .whenComplete((value, error) -> {
+                    limiter.release();
+                    if (error != null) {
+                        result.completeExceptionally(unwrap(error));
+                    } else {
+                        result.complete(value);
+                    }
+                });
+        });
+        return result;
+    }
+
+    private <B> CompletableFuture<HttpResponse<B>> send(HttpRequest request, HttpResponse.BodyHandler<B> bodyHandler) {
+        requests.incrementAndGet();
+        int now = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(now, Math::max);
+        if (virtualThreads == null) {
+            return client.sendAsync(request, bodyHandler);
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return client.send(request, bodyHandler);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+        }, virtualThreads);
+    }
+
+    private void finished(boolean failed) {
+        inFlight.decrementAndGet();
+        if (failed) {
+            failures.incrementAndGet();
+        }
+    }
+
+    private static class HttpResponseAdapter implements Response {
+        private final HttpResponse<InputStream> response;
+
+        HttpResponseAdapter(HttpResponse<InputStream> response) {
+            this.response = response;
+        }
+
+        @Override
+        public int statusCode() {
+            return response.statusCode();
+        }
+
+        @Override
+        public Optional<String> header(String name) {
+            return response.headers().firstValue(name);
+        }
+
+        @Override
+        public InputStream body() {
+            return response.body();
+        }
+    }
+
+    private static void close(InputStream body) {
+        try {
+            body.close();
+        } catch (IOException e) {
+            logger.fine("Closing a Steam response body failed: " + e.getMessage());
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    public Stats getStats() {
+        return new Stats(requests.get(), failures.get(), inFlight.get(), maxInFlight.get());
+    }
+
+    // Runs at most `limit` requests at once; the rest queue up and start as earlier ones finish
+    private static class HostLimiter {
+        private final Semaphore permits;
+        private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+
+        HostLimiter(int limit) {
+            this.permits = new Semaphore(limit);
+        }
+
+        void submit(Runnable start) {
+            pending.add(start);
+            drain();
+        }
+
+        void release() {
+            permits.release();
+            drain();
+        }
+
+        private void drain() {
+            while (!pending.isEmpty() && permits.tryAcquire()) {
+                Runnable next = pending.poll();
+                if (next == null) {
+                    permits.release();
+                } else {
+                    next.run();
+                }
+            }
+        }
+    }
+
+    public static class Stats {
+        private final long requests;
+        private final long failures;
+        private final int inFlight;
+        private final int maxInFlight;
+
+        Stats(long requests, long failures, int inFlight, int maxInFlight) {
+            this.requests = requests;
+            this.failures = failures;
+            this.inFlight = inFlight;
+            this.maxInFlight = maxInFlight;
+        }
+
+        public long getRequests() { return requests; }
+        public long getFailures() { return failures; }
+        public int getInFlight() { return inFlight; }
+        public int getMaxInFlight() { return maxInFlight; }
+
+        @Override
+        public String toString() {
+            return String.format("steam[requests=%d, failures=%d, inFlight=%d, maxInFlight=%d]",
+                    requests, failures, inFlight, maxInFlight);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.gameshop.services;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+// Walks a GetOwnedGames response ({"response": {"games": [...]}}) straight off the HTTP stream
+// and hands each entry of the games array to the caller as soon as it has been read. Only one
+// entry is materialized at a time; every other field is skipped.
+public final class OwnedGamesStreamParser {
+    private interface FieldHandler {
+        // Consume the value of the field and return true, or return false to have it skipped
+        boolean field(String key);
+    }
+
+    private OwnedGamesStreamParser() {
+    }
+
+    // Returns the number of entries handed to onGame
+    public static int parse(InputStream body, Consumer<JSONObject> onGame) throws IOException {
+        JSONTokener tokener = new JSONTokener(new InputStreamReader(body, StandardCharsets.UTF_8));
+        int[] count = {0};
+        try {
+            char first = tokener.nextClean();
+            if (first == 0) {
+                throw new IOException("Empty response from Steam API");
+            }
+            if (first != '{') {
+                throw tokener.syntaxError("Expected a JSON object");
+            }
+            readObject(tokener, key -> {
+                if (!key.equals("response")) {
+                    return false;
+                }
+                expect(tokener, '{');
+                readObject(tokener, responseKey -> {
+                    if (!responseKey.equals("games")) {
+                        return false;
+                    }
+                    count[0] += readGames(tokener, onGame);
+                    return true;
+                });
+                return true;
+            });
+        } catch (JSONException e) {
+            throw new IOException("Invalid JSON response from Steam API: " + e.getMessage(), e);
+        }
+        return count[0];
+    }
+
+    // Reads the fields of an object whose opening brace has already been consumed
+    private static void readObject(JSONTokener tokener, FieldHandler handler) {
+        char c = tokener.nextClean();
+        if (c == '}') {
+            return;
+        }
+        tokener.back();
+        while (true) {
+            if (tokener.nextClean() != '"') {
+                throw tokener.syntaxError("Expected a quoted key");
+            }
+            String key = tokener.nextString('"');
+            expect(tokener, ':');
+            if (!handler.field(key)) {
+                tokener.nextValue();
+            }
+            c = tokener.nextClean();
+            if (c == '}') {
+                return;
+            }
+            if (c != ',') {
+                throw tokener.syntaxError("Expected ',' or '}'");
+            }
+        }
+    }
+
+    private static int readGames(JSONTokener tokener, Consumer<JSONObject> onGame) {
+        expect(tokener, '[');
+        int count = 0;
+        char c = tokener.nextClean();
+        if (c == ']') {
+            return 0;
+        }
+        tokener.back();
+        while (true) {
+            Object value = tokener.nextValue();
+            if (value instanceof JSONObject) {
+                onGame.accept((JSONObject) value);
+                count++;
+            }
+            c = tokener.nextClean();
+            if (c == ']') {
+                return count;
+            }
+            if (c != ',') {
+                throw tokener.syntaxError("Expected ',' or ']'");
+            }
+        }
+    }
+
+    private static void expect(JSONTokener tokener, char expected) {
+        if (tokener.nextClean() != expected) {
+            throw tokener.syntaxError("Expected '" + expected + "'");
+        }
+    }
+}
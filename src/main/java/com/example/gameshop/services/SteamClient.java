@@ -0,0 +1,497 @@
+package com.example.gameshop.services;
+
+import com.example.gameshop.models.Game;
+import com.example.gameshop.models.GameDetails;
+import org.json.JSONObject;
+
+import com.example.gameshop.utils.CircuitBreaker;
+import com.example.gameshop.utils.FxThreadGuard;
+import com.example.gameshop.utils.TokenBucketRateLimiter;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+// The one way the app talks to Steam. Every call is non-blocking and returns a CompletableFuture
+// (or a Flow.Publisher for streamed results). Requests go through a pluggable SteamTransport, and
+// each call type records its own latency.
+public class SteamClient {
+    private static final Logger logger = Logger.getLogger(SteamClient.class.getName());
+
+    private static final String OWNED_GAMES = "GetOwnedGames";
+    private static final String APP_DETAILS = "appdetails";
+    private static final String APP_DETAILS_REVALIDATE = "appdetails.revalidate";
+
+    private static final SteamClient instance = new SteamClient(
+        HttpSteamTransport.getInstance(), Config.fromSystemProperties(), AppDetailsCache.getInstance());
+
+    private static final long MAX_BACKOFF_MS = 30_000;
+
+    private final SteamTransport transport;
+    private final Config config;
+    private final Limits limits;
+    private final AppDetailsCache detailsCache;
+    private final Map<String, CallStats> callStats = new ConcurrentHashMap<>();
+    private final Map<String, Upstream> upstreams = new ConcurrentHashMap<>();
+
+    public SteamClient(SteamTransport transport, Config config, AppDetailsCache detailsCache) {
+        this(transport, config, Limits.fromSystemProperties(), detailsCache);
+    }
+
+    public SteamClient(SteamTransport transport, Config config, Limits limits, AppDetailsCache detailsCache) {
+        this.transport = transport;
+        this.config = config;
+        this.limits = limits;
+        this.detailsCache = detailsCache;
+    }
+
+    public static SteamClient getInstance() {
+        return instance;
+    }
+
+    public static class Config {
+        private final String apiKey;
+        private final String apiBaseUrl;
+        private final String storeBaseUrl;
+        private final Duration libraryTimeout;
+        private final Duration detailsTimeout;
+
+        public Config(String apiKey, String apiBaseUrl, String storeBaseUrl,
+                      Duration libraryTimeout, Duration detailsTimeout) {
+            this.apiKey = apiKey;
+            this.apiBaseUrl = apiBaseUrl;
+            this.storeBaseUrl = storeBaseUrl;
+            this.libraryTimeout = libraryTimeout;
+            this.detailsTimeout = detailsTimeout;
+        }
+
+        public static Config fromSystemProperties() {
+            return new Config(
+                System.getProperty("gameshop.steam.apiKey", ""),
+                System.getProperty("gameshop.steam.apiUrl", "http://api.steampowered.com"),
+                System.getProperty("gameshop.steam.storeUrl", "https://store.steampowered.com"),
+                Duration.ofSeconds(Long.getLong("gameshop.steam.libraryTimeoutSec", 30L)),
+                Duration.ofSeconds(Long.getLong("gameshop.steam.detailsTimeoutSec", 15L)));
+        }
+    }
+
+    // Steam throttles the store API much harder than the Web API, so each host gets its own
+    // process-wide token bucket and circuit breaker
+    public static class Limits {
+        private final double apiPermitsPerSecond;
+        private final double storePermitsPerSecond;
+        private final int burst;
+        private final int maxQueue;
+        private final int maxAttempts;
+        private final long baseBackoffMillis;
+        private final int breakerFailureThreshold;
+        private final long breakerOpenMillis;
+
+        public Limits(double apiPermitsPerSecond, double storePermitsPerSecond, int burst, int maxQueue,
+                      int maxAttempts, long baseBackoffMillis, int breakerFailureThreshold, long breakerOpenMillis) {
+            this.apiPermitsPerSecond = apiPermitsPerSecond;
+            this.storePermitsPerSecond = storePermitsPerSecond;
+            this.burst = burst;
+            this.maxQueue = maxQueue;
+            this.maxAttempts = maxAttempts;
+            this.baseBackoffMillis = baseBackoffMillis;
+            this.breakerFailureThreshold = breakerFailureThreshold;
+            this.breakerOpenMillis = breakerOpenMillis;
+        }
+
+        public static Limits fromSystemProperties() {
+            return new Limits(
+                Double.parseDouble(System.getProperty("gameshop.steam.apiRatePerSec", "5")),
+                // The store allows roughly 200 appdetails calls per 5 minutes per IP
+                Double.parseDouble(System.getProperty("gameshop.steam.storeRatePerSec", "0.66")),
+                Integer.getInteger("gameshop.steam.rateBurst", 10),
+                Integer.getInteger("gameshop.steam.rateMaxQueue", 5_000),
+                Integer.getInteger("gameshop.steam.maxAttempts", 4),
+                Long.getLong("gameshop.steam.backoffBaseMs", 500L),
+                Integer.getInteger("gameshop.steam.breakerThreshold", 5),
+                Long.getLong("gameshop.steam.breakerOpenMs", 30_000L));
+        }
+    }
+
+    // The library call needs a Web API key; there is no default, so it must be configured per install
+    public boolean hasApiKey() {
+        return config.apiKey != null && !config.apiKey.isBlank();
+    }
+
+    // The user's library as Steam lists it: app id, name and playtime, without store details
+    public CompletableFuture<List<Game>> getOwnedGames(String steamId) {
+        if (!hasApiKey()) {
+            return CompletableFuture.failedFuture(new IllegalStateException(
+                "No Steam Web API key configured; set -Dgameshop.steam.apiKey"));
+        }
+        URI uri = URI.create(String.format("%s/IPlayerService/GetOwnedGames/v0001/?key=%s&steamid=%s&format=json&include_appinfo=1",
+            config.apiBaseUrl, config.apiKey, URLEncoder.encode(steamId, StandardCharsets.UTF_8)));
+        return timed(OWNED_GAMES, call(uri, Map.of(), config.libraryTimeout, response -> {
+            checkOk(response, uri);
+            List<Game> library = new ArrayList<>();
+            // Each entry becomes a Game as soon as it is read, so the document is never held in full
+            OwnedGamesStreamParser.parse(response.body(), gameJson -> {
+                if (!gameJson.has("name") || !gameJson.has("appid")) {
+                    logger.warning("Skipping game: Missing required fields");
+                    return;
+                }
+                Game game = new Game(gameJson.getString("name"), "", 0.0);
+                game.setAppId(gameJson.getInt("appid"));
+                game.setPlaytime(gameJson.optInt("playtime_forever", 0));
+                game.setPlaytimeMinutes(game.getPlaytime());
+                library.add(game);
+            });
+            return library;
+        }));
+    }
+
+    // The library with store details filled in. Each game goes to onGame as soon as its details
+    // are known; the returned list keeps Steam's order and skips games whose details failed.
+    public CompletableFuture<List<Game>> getOwnedGamesWithDetails(String steamId, Consumer<Game> onGame) {
+        return getOwnedGames(steamId).thenCompose(library -> {
+            Game[] slots = new Game[library.size()];
+            CompletableFuture<?>[] pending = new CompletableFuture<?>[library.size()];
+            for (int i = 0; i < library.size(); i++) {
+                int index = i;
+                Game entry = library.get(i);
+                pending[i] = getAppDetails(entry.getAppId()).handle((details, error) -> {
+                    if (error != null) {
+                        // Continue loading other games even if one fails
+                        logger.warning("Failed to load game: " + entry.getTitle() + " (" + entry.getAppId() +
+                            ")\nError: " + unwrap(error).getMessage());
+                        return null;
+                    }
+                    Game game = new Game(entry.getTitle(), details, entry.getPlaytime());
+                    game.setAppId(entry.getAppId());
+                    game.setPlaytime(entry.getPlaytime());
+                    slots[index] = game;
+                    if (onGame != null) {
+                        onGame.accept(game);
+                    }
+                    return null;
+                });
+            }
+            return CompletableFuture.allOf(pending).thenApply(done -> {
+                List<Game> games = new ArrayList<>(slots.length);
+                for (Game game : slots) {
+                    if (game != null) {
+                        games.add(game);
+                    }
+                }
+                return games;
+            });
+        });
+    }
+
+    // Cold publisher: every subscriber triggers its own fetch and receives games as they resolve
+    public Flow.Publisher<Game> ownedGamesWithDetails(String steamId) {
+        return subscriber -> {
+            SubmissionPublisher<Game> publisher = new SubmissionPublisher<>();
+            publisher.subscribe(subscriber);
+            getOwnedGamesWithDetails(steamId, publisher::submit).whenComplete((games, error) -> {
+                if (error != null) {
+                    publisher.closeExceptionally(unwrap(error));
+                } else {
+                    publisher.close();
+                }
+            });
+        };
+    }
+
+    // Served from AppDetailsCache when possible; a stale entry is returned immediately and
+    // revalidated in the background
+    public CompletableFuture<GameDetails> getAppDetails(int appId) {
+        AppDetailsCache.Lookup cached = detailsCache.lookup(appId);
+        if (cached != null) {
+            if (!cached.isFresh()) {
+                revalidate(appId, cached.getEtag());
+            }
+            return CompletableFuture.completedFuture(cached.getDetails());
+        }
+        URI uri = detailsUri(appId);
+        return timed(APP_DETAILS, call(uri, Map.of(), config.detailsTimeout, response -> {
+            checkOk(response, uri);
+            GameDetails details = cacheDetails(appId, response);
+            return details != null ? details : unknownDetails();
+        }));
+    }
+
+    private void revalidate(int appId, String etag) {
+        if (!detailsCache.startRevalidation(appId)) {
+            return;
+        }
+        Map<String, String> headers = etag == null ? Map.of() : Map.of("If-None-Match", etag);
+        timed(APP_DETAILS_REVALIDATE, call(detailsUri(appId), headers, config.detailsTimeout, response -> {
+            if (response.statusCode() == 304) {
+                detailsCache.touch(appId);
+            } else if (response.statusCode() == 200) {
+                cacheDetails(appId, response);
+            }
+            return null;
+        })).whenComplete((ignored, error) -> {
+            detailsCache.finishRevalidation(appId);
+            if (error != null) {
+                logger.fine("Revalidating app " + appId + " failed: " + unwrap(error).getMessage());
+            }
+        });
+    }
+
+    private URI detailsUri(int appId) {
+        return URI.create(String.format("%s/api/appdetails?appids=%d", config.storeBaseUrl, appId));
+    }
+
+    // Parses a 200 appdetails response and caches it; null when Steam has no data for the app
+    private GameDetails cacheDetails(int appId, SteamTransport.Response response) throws IOException {
+        byte[] body = response.body().readAllBytes();
+        GameDetails details = parseDetails(appId, new JSONObject(new String(body, StandardCharsets.UTF_8)));
+        if (details != null) {
+            detailsCache.put(appId, details, response.header("ETag").orElse(null), body.length);
+        }
+        return details;
+    }
+
+    private static GameDetails parseDetails(int appId, JSONObject json) {
+        if (json.has(String.valueOf(appId))) {
+            JSONObject appData = json.getJSONObject(String.valueOf(appId));
+            if (appData.has("data") && appData.optBoolean("success", false)) {
+                JSONObject data = appData.getJSONObject("data");
+                return new GameDetails(
+                    data.optString("developer", "Unknown Developer"),
+                    data.optString("publisher", "Unknown Publisher"),
+                    data.has("genres") && data.getJSONArray("genres").length() > 0
+                        ? data.getJSONArray("genres").getJSONObject(0).optString("description", "Unknown Genre")
+                        : "Unknown Genre",
+                    data.optString("detailed_description", "No description available"),
+                    data.has("price_overview")
+                        ? data.getJSONObject("price_overview").optDouble("final", 0.0) / 100.0
+                        : 0.0
+                );
+            }
+        }
+        return null;
+    }
+
+    private static GameDetails unknownDetails() {
+        return new GameDetails(
+            "Unknown Developer",
+            "Unknown Publisher",
+            "Unknown Genre",
+            "No description available",
+            0.0
+        );
+    }
+
+    // One logical request: waits for a rate-limit permit, fails fast while the host's circuit is
+    // open, and retries throttling (429), server errors and transport failures with jittered
+    // exponential backoff, honouring Retry-After
+    private <T> CompletableFuture<T> call(URI uri, Map<String, String> headers, Duration timeout,
+                                          SteamTransport.ResponseHandler<T> handler) {
+        // The request itself is async; this records the synchronous part (rate limiting, request
+        // setup) when a UI handler starts Steam work directly
+        FxThreadGuard.Call fxCall = FxThreadGuard.getInstance().enter("steam");
+        try {
+            return attempt(upstreamFor(uri), uri, headers, timeout, handler, 1);
+        } finally {
+            if (fxCall != null) {
+                fxCall.end();
+            }
+        }
+    }
+
+    private <T> CompletableFuture<T> attempt(Upstream upstream, URI uri, Map<String, String> headers, Duration timeout,
+                                             SteamTransport.ResponseHandler<T> handler, int attempt) {
+        return upstream.limiter.acquire()
+            .thenCompose(permit -> {
+                // Only once the permit is granted: the circuit may have opened while this call was
+                // queued, and a queued call must not hold the half-open trial
+                try {
+                    upstream.breaker.acquirePermission();
+                } catch (CircuitBreaker.OpenException e) {
+                    return CompletableFuture.<T>failedFuture(e);
+                }
+                return transport.get(uri, headers, timeout, response -> {
+                    if (response.statusCode() == 429 || response.statusCode() >= 500) {
+                        throw new RetryableStatusException(uri, response.statusCode(), retryAfterMillis(response));
+                    }
+                    T value = handler.handle(response);
+                    // Only a response the handler accepted closes the circuit
+                    upstream.breaker.recordSuccess();
+                    return value;
+                }).whenComplete((value, error) -> {
+                    if (error != null && !isUpstreamFailure(unwrap(error))) {
+                        // Neither a success nor an upstream failure: give the half-open trial back
+                        upstream.breaker.releasePermission();
+                    }
+                });
+            })
+            .handle((value, error) -> {
+                Throwable cause = error == null ? null : unwrap(error);
+                if (cause == null || !isUpstreamFailure(cause)) {
+                    // Local rejections (open circuit, full limiter queue) and handler or parse errors
+                    // are not counted against the host
+                    return error == null ? CompletableFuture.completedFuture(value) : CompletableFuture.<T>failedFuture(cause);
+                }
+                upstream.breaker.recordFailure();
+                upstream.retries.incrementAndGet();
+                if (attempt >= limits.maxAttempts) {
+                    return CompletableFuture.<T>failedFuture(cause);
+                }
+                long delay = backoffMillis(attempt, cause);
+                return CompletableFuture.supplyAsync(() -> null,
+                        CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS))
+                    .thenCompose(ignored -> attempt(upstream, uri, headers, timeout, handler, attempt + 1));
+            })
+            .thenCompose(Function.identity());
+    }
+
+    private static boolean isUpstreamFailure(Throwable cause) {
+        return cause instanceof RetryableStatusException
+            || cause instanceof HttpTimeoutException
+            || cause instanceof ConnectException;
+    }
+
+    // Full jitter: a random delay up to the exponential cap, but never sooner than Retry-After
+    private long backoffMillis(int attempt, Throwable cause) {
+        long cap = Math.min(MAX_BACKOFF_MS, limits.baseBackoffMillis << (attempt - 1));
+        long delay = ThreadLocalRandom.current().nextLong(cap + 1);
+        if (cause instanceof RetryableStatusException) {
+            delay = Math.max(delay, ((RetryableStatusException) cause).retryAfterMillis);
+        }
+        return delay;
+    }
+
+    private static long retryAfterMillis(SteamTransport.Response response) {
+        try {
+            return response.header("Retry-After")
+                .map(value -> Math.min(MAX_BACKOFF_MS, Long.parseLong(value.trim()) * 1000))
+                .orElse(0L);
+        } catch (NumberFormatException e) {
+            // HTTP-date form; fall back to our own backoff
+            return 0;
+        }
+    }
+
+    private Upstream upstreamFor(URI uri) {
+        boolean store = uri.toString().startsWith(config.storeBaseUrl);
+        return upstreams.computeIfAbsent(store ? "store" : "api", name -> new Upstream(name,
+            store ? limits.storePermitsPerSecond : limits.apiPermitsPerSecond, limits));
+    }
+
+    private static class Upstream {
+        private final TokenBucketRateLimiter limiter;
+        private final CircuitBreaker breaker;
+        private final AtomicLong retries = new AtomicLong();
+
+        Upstream(String name, double permitsPerSecond, Limits limits) {
+            this.limiter = new TokenBucketRateLimiter("steam-" + name, permitsPerSecond, limits.burst, limits.maxQueue);
+            this.breaker = new CircuitBreaker("Steam " + name, limits.breakerFailureThreshold, limits.breakerOpenMillis);
+        }
+    }
+
+    static class RetryableStatusException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        private final long retryAfterMillis;
+
+        RetryableStatusException(URI uri, int status, long retryAfterMillis) {
+            super("HTTP " + status + " from " + uri.getHost() + uri.getPath());
+            this.retryAfterMillis = retryAfterMillis;
+        }
+    }
+
+    // Rate limiter, circuit breaker and retry counts per upstream host ("api" and "store")
+    public Map<String, String> getUpstreamStats() {
+        Map<String, String> stats = new TreeMap<>();
+        upstreams.forEach((name, upstream) -> stats.put(name, upstream.limiter.getStats() + " " +
+            upstream.breaker + " retries=" + upstream.retries.get()));
+        return Collections.unmodifiableMap(stats);
+    }
+
+    private static void checkOk(SteamTransport.Response response, URI uri) throws IOException {
+        if (response.statusCode() != 200) {
+            throw new IOException("HTTP " + response.statusCode() + " from " + uri.getHost() + uri.getPath());
+        }
+    }
+
+    private <T> CompletableFuture<T> timed(String call, CompletableFuture<T> future) {
+        long start = System.nanoTime();
+        CallStats stats = callStats.computeIfAbsent(call, name -> new CallStats());
+        return future.whenComplete((value, error) -> stats.record(System.nanoTime() - start, error != null));
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    // Latency per call type, keyed by call name
+    public Map<String, CallStats.Snapshot> getCallStats() {
+        Map<String, CallStats.Snapshot> snapshot = new TreeMap<>();
+        callStats.forEach((call, stats) -> snapshot.put(call, stats.snapshot()));
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    public static class CallStats {
+        private final AtomicLong calls = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long nanos, boolean failed) {
+            calls.incrementAndGet();
+            if (failed) {
+                errors.incrementAndGet();
+            }
+            totalNanos.addAndGet(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        Snapshot snapshot() {
+            long count = calls.get();
+            return new Snapshot(count, errors.get(),
+                count == 0 ? 0.0 : totalNanos.get() / 1_000_000.0 / count, maxNanos.get() / 1_000_000.0);
+        }
+
+        public static class Snapshot {
+            private final long calls;
+            private final long errors;
+            private final double avgMillis;
+            private final double maxMillis;
+
+            Snapshot(long calls, long errors, double avgMillis, double maxMillis) {
+                this.calls = calls;
+                this.errors = errors;
+                this.avgMillis = avgMillis;
+                this.maxMillis = maxMillis;
+            }
+
+            public long getCalls() { return calls; }
+            public long getErrors() { return errors; }
+            public double getAvgMillis() { return avgMillis; }
+            public double getMaxMillis() { return maxMillis; }
+
+            @Override
+            public String toString() {
+                return String.format("calls=%d, errors=%d, avg=%.1fms, max=%.1fms", calls, errors, avgMillis, maxMillis);
+            }
+        }
+    }
+}
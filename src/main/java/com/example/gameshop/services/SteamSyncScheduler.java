@@ -0,0 +1,224 @@
+package com.example.gameshop.services;
+
+import com.example.gameshop.dao.DatabaseManager;
+import com.example.gameshop.dao.SteamSyncState;
+import com.example.gameshop.models.SteamSyncResult;
+import com.example.gameshop.utils.ThreadPool;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+// Re-syncs the Steam library of every user with a linked steam_id in the background.
+// Each poll picks the users whose next sync is due (recently active users first) up to the
+// concurrency cap. The next sync time is spread with jitter and kept in steam_sync_state, so a
+// restart only resumes the users that are actually due.
+public class SteamSyncScheduler {
+    private static final Logger logger = Logger.getLogger(SteamSyncScheduler.class.getName());
+
+    // Back off failing accounts starting from this, up to the normal interval
+    private static final long RETRY_BASE_MS = 5 * 60_000;
+
+    private static final SteamSyncScheduler instance = new SteamSyncScheduler(
+        DatabaseManager.getInstance(),
+        SteamClient.getInstance(),
+        Long.getLong("gameshop.steamSync.intervalMinutes", 360L) * 60_000,
+        Double.parseDouble(System.getProperty("gameshop.steamSync.jitter", "0.2")),
+        Long.getLong("gameshop.steamSync.inactiveDays", 30L) * 24 * 3_600_000,
+        Integer.getInteger("gameshop.steamSync.maxConcurrent", 2),
+        Long.getLong("gameshop.steamSync.pollSeconds", 60L));
+
+    private final DatabaseManager dbManager;
+    private final SteamClient steamClient;
+    private final long intervalMillis;
+    private final double jitter;
+    private final long inactiveMillis;
+    private final int maxConcurrent;
+    private final long pollSeconds;
+
+    private final Map<Integer, CompletableFuture<SteamSyncResult>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong synced = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong rowsTouched = new AtomicLong();
+    private ScheduledExecutorService timer;
+
+    SteamSyncScheduler(DatabaseManager dbManager, SteamClient steamClient, long intervalMillis, double jitter,
+                       long inactiveMillis, int maxConcurrent, long pollSeconds) {
+        this.dbManager = dbManager;
+        this.steamClient = steamClient;
+        this.intervalMillis = intervalMillis;
+        this.jitter = jitter;
+        this.inactiveMillis = inactiveMillis;
+        this.maxConcurrent = maxConcurrent;
+        this.pollSeconds = pollSeconds;
+    }
+
+    public static SteamSyncScheduler getInstance() {
+        return instance;
+    }
+
+    public synchronized void start() {
+        if (timer != null || !Boolean.parseBoolean(System.getProperty("gameshop.steamSync.enabled", "true"))) {
+            return;
+        }
+        if (!steamClient.hasApiKey()) {
+            logger.warning("Steam sync disabled: no Steam Web API key configured (gameshop.steam.apiKey)");
+            return;
+        }
+        timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "steam-sync-scheduler");
+            t.setDaemon(true);
+            return t;
+        });
+        // Random first poll so several instances started together don't hit Steam in step
+        long initialDelay = ThreadLocalRandom.current().nextLong(Math.max(1, pollSeconds) * 1000);
+        timer.scheduleWithFixedDelay(this::poll, initialDelay, pollSeconds * 1000, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void shutdown() {
+        if (timer != null) {
+            timer.shutdownNow();
+            timer = null;
+        }
+    }
+
+    private void poll() {
+        int free = maxConcurrent - inFlight.size();
+        if (free <= 0) {
+            return;
+        }
+        try {
+            // Over-fetch a little: some of the due users may already be syncing
+            List<SteamSyncState> due = dbManager.getDueSteamSyncs(free + inFlight.size());
+            for (SteamSyncState state : due) {
+                if (inFlight.size() >= maxConcurrent) {
+                    break;
+                }
+                if (!inFlight.containsKey(state.getUserId())) {
+                    sync(state.getUserId(), state.getSteamId(), state);
+                }
+            }
+        } catch (SQLException e) {
+            logger.warning("Failed to load due Steam syncs: " + e.getMessage());
+        } catch (RuntimeException e) {
+            // Never let an exception cancel the periodic task
+            logger.warning("Steam sync poll failed: " + e);
+        }
+    }
+
+    // Fetches and stores one user's library now. Also used by the manual import, so an account
+    // that was just synced by hand isn't picked up again until its next interval.
+    public CompletableFuture<SteamSyncResult> sync(int userId, String steamId) {
+        return sync(userId, steamId, null);
+    }
+
+    private CompletableFuture<SteamSyncResult> sync(int userId, String steamId, SteamSyncState state) {
+        // Registered before any work starts, so a poll and a manual import racing for the same
+        // user share one fetch
+        CompletableFuture<SteamSyncResult> result = new CompletableFuture<>();
+        CompletableFuture<SteamSyncResult> running = inFlight.putIfAbsent(userId, result);
+        if (running != null) {
+            return running;
+        }
+        try {
+            steamClient.getOwnedGames(steamId)
+                .thenApplyAsync(games -> {
+                    try {
+                        return dbManager.syncSteamGames(userId, games);
+                    } catch (SQLException e) {
+                        throw new CompletionException(e);
+                    }
+                }, ThreadPool.executor(ThreadPool.Lane.BACKGROUND, "steam.sync"))
+                .whenComplete((sync, error) -> {
+                    if (error != null) {
+                        result.completeExceptionally(error);
+                    } else {
+                        result.complete(sync);
+                    }
+                });
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+
+        result.whenCompleteAsync((sync, error) -> {
+            try {
+                boolean inactive = state != null && isInactive(state.getLastLogin());
+                int failures = error == null ? 0 : (state == null ? 0 : state.getConsecutiveFailures()) + 1;
+                long delay = nextDelayMillis(intervalMillis, jitter, inactive, failures, ThreadLocalRandom.current());
+                String message = null;
+                if (error == null) {
+                    synced.incrementAndGet();
+                    rowsTouched.addAndGet(sync.getRowsTouched());
+                } else {
+                    failed.incrementAndGet();
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                    message = cause.getMessage() != null ? cause.getMessage() : cause.toString();
+                    logger.warning("Steam sync for user " + userId + " failed: " + message);
+                }
+                dbManager.saveSteamSyncState(userId, error == null,
+                    new Timestamp(System.currentTimeMillis() + delay), message);
+            } catch (SQLException e) {
+                logger.warning("Failed to save Steam sync state for user " + userId + ": " + e.getMessage());
+            } finally {
+                inFlight.remove(userId, result);
+            }
+        }, ThreadPool.executor(ThreadPool.Lane.BACKGROUND, "steam.syncState"));
+        return result;
+    }
+
+    private boolean isInactive(Timestamp lastLogin) {
+        return lastLogin == null || System.currentTimeMillis() - lastLogin.getTime() > inactiveMillis;
+    }
+
+    // Interval spread by +/- jitter; accounts nobody has used lately refresh four times less often,
+    // and failing ones retry with exponential backoff capped at the interval
+    static long nextDelayMillis(long intervalMillis, double jitter, boolean inactive, int failures, Random random) {
+        long base = inactive ? intervalMillis * 4 : intervalMillis;
+        if (failures > 0) {
+            base = Math.min(base, RETRY_BASE_MS << Math.min(failures - 1, 20));
+        }
+        double factor = 1 + jitter * (random.nextDouble() * 2 - 1);
+        return Math.max(1000, (long) (base * factor));
+    }
+
+    public Stats getStats() {
+        return new Stats(inFlight.size(), synced.get(), failed.get(), rowsTouched.get());
+    }
+
+    public static class Stats {
+        private final int inFlight;
+        private final long synced;
+        private final long failed;
+        private final long rowsTouched;
+
+        Stats(int inFlight, long synced, long failed, long rowsTouched) {
+            this.inFlight = inFlight;
+            this.synced = synced;
+            this.failed = failed;
+            this.rowsTouched = rowsTouched;
+        }
+
+        public int getInFlight() { return inFlight; }
+        public long getSynced() { return synced; }
+        public long getFailed() { return failed; }
+        public long getRowsTouched() { return rowsTouched; }
+
+        @Override
+        public String toString() {
+            return String.format("inFlight=%d, synced=%d, failed=%d, rowsTouched=%d",
+                    inFlight, synced, failed, rowsTouched);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.gameshop.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+// How SteamClient reaches Steam. HttpSteamTransport is the real one; tests can plug in a fake.
+public interface SteamTransport {
+    interface Response {
+        int statusCode();
+        Optional<String> header(String name);
+        InputStream body();
+    }
+
+    interface ResponseHandler<T> {
+        T handle(Response response) throws IOException;
+    }
+
+    // Issue a GET and run the handler on the response before the returned future completes.
+    // The handler may read the body as it streams in; the transport closes it afterwards.
+    <T> CompletableFuture<T> get(URI uri, Map<String, String> headers, Duration timeout, ResponseHandler<T> handler);
+}
@@ -0,0 +1,354 @@
+package com.example.gameshop.utils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+public class ConnectionPool {
+    private static final Logger logger = Logger.getLogger(ConnectionPool.class.getName());
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int maxSize;
+    private final long borrowTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long maxLifetimeMillis;
+    private final long validationIntervalMillis;
+
+    // Permits bound the number of connections handed out; idle is LIFO so warm sockets get reused first
+    private final Semaphore permits;
+    private final Deque<PooledConnection> idle = new ConcurrentLinkedDeque<>();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    // Metrics
+    private final AtomicInteger open = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicLong borrows = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong destroyed = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    public ConnectionPool(String url, String user, String password, int maxSize, long borrowTimeoutMillis,
+                          long idleTimeoutMillis, long maxLifetimeMillis, long validationIntervalMillis) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.maxLifetimeMillis = maxLifetimeMillis;
+        this.validationIntervalMillis = validationIntervalMillis;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, Math.min(idleTimeoutMillis, maxLifetimeMillis) / 4);
+        housekeeper.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public Connection borrow() throws SQLException {
+        return borrow(null);
+    }
+
+    // onReturn (may be null) runs when the borrower closes its handle
+    public Connection borrow(Runnable onReturn) throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is shut down");
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                timeouts.incrementAndGet();
+                throw new SQLTimeoutException("Timed out after " + borrowTimeoutMillis +
+                        "ms waiting for a database connection (pool size " + maxSize + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        recordWait(System.nanoTime() - start);
+
+        try {
+            PooledConnection pooled = takeIdle();
+            if (pooled == null) {
+                pooled = openPhysical();
+            }
+            active.incrementAndGet();
+            borrows.incrementAndGet();
+            return pooled.lease(onReturn);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private PooledConnection takeIdle() {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            long now = System.currentTimeMillis();
+            if (now - pooled.createdAt >= maxLifetimeMillis) {
+                closePhysical(pooled);
+                continue;
+            }
+            // Only pay for a validation round trip when the socket has been sitting unused for a while
+            if (now - pooled.lastReturnedAt >= validationIntervalMillis && !isValid(pooled)) {
+                validationFailures.incrementAndGet();
+                closePhysical(pooled);
+                continue;
+            }
+            return pooled;
+        }
+        return null;
+    }
+
+    private boolean isValid(PooledConnection pooled) {
+        try {
+            return pooled.physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection openPhysical() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, user, password);
+        open.incrementAndGet();
+        created.incrementAndGet();
+        return new PooledConnection(physical);
+    }
+
+    private void release(PooledConnection pooled) {
+        active.decrementAndGet();
+        try {
+            boolean reusable = !closed &&
+                    System.currentTimeMillis() - pooled.createdAt < maxLifetimeMillis &&
+                    resetState(pooled);
+            if (reusable) {
+                pooled.lastReturnedAt = System.currentTimeMillis();
+                idle.offerFirst(pooled);
+            } else {
+                closePhysical(pooled);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    // Undo whatever the borrower left behind so the next caller sees a clean autocommit connection
+    private boolean resetState(PooledConnection pooled) {
+        try {
+            Connection physical = pooled.physical;
+            if (physical.isClosed()) {
+                return false;
+            }
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            if (physical.isReadOnly()) {
+                physical.setReadOnly(false);
+            }
+            physical.clearWarnings();
+            return true;
+        } catch (SQLException e) {
+            logger.warning("Discarding pooled connection after failed reset: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void closePhysical(PooledConnection pooled) {
+        open.decrementAndGet();
+        destroyed.incrementAndGet();
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            logger.fine("Error closing pooled connection: " + e.getMessage());
+        }
+    }
+
+    private void evictIdle() {
+        long now = System.currentTimeMillis();
+        for (PooledConnection pooled : idle) {
+            boolean expired = now - pooled.lastReturnedAt >= idleTimeoutMillis ||
+                    now - pooled.createdAt >= maxLifetimeMillis;
+            // remove() only succeeds if no borrower grabbed it in the meantime
+            if (expired && idle.remove(pooled)) {
+                closePhysical(pooled);
+            }
+        }
+    }
+
+    private void recordWait(long nanos) {
+        totalWaitNanos.addAndGet(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    public void shutdown() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            closePhysical(pooled);
+        }
+    }
+
+    public Stats getStats() {
+        long borrowCount = borrows.get();
+        return new Stats(
+            maxSize,
+            open.get(),
+            active.get(),
+            idle.size(),
+            permits.getQueueLength(),
+            borrowCount,
+            timeouts.get(),
+            created.get(),
+            destroyed.get(),
+            validationFailures.get(),
+            borrowCount == 0 ? 0.0 : totalWaitNanos.get() / 1_000_000.0 / borrowCount,
+            maxWaitNanos.get() / 1_000_000.0
+        );
+    }
+
+    private class PooledConnection {
+        private final Connection physical;
+        private final long createdAt = System.currentTimeMillis();
+        private volatile long lastReturnedAt = createdAt;
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        // Each borrow gets its own proxy so a stale handle closed twice can't return the connection twice
+        Connection lease(Runnable onReturn) {
+            LeaseHandler handler = new LeaseHandler(this, onReturn);
+            return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, handler);
+        }
+    }
+
+    private class LeaseHandler implements InvocationHandler {
+        private final PooledConnection pooled;
+        private final Runnable onReturn;
+        private boolean returned;
+
+        LeaseHandler(PooledConnection pooled, Runnable onReturn) {
+            this.pooled = pooled;
+            this.onReturn = onReturn;
+        }
+
+        // Once returned, the handle only answers close and isClosed: anything else, unwrap
+        // included, would reach a physical connection that now belongs to another borrower
+        @Override
+        public synchronized Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(pooled);
+                        if (onReturn != null) {
+                            onReturn.run();
+                        }
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.physical + "]";
+                default:
+                    if (returned) {
+                        throw new SQLException("Connection has already been returned to the pool");
+                    }
+            }
+            try {
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    public static class Stats {
+        private final int maxSize;
+        private final int open;
+        private final int active;
+        private final int idle;
+        private final int waiting;
+        private final long borrows;
+        private final long timeouts;
+        private final long created;
+        private final long destroyed;
+        private final long validationFailures;
+        private final double avgWaitMillis;
+        private final double maxWaitMillis;
+
+        Stats(int maxSize, int open, int active, int idle, int waiting, long borrows, long timeouts,
+              long created, long destroyed, long validationFailures, double avgWaitMillis, double maxWaitMillis) {
+            this.maxSize = maxSize;
+            this.open = open;
+            this.active = active;
+            this.idle = idle;
+            this.waiting = waiting;
+            this.borrows = borrows;
+            this.timeouts = timeouts;
+            this.created = created;
+            this.destroyed = destroyed;
+            this.validationFailures = validationFailures;
+            this.avgWaitMillis = avgWaitMillis;
+            this.maxWaitMillis = maxWaitMillis;
+        }
+
+        public int getMaxSize() { return maxSize; }
+        public int getOpen() { return open; }
+        public int getActive() { return active; }
+        public int getIdle() { return idle; }
+        public int getWaiting() { return waiting; }
+        public long getBorrows() { return borrows; }
+        public long getTimeouts() { return timeouts; }
+        public long getCreated() { return created; }
+        public long getDestroyed() { return destroyed; }
+        public long getValidationFailures() { return validationFailures; }
+        public double getAvgWaitMillis() { return avgWaitMillis; }
+        public double getMaxWaitMillis() { return maxWaitMillis; }
+
+        // Share of the pool currently handed out; 1.0 means new borrowers will queue
+        public double getSaturation() {
+            return maxSize == 0 ? 0.0 : (double) active / maxSize;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("pool[active=%d/%d, idle=%d, waiting=%d, borrows=%d, timeouts=%d, " +
+                    "created=%d, destroyed=%d, avgWait=%.2fms, maxWait=%.2fms]",
+                    active, maxSize, idle, waiting, borrows, timeouts, created, destroyed,
+                    avgWaitMillis, maxWaitMillis);
+        }
+    }
+}
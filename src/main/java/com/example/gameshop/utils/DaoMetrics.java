@@ -0,0 +1,199 @@
+package com.example.gameshop.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+// Per-DAO-method statistics (calls, errors, rows, latency histogram) and a slow-query log, fed by
+// StatementInstrumentation for every statement executed through the connection pool.
+public class DaoMetrics {
+    private static final Logger logger = Logger.getLogger(DaoMetrics.class.getName());
+
+    private static final DaoMetrics instance = new DaoMetrics(
+        Long.getLong("gameshop.db.slowQueryMs", 200L),
+        Integer.getInteger("gameshop.db.slowQueryLogSize", 100));
+
+    private static final int MAX_SQL_LENGTH = 500;
+
+    private final Map<String, MethodStats> methods = new ConcurrentHashMap<>();
+    private final int slowLogSize;
+    // Guarded by itself
+    private final Deque<SlowQuery> slowQueries = new ArrayDeque<>();
+    private volatile long slowThresholdNanos;
+
+    DaoMetrics(long slowThresholdMillis, int slowLogSize) {
+        this.slowThresholdNanos = slowThresholdMillis * 1_000_000;
+        this.slowLogSize = slowLogSize;
+    }
+
+    public static DaoMetrics getInstance() {
+        return instance;
+    }
+
+    void recordExecution(String method, String sql, String params, long nanos, boolean failed, long rows) {
+        MethodStats stats = methods.computeIfAbsent(method, MethodStats::new);
+        stats.calls.incrementAndGet();
+        stats.latency.record(nanos);
+        if (failed) {
+            stats.errors.incrementAndGet();
+        }
+        if (rows > 0) {
+            stats.rows.addAndGet(rows);
+        }
+        if (nanos >= slowThresholdNanos) {
+            SlowQuery slow = new SlowQuery(System.currentTimeMillis(), method, truncate(sql), params,
+                nanos / 1_000_000.0, failed);
+            logger.warning("Slow query: " + slow);
+            synchronized (slowQueries) {
+                slowQueries.addFirst(slow);
+                while (slowQueries.size() > slowLogSize) {
+                    slowQueries.removeLast();
+                }
+            }
+        }
+    }
+
+    // Rows read from a result set arrive after the execute call has been recorded
+    void recordRows(String method, long rows) {
+        if (rows > 0) {
+            methods.computeIfAbsent(method, MethodStats::new).rows.addAndGet(rows);
+        }
+    }
+
+    private static String truncate(String sql) {
+        if (sql == null) {
+            return "";
+        }
+        String compact = sql.replaceAll("\\s+", " ").trim();
+        return compact.length() > MAX_SQL_LENGTH ? compact.substring(0, MAX_SQL_LENGTH) + "..." : compact;
+    }
+
+    public long getSlowThresholdMillis() {
+        return slowThresholdNanos / 1_000_000;
+    }
+
+    public void setSlowThresholdMillis(long millis) {
+        this.slowThresholdNanos = millis * 1_000_000;
+    }
+
+    // Sorted by total time spent, slowest first
+    public List<MethodSnapshot> getMethodStats() {
+        List<MethodSnapshot> list = new ArrayList<>();
+        methods.values().forEach(stats -> list.add(stats.snapshot()));
+        list.sort((a, b) -> Double.compare(b.getTotalMillis(), a.getTotalMillis()));
+        return list;
+    }
+
+    // Most recent first
+    public List<SlowQuery> getSlowQueries() {
+        synchronized (slowQueries) {
+            return new ArrayList<>(slowQueries);
+        }
+    }
+
+    public void reset() {
+        methods.clear();
+        synchronized (slowQueries) {
+            slowQueries.clear();
+        }
+    }
+
+    private static class MethodStats {
+        private final String method;
+        private final AtomicLong calls = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong rows = new AtomicLong();
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        MethodStats(String method) {
+            this.method = method;
+        }
+
+        MethodSnapshot snapshot() {
+            return new MethodSnapshot(method, calls.get(), errors.get(), rows.get(),
+                latency.getMean() * latency.getCount() / 1_000_000.0,
+                latency.getValueAtPercentile(50) / 1_000_000.0,
+                latency.getValueAtPercentile(99) / 1_000_000.0,
+                latency.getValueAtPercentile(99.9) / 1_000_000.0,
+                latency.getMax() / 1_000_000.0);
+        }
+    }
+
+    public static class MethodSnapshot {
+        private final String method;
+        private final long calls;
+        private final long errors;
+        private final long rows;
+        private final double totalMillis;
+        private final double p50Millis;
+        private final double p99Millis;
+        private final double p999Millis;
+        private final double maxMillis;
+
+        MethodSnapshot(String method, long calls, long errors, long rows, double totalMillis,
+                       double p50Millis, double p99Millis, double p999Millis, double maxMillis) {
+            this.method = method;
+            this.calls = calls;
+            this.errors = errors;
+            this.rows = rows;
+            this.totalMillis = totalMillis;
+            this.p50Millis = p50Millis;
+            this.p99Millis = p99Millis;
+            this.p999Millis = p999Millis;
+            this.maxMillis = maxMillis;
+        }
+
+        public String getMethod() { return method; }
+        // Statements executed, not DAO method invocations
+        public long getCalls() { return calls; }
+        public long getErrors() { return errors; }
+        public long getRows() { return rows; }
+        public double getTotalMillis() { return totalMillis; }
+        public double getP50Millis() { return p50Millis; }
+        public double getP99Millis() { return p99Millis; }
+        public double getP999Millis() { return p999Millis; }
+        public double getMaxMillis() { return maxMillis; }
+
+        @Override
+        public String toString() {
+            return String.format("%s: calls=%d, errors=%d, rows=%d, p50=%.2fms, p99=%.2fms, p99.9=%.2fms, max=%.2fms",
+                    method, calls, errors, rows, p50Millis, p99Millis, p999Millis, maxMillis);
+        }
+    }
+
+    public static class SlowQuery {
+        private final long timestamp;
+        private final String method;
+        private final String sql;
+        private final String params;
+        private final double millis;
+        private final boolean failed;
+
+        SlowQuery(long timestamp, String method, String sql, String params, double millis, boolean failed) {
+            this.timestamp = timestamp;
+            this.method = method;
+            this.sql = sql;
+            this.params = params;
+            this.millis = millis;
+            this.failed = failed;
+        }
+
+        public long getTimestamp() { return timestamp; }
+        public String getMethod() { return method; }
+        public String getSql() { return sql; }
+        // Bind parameter types, never values, e.g. "[int, String, null]"
+        public String getParams() { return params; }
+        public double getMillis() { return millis; }
+        public boolean isFailed() { return failed; }
+
+        @Override
+        public String toString() {
+            return String.format("%.1fms %s%s %s params=%s", millis, method, failed ? " (failed)" : "", sql, params);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.gameshop.utils;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// One statement executed by a DAO method. Costs next to nothing unless a JFR recording has the
+// event enabled, e.g. -XX:StartFlightRecording with a .jfc that sets a threshold on it.
+@Name("com.example.gameshop.DaoQuery")
+@Label("DAO Query")
+@Category({"GameShop", "Database"})
+@Description("A JDBC statement executed through the connection pool")
+class DaoQueryEvent extends Event {
+    @Label("Method")
+    String method;
+
+    @Label("SQL")
+    String sql;
+
+    @Label("Parameter Types")
+    String params;
+
+    @Label("Rows")
+    long rows;
+
+    @Label("Failed")
+    boolean failed;
+
+    @Label("Slow")
+    boolean slow;
+}
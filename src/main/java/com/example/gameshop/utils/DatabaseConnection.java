@@ -1,20 +1,105 @@
 package com.example.gameshop.utils;
 
+import java.nio.file.Paths;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public class DatabaseConnection {
-    private static final String URL = "jdbc:mysql://localhost:3306/gameshop";
-    private static final String USER = "root";
-    private static final String PASSWORD = "your_password_here";
+    // -Dgameshop.db.backend=embedded runs an in-process H2 database (file under ~/.gameshop by default)
+    // instead of the MySQL server, for kiosks and offline use
+    private static final boolean EMBEDDED = "embedded".equalsIgnoreCase(System.getProperty("gameshop.db.backend", "mysql"));
+    private static final String EMBEDDED_PATH = System.getProperty("gameshop.db.embeddedPath",
+        Paths.get(System.getProperty("user.home"), ".gameshop", "gameshop").toString());
 
-    public static Connection getConnection() throws SQLException {
+    // rewriteBatchedStatements lets Connector/J send a JDBC batch as multi-row INSERTs.
+    // -Dgameshop.db.* overrides point the app (or the benchmarks) at another database.
+    private static final String URL = System.getProperty("gameshop.db.url", EMBEDDED
+        ? "jdbc:h2:file:" + EMBEDDED_PATH + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE"
+        : "jdbc:mysql://localhost:3306/gameshop?rewriteBatchedStatements=true");
+    private static final String USER = System.getProperty("gameshop.db.user", EMBEDDED ? "sa" : "root");
+    private static final String PASSWORD = System.getProperty("gameshop.db.password", EMBEDDED ? "" : "your_password_here");
+    private static final String DRIVER = System.getProperty("gameshop.db.driver",
+        URL.startsWith("jdbc:h2:") ? "org.h2.Driver" : "com.mysql.cj.jdbc.Driver");
+    private static final SqlDialect DIALECT = SqlDialect.forUrl(URL);
+    // Pending db/migration scripts are applied by GameShopApp at startup; headless callers (benchmarks,
+    // the load harness) get them applied before their first connection
+    private static final boolean MIGRATE = Boolean.parseBoolean(System.getProperty("gameshop.db.migrate", "true"));
+
+    // Pool settings, overridable with -Dgameshop.db.pool.* system properties
+    private static final int MAX_POOL_SIZE = Integer.getInteger("gameshop.db.pool.maxSize", 10);
+    private static final long BORROW_TIMEOUT_MS = Long.getLong("gameshop.db.pool.borrowTimeoutMs", 5_000L);
+    private static final long IDLE_TIMEOUT_MS = Long.getLong("gameshop.db.pool.idleTimeoutMs", 600_000L);
+    private static final long MAX_LIFETIME_MS = Long.getLong("gameshop.db.pool.maxLifetimeMs", 1_800_000L);
+    private static final long VALIDATION_INTERVAL_MS = Long.getLong("gameshop.db.pool.validationIntervalMs", 30_000L);
+    // Per-method statement timings for DaoMetrics; -Dgameshop.db.metrics=false hands out bare leases
+    private static final boolean METRICS_ENABLED =
+        Boolean.parseBoolean(System.getProperty("gameshop.db.metrics", "true"));
+
+    private static final ConnectionPool pool = new ConnectionPool(
+        URL, USER, PASSWORD, MAX_POOL_SIZE, BORROW_TIMEOUT_MS,
+        IDLE_TIMEOUT_MS, MAX_LIFETIME_MS, VALIDATION_INTERVAL_MS);
+    private static final ClassNotFoundException driverError = loadDriver();
+    private static volatile boolean schemaReady = !MIGRATE;
+
+    private static ClassNotFoundException loadDriver() {
         try {
-            Class.forName("com.mysql.cj.jdbc.Driver");
-            return DriverManager.getConnection(URL, USER, PASSWORD);
+            Class.forName(DRIVER);
+            return null;
         } catch (ClassNotFoundException e) {
-            throw new SQLException("MySQL JDBC Driver not found.", e);
+            return e;
         }
     }
-} 
\ No newline at end of file
+
+    public static Connection getConnection() throws SQLException {
+        if (driverError != null) {
+            throw new SQLException("JDBC driver " + DRIVER + " not found.", driverError);
+        }
+        if (!schemaReady) {
+            migrate();
+        }
+        Connection connection = borrow();
+        return METRICS_ENABLED ? StatementInstrumentation.instrument(connection) : connection;
+    }
+
+    public static SqlDialect getDialect() {
+        return DIALECT;
+    }
+
+    // Applies the pending migrations once per process; call it off the FX thread
+    public static synchronized void migrate() throws SQLException {
+        if (schemaReady) {
+            return;
+        }
+        if (driverError != null) {
+            throw new SQLException("JDBC driver " + DRIVER + " not found.", driverError);
+        }
+        // A failed migration propagates, so no connection is handed out on a half-migrated schema;
+        // the next call retries the pending scripts
+        try (Connection conn = pool.borrow()) {
+            SchemaMigrator.migrate(conn);
+        }
+        schemaReady = true;
+    }
+
+    private static Connection borrow() throws SQLException {
+        // Held from borrow to close, so the recorded time covers the whole unit of work
+        FxThreadGuard.Call fxCall = FxThreadGuard.getInstance().enter("jdbc");
+        if (fxCall == null) {
+            return pool.borrow();
+        }
+        try {
+            return pool.borrow(fxCall::end);
+        } catch (SQLException | RuntimeException e) {
+            fxCall.end();
+            throw e;
+        }
+    }
+
+    public static ConnectionPool.Stats getPoolStats() {
+        return pool.getStats();
+    }
+
+    public static void shutdown() {
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.gameshop.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+// Catches blocking work (JDBC, Steam calls) started on the JavaFX Application Thread. In RECORD
+// mode each offending call site is counted with its duration and a stack sample; STRICT mode
+// throws instead so the stall shows up straight away during development. Calls from worker
+// threads cost a single thread check.
+public class FxThreadGuard {
+    private static final Logger logger = Logger.getLogger(FxThreadGuard.class.getName());
+
+    public enum Mode { OFF, RECORD, STRICT }
+
+    // Compared by name so the check works without (or before) the FX toolkit being started
+    private static final String FX_THREAD_NAME = "JavaFX Application Thread";
+    private static final int MAX_SITES = 200;
+    private static final int SAMPLE_DEPTH = 12;
+
+    private static final FxThreadGuard instance = new FxThreadGuard(
+        Mode.valueOf(System.getProperty("gameshop.fxGuard", "RECORD").toUpperCase()),
+        () -> FX_THREAD_NAME.equals(Thread.currentThread().getName()));
+
+    private final BooleanSupplier onFxThread;
+    private final Map<String, Site> sites = new ConcurrentHashMap<>();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile Mode mode;
+
+    FxThreadGuard(Mode mode, BooleanSupplier onFxThread) {
+        this.mode = mode;
+        this.onFxThread = onFxThread;
+    }
+
+    public static FxThreadGuard getInstance() {
+        return instance;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    // Returns null when the call is fine (guard off or not on the FX thread); otherwise the
+    // caller must end() the returned call once the blocking work is done
+    public Call enter(String kind) {
+        Mode current = mode;
+        if (current == Mode.OFF || !onFxThread.getAsBoolean()) {
+            return null;
+        }
+        List<StackWalker.StackFrame> frames = StackWalker.getInstance().walk(stream -> stream
+            .filter(frame -> frame.getClassName().startsWith("com.example.gameshop.")
+                && !frame.getClassName().startsWith("com.example.gameshop.utils."))
+            .limit(SAMPLE_DEPTH)
+            .collect(Collectors.toList()));
+        String key = kind + " " + siteName(frames);
+        if (current == Mode.STRICT) {
+            throw new IllegalStateException("Blocking " + kind + " call on the FX thread: " + siteName(frames));
+        }
+        Site site = sites.get(key);
+        if (site == null) {
+            if (sites.size() >= MAX_SITES) {
+                dropped.incrementAndGet();
+                return null;
+            }
+            site = sites.computeIfAbsent(key, k -> {
+                logger.warning("Blocking " + kind + " call on the FX thread: " + siteName(frames));
+                return new Site(kind, siteName(frames));
+            });
+        }
+        site.sample = frames.stream().map(StackWalker.StackFrame::toStackTraceElement)
+            .map(StackTraceElement::toString).collect(Collectors.toList());
+        return new Call(site);
+    }
+
+    // "caller -> operation", e.g. "AdminScene.loadUsers:301 -> DatabaseManager.getAllUsers"
+    private static String siteName(List<StackWalker.StackFrame> frames) {
+        String operation = null;
+        for (StackWalker.StackFrame frame : frames) {
+            String className = frame.getClassName();
+            String simple = className.substring(className.lastIndexOf('.') + 1);
+            if (className.startsWith("com.example.gameshop.dao.") || className.startsWith("com.example.gameshop.services.")) {
+                if (operation == null) {
+                    operation = simple + "." + frame.getMethodName();
+                }
+            } else {
+                String caller = simple + "." + frame.getMethodName() + ":" + frame.getLineNumber();
+                return operation == null ? caller : caller + " -> " + operation;
+            }
+        }
+        return operation == null ? "unknown" : operation;
+    }
+
+    public List<Site> getSites() {
+        List<Site> list = new ArrayList<>(sites.values());
+        list.sort(Comparator.comparingLong(Site::getCount).reversed());
+        return list;
+    }
+
+    public long getTotalCalls() {
+        return sites.values().stream().mapToLong(Site::getCount).sum();
+    }
+
+    // Call sites not tracked because MAX_SITES was reached
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public void reset() {
+        sites.clear();
+        dropped.set(0);
+    }
+
+    public static class Call {
+        private final Site site;
+        private final long start = System.nanoTime();
+
+        Call(Site site) {
+            this.site = site;
+        }
+
+        public void end() {
+            site.record(System.nanoTime() - start);
+        }
+    }
+
+    public static class Site {
+        private final String kind;
+        private final String name;
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private volatile List<String> sample = List.of();
+
+        Site(String kind, String name) {
+            this.kind = kind;
+            this.name = name;
+        }
+
+        void record(long nanos) {
+            count.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        public String getKind() { return kind; }
+        public String getName() { return name; }
+        public long getCount() { return count.get(); }
+        public double getTotalMillis() { return totalNanos.get() / 1_000_000.0; }
+        public double getMaxMillis() { return maxNanos.get() / 1_000_000.0; }
+        // Application frames of the most recent offending call, innermost first
+        public List<String> getSample() { return sample; }
+
+        @Override
+        public String toString() {
+            return String.format("%s %s: %d calls, %.1fms total, %.1fms max",
+                    kind, name, getCount(), getTotalMillis(), getMaxMillis());
+        }
+    }
+}
@@ -11,7 +11,7 @@ public class GameLoader {
     private DatabaseManager dbManager;
 
     public GameLoader() {
-        this.dbManager = new DatabaseManager();
+        this.dbManager = DatabaseManager.getInstance();
     }
 
     public void loadGamesIntoList(ListView<Game> gameList) {
@@ -0,0 +1,337 @@
+package com.example.gameshop.utils;
+
+import com.example.gameshop.dao.CatalogCache;
+import com.example.gameshop.models.Game;
+import com.example.gameshop.models.GameDetails;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory trigram + word-prefix index over game title, developer, publisher and genre.
+// Kept in sync with the catalog cache, so searches never touch the database.
+public class GameSearchIndex implements CatalogCache.Listener {
+    private static final GameSearchIndex instance = new GameSearchIndex();
+
+    private static final int TITLE = 0;
+    private static final int FIELD_COUNT = 4;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, Entry> entries = new HashMap<>();
+    private final Map<String, Postings> trigrams = new HashMap<>();
+    private final NavigableMap<String, Postings> words = new TreeMap<>();
+
+    // Best match first: higher score, then shorter title, then alphabetical
+    private static final Comparator<Match> RANKING = Comparator.comparingInt((Match m) -> -m.score)
+        .thenComparingInt(m -> m.entry.fields[TITLE].length())
+        .thenComparing(m -> m.entry.fields[TITLE]);
+
+    public static GameSearchIndex getInstance() {
+        return instance;
+    }
+
+    public List<Game> search(String query, int limit) {
+        String needle = normalize(query);
+        if (needle.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        lock.readLock().lock();
+        try {
+            int[] candidates = needle.length() >= 3 ? trigramCandidates(needle) : prefixCandidates(needle);
+
+            // Keep only the top `limit` matches; the head of the heap is the worst one kept so far
+            PriorityQueue<Match> top = new PriorityQueue<>(RANKING.reversed());
+            for (int gameId : candidates) {
+                Entry entry = entries.get(gameId);
+                int score = entry.score(needle);
+                if (score == 0 || (top.size() == limit && score < top.peek().score)) {
+                    continue;
+                }
+                Match match = new Match(entry, score);
+                if (top.size() < limit) {
+                    top.add(match);
+                } else if (RANKING.compare(match, top.peek()) < 0) {
+                    top.poll();
+                    top.add(match);
+                }
+            }
+
+            List<Match> ranked = new ArrayList<>(top);
+            ranked.sort(RANKING);
+            List<Game> results = new ArrayList<>(ranked.size());
+            for (Match match : ranked) {
+                // The indexed games belong to the catalog cache; callers get their own copies
+                results.add(new Game(match.entry.game));
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Intersect posting lists starting from the rarest trigram; final check happens in Entry.score
+    private int[] trigramCandidates(String needle) {
+        List<Postings> lists = new ArrayList<>();
+        for (String gram : trigramsOf(needle)) {
+            Postings posting = trigrams.get(gram);
+            if (posting == null) {
+                return new int[0];
+            }
+            lists.add(posting);
+        }
+        lists.sort(Comparator.comparingInt(p -> p.size));
+
+        Postings rarest = lists.get(0);
+        int[] result = new int[rarest.size];
+        int count = 0;
+        outer:
+        for (int i = 0; i < rarest.size; i++) {
+            int gameId = rarest.ids[i];
+            for (int j = 1; j < lists.size(); j++) {
+                if (!lists.get(j).contains(gameId)) {
+                    continue outer;
+                }
+            }
+            result[count++] = gameId;
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    // Queries shorter than a trigram are answered as word-prefix lookups
+    private int[] prefixCandidates(String prefix) {
+        BitSet union = new BitSet();
+        for (Postings posting : words.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            for (int i = 0; i < posting.size; i++) {
+                union.set(posting.ids[i]);
+            }
+        }
+        return union.stream().toArray();
+    }
+
+    @Override
+    public void onReload(List<Game> games) {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            trigrams.clear();
+            words.clear();
+            List<Game> byId = new ArrayList<>(games);
+            byId.sort(Comparator.comparingInt(Game::getGameId));
+            for (Game game : byId) {
+                addEntry(new Entry(game));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onUpsert(Game game) {
+        lock.writeLock().lock();
+        try {
+            removeEntry(game.getGameId());
+            addEntry(new Entry(game));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onRemove(int gameId) {
+        lock.writeLock().lock();
+        try {
+            removeEntry(gameId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addEntry(Entry entry) {
+        int gameId = entry.game.getGameId();
+        entries.put(gameId, entry);
+        for (String gram : entry.trigrams()) {
+            trigrams.computeIfAbsent(gram, k -> new Postings()).add(gameId);
+        }
+        for (String word : entry.words()) {
+            words.computeIfAbsent(word, k -> new Postings()).add(gameId);
+        }
+    }
+
+    private void removeEntry(int gameId) {
+        Entry old = entries.remove(gameId);
+        if (old == null) {
+            return;
+        }
+        for (String gram : old.trigrams()) {
+            removePosting(trigrams, gram, gameId);
+        }
+        for (String word : old.words()) {
+            removePosting(words, word, gameId);
+        }
+    }
+
+    private static void removePosting(Map<String, Postings> index, String key, int gameId) {
+        Postings posting = index.get(key);
+        if (posting != null) {
+            posting.remove(gameId);
+            if (posting.size == 0) {
+                index.remove(key);
+            }
+        }
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
+    static Set<String> trigramsOf(String text) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            grams.add(text.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    private static class Entry {
+        private final Game game;
+        // title, developer, publisher, genre - already normalized
+        private final String[] fields = new String[FIELD_COUNT];
+
+        Entry(Game game) {
+            this.game = game;
+            GameDetails details = game.getDetails();
+            fields[TITLE] = normalize(game.getTitle());
+            // Store rows carry metadata on Game, Steam imports carry it on GameDetails
+            fields[1] = normalize(pick(game.getDeveloper(), details == null ? null : details.getDeveloper()));
+            fields[2] = normalize(pick(game.getPublisher(), details == null ? null : details.getPublisher()));
+            fields[3] = normalize(pick(game.getGenre(), details == null ? null : details.getGenre()));
+        }
+
+        private static String pick(String value, String fallback) {
+            return value != null ? value : fallback;
+        }
+
+        Set<String> trigrams() {
+            Set<String> grams = new HashSet<>();
+            for (String field : fields) {
+                grams.addAll(trigramsOf(field));
+            }
+            return grams;
+        }
+
+        Set<String> words() {
+            Set<String> result = new HashSet<>();
+            for (String field : fields) {
+                for (String word : field.split("[^\\p{L}\\p{N}]+")) {
+                    if (!word.isEmpty()) {
+                        result.add(word);
+                    }
+                }
+            }
+            return result;
+        }
+
+        // Title hits outrank metadata hits; within a field exact > prefix > word prefix > substring
+        int score(String needle) {
+            int best = 0;
+            for (int i = 0; i < FIELD_COUNT; i++) {
+                String field = fields[i];
+                int index = field.indexOf(needle);
+                if (index < 0) {
+                    continue;
+                }
+                int score;
+                if (field.length() == needle.length()) {
+                    score = 4;
+                } else if (index == 0) {
+                    score = 3;
+                } else if (isWordStart(field, index) || isWordStart(field, field.indexOf(" " + needle) + 1)) {
+                    score = 2;
+                } else {
+                    score = 1;
+                }
+                best = Math.max(best, i == TITLE ? score * 10 : score);
+            }
+            return best;
+        }
+
+        private static boolean isWordStart(String field, int index) {
+            return index > 0 && !Character.isLetterOrDigit(field.charAt(index - 1));
+        }
+    }
+
+    // Sorted, duplicate-free int array; reloads add ids in ascending order so inserts are appends
+    private static class Postings {
+        private int[] ids = new int[2];
+        private int size;
+
+        void add(int id) {
+            if (size > 0 && ids[size - 1] >= id) {
+                int pos = Arrays.binarySearch(ids, 0, size, id);
+                if (pos >= 0) {
+                    return;
+                }
+                insertAt(-pos - 1, id);
+                return;
+            }
+            insertAt(size, id);
+        }
+
+        private void insertAt(int pos, int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            ids[pos] = id;
+            size++;
+        }
+
+        void remove(int id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) {
+                System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+                size--;
+            }
+        }
+
+        boolean contains(int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+    }
+
+    private static class Match {
+        private final Entry entry;
+        private final int score;
+
+        Match(Entry entry, int score) {
+            this.entry = entry;
+            this.score = score;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.gameshop.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+// Brings a database up to the latest schema by applying the scripts under db/migration that are not yet
+// recorded in schema_version. DatabaseConnection runs it before handing out the first connection.
+// Scripts are plain SQL in the MySQL dialect. MySQL has no CREATE INDEX / ADD COLUMN IF NOT EXISTS, so
+// CREATE INDEX is skipped here when an index with that name, or one covering the same columns, already exists,
+// and ALTER TABLE ... ADD COLUMN when the column does.
+public final class SchemaMigrator {
+    private static final Logger logger = Logger.getLogger(SchemaMigrator.class.getName());
+
+    // Applied in this order; new scripts (V<n>__description.sql) go at the end and are never edited once shipped
+    private static final String[] MIGRATIONS = {
+        "V1__baseline.sql",
+        "V2__add_missing_columns.sql",
+        "V3__hot_query_indexes.sql"
+    };
+
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    private static final Pattern CREATE_INDEX = Pattern.compile(
+        "\\s*CREATE\\s+(UNIQUE\\s+)?INDEX\\s+(\\w+)\\s+ON\\s+(\\w+)\\s*\\(([^)]*)\\)\\s*",
+        Pattern.CASE_INSENSITIVE);
+    private static final Pattern ADD_COLUMN = Pattern.compile(
+        "\\s*ALTER\\s+TABLE\\s+(\\w+)\\s+ADD\\s+COLUMN\\s+(\\w+)\\s.*", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private static final String CREATE_VERSION_TABLE =
+        "CREATE TABLE IF NOT EXISTS schema_version (" +
+        "version INT PRIMARY KEY, " +
+        "description VARCHAR(200) NOT NULL, " +
+        "checksum BIGINT NOT NULL, " +
+        "execution_ms BIGINT NOT NULL, " +
+        "installed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)";
+
+    private SchemaMigrator() {
+    }
+
+    // Applies the pending migrations and returns how many ran
+    public static int migrate(Connection conn) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(true);
+        try {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(CREATE_VERSION_TABLE);
+            }
+            Map<Integer, Long> applied = getAppliedChecksums(conn);
+            int count = 0;
+            for (String name : MIGRATIONS) {
+                Matcher matcher = SCRIPT_NAME.matcher(name);
+                if (!matcher.matches()) {
+                    throw new IllegalStateException("Bad migration name: " + name);
+                }
+                int version = Integer.parseInt(matcher.group(1));
+                String script = load(name);
+                long checksum = checksum(script);
+                Long appliedChecksum = applied.get(version);
+                if (appliedChecksum != null) {
+                    if (appliedChecksum != checksum) {
+                        logger.warning("Migration " + name + " changed after it was applied");
+                    }
+                    continue;
+                }
+                apply(conn, version, matcher.group(2).replace('_', ' '), script, checksum);
+                count++;
+            }
+            return count;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    // Highest applied version, 0 for a database the migrator has never run against
+    public static int getCurrentVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT MAX(version) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        } catch (SQLException e) {
+            return 0;
+        }
+    }
+
+    private static void apply(Connection conn, int version, String description, String script, long checksum)
+            throws SQLException {
+        long start = System.currentTimeMillis();
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : script.replaceAll("(?m)^\\s*--.*$", "").split(";")) {
+                if (sql.isBlank()) {
+                    continue;
+                }
+                String existing = findExistingIndex(conn, sql);
+                if (existing != null) {
+                    logger.info("V" + version + ": skipping " + sql.trim() + ", covered by index " + existing);
+                    continue;
+                }
+                if (columnExists(conn, sql)) {
+                    logger.info("V" + version + ": skipping " + sql.trim() + ", column exists");
+                    continue;
+                }
+                try {
+                    stmt.execute(sql);
+                } catch (SQLException e) {
+                    throw new SQLException("Migration V" + version + " failed at: " + sql.trim(), e);
+                }
+            }
+        }
+        long elapsed = System.currentTimeMillis() - start;
+
+        String sql = "INSERT INTO schema_version (version, description, checksum, execution_ms) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, version);
+            stmt.setString(2, description);
+            stmt.setLong(3, checksum);
+            stmt.setLong(4, elapsed);
+            stmt.executeUpdate();
+        }
+        logger.info(String.format("Applied migration V%d (%s) in %d ms", version, description, elapsed));
+    }
+
+    // For a CREATE INDEX statement, the name of an existing index that makes it redundant: one with the same
+    // name, one whose leading columns are the requested ones, or for UNIQUE one unique over the same columns
+    static String findExistingIndex(Connection conn, String sql) throws SQLException {
+        Matcher matcher = CREATE_INDEX.matcher(sql);
+        if (!matcher.matches()) {
+            return null;
+        }
+        boolean unique = matcher.group(1) != null;
+        String name = matcher.group(2).toLowerCase(Locale.ROOT);
+        List<String> columns = new ArrayList<>();
+        for (String column : matcher.group(4).split(",")) {
+            columns.add(column.trim().replace("`", "").toLowerCase(Locale.ROOT));
+        }
+
+        Map<String, List<String>> indexColumns = new HashMap<>();
+        Set<String> uniqueIndexes = new HashSet<>();
+        DatabaseMetaData meta = conn.getMetaData();
+        // Unquoted names are folded to lower case by H2 (DATABASE_TO_LOWER) and kept as written by MySQL
+        try (ResultSet rs = meta.getIndexInfo(conn.getCatalog(), conn.getSchema(), matcher.group(3), false, false)) {
+            while (rs.next()) {
+                String index = rs.getString("INDEX_NAME");
+                String column = rs.getString("COLUMN_NAME");
+                if (index == null || column == null) {
+                    continue;
+                }
+                index = index.toLowerCase(Locale.ROOT);
+                List<String> list = indexColumns.computeIfAbsent(index, key -> new ArrayList<>());
+                int position = rs.getInt("ORDINAL_POSITION");
+                while (list.size() < position) {
+                    list.add(null);
+                }
+                list.set(position - 1, column.toLowerCase(Locale.ROOT));
+                if (!rs.getBoolean("NON_UNIQUE")) {
+                    uniqueIndexes.add(index);
+                }
+            }
+        }
+
+        for (Map.Entry<String, List<String>> entry : indexColumns.entrySet()) {
+            List<String> existing = entry.getValue();
+            boolean covers = unique
+                ? uniqueIndexes.contains(entry.getKey()) && new HashSet<>(existing).equals(new HashSet<>(columns))
+                : existing.size() >= columns.size() && existing.subList(0, columns.size()).equals(columns);
+            if (entry.getKey().equals(name) || covers) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+
+    // Whether sql is an ALTER TABLE ... ADD COLUMN for a column the table already has
+    static boolean columnExists(Connection conn, String sql) throws SQLException {
+        Matcher matcher = ADD_COLUMN.matcher(sql);
+        if (!matcher.matches()) {
+            return false;
+        }
+        String column = matcher.group(2);
+        try (ResultSet rs = conn.getMetaData().getColumns(conn.getCatalog(), conn.getSchema(), matcher.group(1), null)) {
+            while (rs.next()) {
+                if (column.equalsIgnoreCase(rs.getString("COLUMN_NAME"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static Map<Integer, Long> getAppliedChecksums(Connection conn) throws SQLException {
+        Map<Integer, Long> applied = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version, checksum FROM schema_version")) {
+            while (rs.next()) {
+                applied.put(rs.getInt("version"), rs.getLong("checksum"));
+            }
+        }
+        return applied;
+    }
+
+    private static String load(String name) throws SQLException {
+        String path = "/db/migration/" + name;
+        try (InputStream in = SchemaMigrator.class.getResourceAsStream(path)) {
+            if (in == null) {
+                throw new SQLException(path + " not found on the classpath");
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new SQLException("Failed to read " + path, e);
+        }
+    }
+
+    private static long checksum(String script) {
+        CRC32 crc = new CRC32();
+        // Line endings differ between checkouts, so they don't count
+        crc.update(script.replace("\r\n", "\n").getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.gameshop.utils;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+// Debounces search-as-you-type input: only the last query in a burst runs, a newer query cancels
+// the one still running, and results that arrive after a newer query was typed are dropped.
+public class SearchPipeline<R> {
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "search-debounce");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public interface Query<R> {
+        R run(String text) throws Exception;
+    }
+
+    private final long debounceMillis;
+    private final Query<R> query;
+    private final Executor deliveryExecutor;
+    private final BiConsumer<String, R> onResult;
+    private final BiConsumer<String, Exception> onError;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private ScheduledFuture<?> pending;
+    private Future<?> inFlight;
+
+    // Metrics
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong executed = new AtomicLong();
+    private final AtomicLong cancelledInFlight = new AtomicLong();
+    private final AtomicLong staleDiscarded = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+
+    public SearchPipeline(long debounceMillis, Query<R> query, Executor deliveryExecutor,
+                          BiConsumer<String, R> onResult, BiConsumer<String, Exception> onError) {
+        this.debounceMillis = debounceMillis;
+        this.query = query;
+        this.deliveryExecutor = deliveryExecutor;
+        this.onResult = onResult;
+        this.onError = onError;
+    }
+
+    public synchronized void submit(String text) {
+        long seq = sequence.incrementAndGet();
+        submitted.incrementAndGet();
+        if (pending != null && pending.cancel(false)) {
+            coalesced.incrementAndGet();
+        }
+        pending = scheduler.schedule(() -> start(seq, text), debounceMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void start(long seq, String text) {
+        if (seq != sequence.get()) {
+            // A newer keystroke slipped in between the timer firing and us taking the lock
+            coalesced.incrementAndGet();
+            return;
+        }
+        if (inFlight != null && !inFlight.isDone() && inFlight.cancel(true)) {
+            cancelledInFlight.incrementAndGet();
+        }
+        executed.incrementAndGet();
+        inFlight = ThreadPool.submit(ThreadPool.Lane.INTERACTIVE, "search", () -> run(seq, text));
+    }
+
+    private void run(long seq, String text) {
+        try {
+            R result = query.run(text);
+            deliver(seq, () -> onResult.accept(text, result));
+        } catch (Exception e) {
+            deliver(seq, () -> onError.accept(text, e));
+        }
+    }
+
+    // Sequence is checked again on the delivery thread, which is where ordering actually matters
+    private void deliver(long seq, Runnable action) {
+        if (seq != sequence.get()) {
+            staleDiscarded.incrementAndGet();
+            return;
+        }
+        deliveryExecutor.execute(() -> {
+            if (seq != sequence.get()) {
+                staleDiscarded.incrementAndGet();
+                return;
+            }
+            delivered.incrementAndGet();
+            action.run();
+        });
+    }
+
+    // Drop whatever is queued or running, e.g. when the user leaves the scene
+    public synchronized void cancel() {
+        sequence.incrementAndGet();
+        if (pending != null) {
+            pending.cancel(false);
+        }
+        if (inFlight != null) {
+            inFlight.cancel(true);
+        }
+    }
+
+    public long getDebounceMillis() {
+        return debounceMillis;
+    }
+
+    public Stats getStats() {
+        return new Stats(submitted.get(), coalesced.get(), executed.get(), cancelledInFlight.get(),
+                staleDiscarded.get(), delivered.get());
+    }
+
+    public static class Stats {
+        private final long submitted;
+        private final long coalesced;
+        private final long executed;
+        private final long cancelledInFlight;
+        private final long staleDiscarded;
+        private final long delivered;
+
+        Stats(long submitted, long coalesced, long executed, long cancelledInFlight,
+              long staleDiscarded, long delivered) {
+            this.submitted = submitted;
+            this.coalesced = coalesced;
+            this.executed = executed;
+            this.cancelledInFlight = cancelledInFlight;
+            this.staleDiscarded = staleDiscarded;
+            this.delivered = delivered;
+        }
+
+        public long getSubmitted() { return submitted; }
+        public long getCoalesced() { return coalesced; }
+        public long getExecuted() { return executed; }
+        public long getCancelledInFlight() { return cancelledInFlight; }
+        public long getStaleDiscarded() { return staleDiscarded; }
+        public long getDelivered() { return delivered; }
+
+        @Override
+        public String toString() {
+            return String.format("search[submitted=%d, coalesced=%d, executed=%d, cancelled=%d, " +
+                    "stale=%d, delivered=%d]",
+                    submitted, coalesced, executed, cancelledInFlight, staleDiscarded, delivered);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.gameshop.utils;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+// The SQL that differs between the MySQL server and the embedded H2 engine. Everything else the DAOs
+// run (FOR UPDATE SKIP LOCKED, TIMESTAMPADD, NOW()) is accepted by both, so only upserts and reading
+// EXPLAIN output go through here.
+public enum SqlDialect {
+    MYSQL {
+        @Override
+        public String upsert(String table, String[] columns, String[] keyColumns, String... assignments) {
+            return "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES (" +
+                placeholders(columns.length) + ") ON DUPLICATE KEY UPDATE " + String.join(", ", assignments);
+        }
+
+        @Override
+        public String incoming(String column) {
+            return "VALUES(" + column + ")";
+        }
+
+        @Override
+        public String existing(String column) {
+            return column;
+        }
+
+        @Override
+        public List<String> findFullScans(ResultSet plan) throws SQLException {
+            // One row per table access; type ALL is a scan of every row
+            List<String> tables = new ArrayList<>();
+            while (plan.next()) {
+                if ("ALL".equalsIgnoreCase(plan.getString("type"))) {
+                    tables.add(plan.getString("table"));
+                }
+            }
+            return tables;
+        }
+    },
+
+    // Standard MERGE rather than H2's MySQL compatibility mode, which only emulates ON DUPLICATE KEY
+    H2 {
+        @Override
+        public String upsert(String table, String[] columns, String[] keyColumns, String... assignments) {
+            String match = Arrays.stream(keyColumns)
+                .map(column -> "t." + column + " = s." + column)
+                .collect(Collectors.joining(" AND "));
+            String values = Arrays.stream(columns).map(column -> "s." + column).collect(Collectors.joining(", "));
+            return "MERGE INTO " + table + " t USING (VALUES (" + placeholders(columns.length) + ")) AS s(" +
+                String.join(", ", columns) + ") ON " + match +
+                " WHEN MATCHED THEN UPDATE SET " + String.join(", ", assignments) +
+                " WHEN NOT MATCHED THEN INSERT (" + String.join(", ", columns) + ") VALUES (" + values + ")";
+        }
+
+        @Override
+        public String incoming(String column) {
+            return "s." + column;
+        }
+
+        @Override
+        public String existing(String column) {
+            return "t." + column;
+        }
+
+        @Override
+        public List<String> findFullScans(ResultSet plan) throws SQLException {
+            // A single row of plan text. Each table is followed by how it is read: /* index: condition */
+            // for a lookup, /* schema.table.tableScan */ or a bare /* index */ (no condition) for every row
+            List<String> tables = new ArrayList<>();
+            while (plan.next()) {
+                Matcher matcher = H2_TABLE_SCAN.matcher(plan.getString(1));
+                while (matcher.find()) {
+                    tables.add(matcher.group(1));
+                }
+            }
+            return tables;
+        }
+    };
+
+    private static final Pattern H2_TABLE_SCAN = Pattern.compile(
+        "\"\\w+\"\\.\"(\\w+)\"(?:\\s+\"\\w+\")?\\s*/\\*\\s*\\w+\\.\\w+(?:\\.tableScan)?\\s*\\*/");
+
+    // Inserts one row of `columns` (bound in that order), or applies `assignments` when a row with the
+    // same keyColumns exists. Parameters used inside the assignments are bound after the column values.
+    public abstract String upsert(String table, String[] columns, String[] keyColumns, String... assignments);
+
+    // The value the upsert tried to insert for column, for use in an assignment
+    public abstract String incoming(String column);
+
+    // The value already stored in column, for use in an assignment
+    public abstract String existing(String column);
+
+    // Tables the EXPLAIN output in plan reads in full
+    public abstract List<String> findFullScans(ResultSet plan) throws SQLException;
+
+    public static SqlDialect forUrl(String url) {
+        return url.startsWith("jdbc:h2:") ? H2 : MYSQL;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
@@ -0,0 +1,269 @@
+package com.example.gameshop.utils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Wraps a leased connection so every statement it creates reports to DaoMetrics: execute time,
+// failures, update counts and rows read back, attributed to the DAO method that prepared the
+// statement. Also emits a DaoQueryEvent per execution for JFR recordings.
+class StatementInstrumentation {
+    private static final String APP_PACKAGE = "com.example.gameshop.";
+    private static final String UTILS_PACKAGE = "com.example.gameshop.utils.";
+
+    private StatementInstrumentation() {
+    }
+
+    static Connection instrument(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+            new Class<?>[]{Connection.class}, new ConnectionHandler(connection));
+    }
+
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    // "DatabaseManager.getAllGames": the innermost application frame outside utils
+    static String callerName() {
+        return StackWalker.getInstance().walk(stream -> stream
+            .filter(frame -> frame.getClassName().startsWith(APP_PACKAGE)
+                && !frame.getClassName().startsWith(UTILS_PACKAGE))
+            .findFirst()
+            .map(frame -> {
+                String className = frame.getClassName();
+                return className.substring(className.lastIndexOf('.') + 1) + "." + frame.getMethodName();
+            })
+            .orElse("unknown"));
+    }
+
+    private static class ConnectionHandler implements InvocationHandler {
+        private final Connection connection;
+
+        ConnectionHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+            Object result;
+            long start = System.nanoTime();
+            try {
+                result = invokeTarget(connection, method, args);
+            } catch (SQLException e) {
+                // Some drivers reject bad SQL at prepare time rather than on execute
+                if (Statement.class.isAssignableFrom(method.getReturnType())) {
+                    DaoMetrics.getInstance().recordExecution(callerName(), sql, "[]",
+                        System.nanoTime() - start, true, 0);
+                }
+                throw e;
+            }
+            if (result instanceof Statement) {
+                Class<?> type = result instanceof CallableStatement ? CallableStatement.class
+                    : result instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+                return Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{type},
+                    new StatementHandler((Statement) result, proxy, sql, callerName()));
+            }
+            return result;
+        }
+    }
+
+    private static class StatementHandler implements InvocationHandler {
+        private final Statement statement;
+        private final Object connectionProxy;
+        private final String preparedSql;
+        private final String caller;
+        // Bind parameter types by index; values are never kept
+        private final Map<Integer, String> params = new TreeMap<>();
+        private int batchSize;
+
+        StatementHandler(Statement statement, Object connectionProxy, String preparedSql, String caller) {
+            this.statement = statement;
+            this.connectionProxy = connectionProxy;
+            this.preparedSql = preparedSql;
+            this.caller = caller;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "getConnection":
+                    return connectionProxy;
+                case "clearParameters":
+                    params.clear();
+                    break;
+                case "addBatch":
+                    batchSize++;
+                    break;
+                case "clearBatch":
+                    batchSize = 0;
+                    break;
+                case "execute":
+                case "executeQuery":
+                case "executeUpdate":
+                case "executeLargeUpdate":
+                case "executeBatch":
+                case "executeLargeBatch":
+                    return execute(method, args);
+                case "getResultSet": {
+                    Object result = invokeTarget(statement, method, args);
+                    return result == null ? null : wrapResultSet((ResultSet) result);
+                }
+                default:
+                    if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                        params.put((Integer) args[0], shapeOf(name, args[1]));
+                    }
+                    break;
+            }
+            return invokeTarget(statement, method, args);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            // Plain statements carry their SQL in the execute call instead
+            String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : preparedSql;
+            boolean batch = method.getName().endsWith("Batch");
+            String shape = describeParams(batch);
+
+            DaoQueryEvent event = new DaoQueryEvent();
+            event.begin();
+            long start = System.nanoTime();
+            boolean failed = true;
+            long rows = 0;
+            try {
+                Object result = invokeTarget(statement, method, args);
+                failed = false;
+                if (result instanceof ResultSet) {
+                    result = wrapResultSet((ResultSet) result);
+                } else {
+                    rows = updateCount(result);
+                }
+                return result;
+            } finally {
+                long nanos = System.nanoTime() - start;
+                event.end();
+                if (batch) {
+                    batchSize = 0;
+                }
+                DaoMetrics metrics = DaoMetrics.getInstance();
+                metrics.recordExecution(caller, sql, shape, nanos, failed, rows);
+                if (event.shouldCommit()) {
+                    event.method = caller;
+                    event.sql = sql;
+                    event.params = shape;
+                    event.rows = rows;
+                    event.failed = failed;
+                    event.slow = nanos >= metrics.getSlowThresholdMillis() * 1_000_000;
+                    event.commit();
+                }
+            }
+        }
+
+        private String describeParams(boolean batch) {
+            String shape = params.values().toString();
+            return batch ? batchSize + " x " + shape : shape;
+        }
+
+        private ResultSet wrapResultSet(ResultSet resultSet) {
+            return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class}, new ResultSetHandler(resultSet, caller));
+        }
+    }
+
+    // Counts rows as they're read and reports them once the result set is exhausted or closed
+    private static class ResultSetHandler implements InvocationHandler {
+        private final ResultSet resultSet;
+        private final String caller;
+        private long rows;
+        private boolean reported;
+
+        ResultSetHandler(ResultSet resultSet, String caller) {
+            this.resultSet = resultSet;
+            this.caller = caller;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "next": {
+                    Object hasRow = invokeTarget(resultSet, method, args);
+                    if (Boolean.TRUE.equals(hasRow)) {
+                        rows++;
+                    } else {
+                        report();
+                    }
+                    return hasRow;
+                }
+                case "close":
+                    report();
+                    break;
+                default:
+                    break;
+            }
+            return invokeTarget(resultSet, method, args);
+        }
+
+        private void report() {
+            if (!reported) {
+                reported = true;
+                DaoMetrics.getInstance().recordRows(caller, rows);
+            }
+        }
+    }
+
+    static String shapeOf(String setter, Object value) {
+        if (setter.equals("setNull") || value == null) {
+            return "null";
+        }
+        if (setter.equals("setObject")) {
+            return value.getClass().getSimpleName();
+        }
+        return setter.substring(3);
+    }
+
+    private static long updateCount(Object result) {
+        if (result instanceof Integer || result instanceof Long) {
+            return Math.max(0, ((Number) result).longValue());
+        }
+        long total = 0;
+        if (result instanceof int[]) {
+            for (int count : (int[]) result) {
+                total += Math.max(0, count);
+            }
+        } else if (result instanceof long[]) {
+            for (long count : (long[]) result) {
+                total += Math.max(0, count);
+            }
+        }
+        return total;
+    }
+}
@@ -1,16 +1,408 @@
 package com.example.gameshop.utils;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
 
+// Worker threads for everything that must stay off the FX thread, split into lanes so long
+// background jobs (Steam syncs, key imports) can't starve what the user is waiting on.
+// Each lane has its own threads and a bounded queue; a full queue rejects the task with
+// RejectedExecutionException rather than growing without limit. Wait and run times are
+// recorded per task type.
 public class ThreadPool {
-    private static final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private static final Logger logger = Logger.getLogger(ThreadPool.class.getName());
+
+    public enum Lane {
+        // Loads the user is looking at: catalog, friends, search
+        INTERACTIVE,
+        // Long or bulk work nobody is waiting on right now
+        BACKGROUND,
+        // Blocking I/O on virtual threads (Java 21+); falls back to BACKGROUND elsewhere
+        VIRTUAL
+    }
+
+    private static final LaneExecutor interactive = new LaneExecutor(Lane.INTERACTIVE,
+        Integer.getInteger("gameshop.pool.interactiveThreads", 4),
+        Integer.getInteger("gameshop.pool.interactiveQueue", 500));
+    private static final LaneExecutor background = new LaneExecutor(Lane.BACKGROUND,
+        Integer.getInteger("gameshop.pool.backgroundThreads", 2),
+        Integer.getInteger("gameshop.pool.backgroundQueue", 10_000));
+    private static final LaneExecutor virtual = Boolean.getBoolean("gameshop.pool.virtualThreads")
+        ? LaneExecutor.virtualOrNull() : null;
+
+    private static final Map<String, TaskStats> taskStats = new ConcurrentHashMap<>();
 
     public static void execute(Runnable task) {
-        executor.execute(task);
+        execute(Lane.INTERACTIVE, "task", task);
+    }
+
+    public static void execute(Lane lane, String type, Runnable task) {
+        submit(lane, type, task);
+    }
+
+    // Like execute, but the caller keeps a handle to cancel the task
+    public static Future<?> submit(Runnable task) {
+        return submit(Lane.INTERACTIVE, "task", task);
+    }
+
+    public static Future<?> submit(Lane lane, String type, Runnable task) {
+        return submit(lane, type, task, null);
+    }
+
+    private static Future<?> submit(Lane lane, String type, Runnable task, TaskGroup group) {
+        LaneExecutor executor = laneFor(lane);
+        TaskStats stats = taskStats.computeIfAbsent(type, TaskStats::new);
+        InstrumentedTask wrapped = new InstrumentedTask(task, stats, group);
+        if (group != null) {
+            group.tasks.add(wrapped);
+        }
+        stats.submitted.incrementAndGet();
+        try {
+            executor.execute(wrapped);
+        } catch (RejectedExecutionException e) {
+            stats.rejected.incrementAndGet();
+            if (group != null) {
+                group.tasks.remove(wrapped);
+            }
+            throw e;
+        }
+        return wrapped;
+    }
+
+    // For async pipelines (e.g. CompletableFuture.*Async) that should run blocking steps on this pool
+    public static Executor executor() {
+        return executor(Lane.INTERACTIVE, "task");
+    }
+
+    public static Executor executor(Lane lane, String type) {
+        return task -> execute(lane, type, task);
+    }
+
+    public static TaskGroup newGroup(String name) {
+        return new TaskGroup(name);
+    }
+
+    private static LaneExecutor laneFor(Lane lane) {
+        switch (lane) {
+            case VIRTUAL:
+                return virtual != null ? virtual : background;
+            case BACKGROUND:
+                return background;
+            default:
+                return interactive;
+        }
     }
 
     public static void shutdown() {
-        executor.shutdown();
+        interactive.shutdown();
+        background.shutdown();
+        if (virtual != null) {
+            virtual.shutdown();
+        }
+    }
+
+    // Per task type, sorted by name
+    public static Map<String, TaskStats.Snapshot> getTaskStats() {
+        Map<String, TaskStats.Snapshot> snapshot = new TreeMap<>();
+        taskStats.forEach((type, stats) -> snapshot.put(type, stats.snapshot()));
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    public static List<LaneStats> getLaneStats() {
+        List<LaneStats> lanes = new ArrayList<>();
+        lanes.add(interactive.stats());
+        lanes.add(background.stats());
+        if (virtual != null) {
+            lanes.add(virtual.stats());
+        }
+        return lanes;
+    }
+
+    // Tasks started on behalf of one scene, so they can be dropped together when the user
+    // navigates away. Only queued tasks are cancelled: JDBC calls don't react to interrupts, and
+    // a running load finishing into a hidden scene is harmless.
+    public static class TaskGroup {
+        private final String name;
+        private final Set<InstrumentedTask> tasks = ConcurrentHashMap.newKeySet();
+
+        TaskGroup(String name) {
+            this.name = name;
+        }
+
+        public Future<?> execute(String type, Runnable task) {
+            return execute(Lane.INTERACTIVE, type, task);
+        }
+
+        public Future<?> execute(Lane lane, String type, Runnable task) {
+            return submit(lane, name + "." + type, task, this);
+        }
+
+        // Returns how many tasks were cancelled before they started
+        public int cancelAll() {
+            int cancelled = 0;
+            for (InstrumentedTask task : tasks) {
+                if (task.cancelIfQueued()) {
+                    cancelled++;
+                }
+            }
+            tasks.clear();
+            if (cancelled > 0) {
+                interactive.purge();
+                background.purge();
+            }
+            return cancelled;
+        }
+
+        public int getPending() {
+            return tasks.size();
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    private static class InstrumentedTask extends FutureTask<Void> {
+        private final TaskStats stats;
+        private final TaskGroup group;
+        private final long enqueuedAt = System.nanoTime();
+        private volatile long startedAt;
+        // Claimed by whichever comes first, the worker starting the task or cancelIfQueued
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        InstrumentedTask(Runnable task, TaskStats stats, TaskGroup group) {
+            super(task, null);
+            this.stats = stats;
+            this.group = group;
+        }
+
+        @Override
+        public void run() {
+            if (!claimed.compareAndSet(false, true) || isDone()) {
+                return;
+            }
+            startedAt = System.nanoTime();
+            stats.recordWait(startedAt - enqueuedAt);
+            super.run();
+        }
+
+        // FutureTask.cancel(false) also succeeds on a running task, which would then be counted as
+        // cancelled while it keeps going; only a task no worker has picked up is cancelled here
+        boolean cancelIfQueued() {
+            return claimed.compareAndSet(false, true) && cancel(false);
+        }
+
+        @Override
+        protected void setException(Throwable t) {
+            super.setException(t);
+            // Plain execute() callers never look at the future, so don't lose the failure
+            logger.warning("Task " + stats.type + " failed: " + t);
+        }
+
+        @Override
+        protected void done() {
+            if (isCancelled()) {
+                stats.cancelled.incrementAndGet();
+            } else {
+                stats.recordRun(System.nanoTime() - startedAt);
+            }
+            if (group != null) {
+                group.tasks.remove(this);
+            }
+        }
+    }
+
+    private static class LaneExecutor {
+        private final Lane lane;
+        private final ExecutorService executor;
+        private final ThreadPoolExecutor pool;
+        private final AtomicLong rejected = new AtomicLong();
+
+        LaneExecutor(Lane lane, int threads, int queueCapacity) {
+            this.lane = lane;
+            this.pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory(lane), (task, executor) -> {
+                    rejected.incrementAndGet();
+                    throw new RejectedExecutionException(lane + " lane is full (" + queueCapacity + " queued)");
+                });
+            this.executor = pool;
+        }
+
+        private LaneExecutor(ExecutorService virtualThreads) {
+            this.lane = Lane.VIRTUAL;
+            this.executor = virtualThreads;
+            this.pool = null;
+        }
+
+        // Executors.newVirtualThreadPerTaskExecutor exists from Java 21; the build targets 17
+        static LaneExecutor virtualOrNull() {
+            try {
+                return new LaneExecutor((ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null));
+            } catch (ReflectiveOperationException e) {
+                logger.info("Virtual threads are not available, the VIRTUAL lane uses BACKGROUND");
+                return null;
+            }
+        }
+
+        private static ThreadFactory threadFactory(Lane lane) {
+            AtomicInteger count = new AtomicInteger();
+            String prefix = "pool-" + lane.name().toLowerCase() + "-";
+            return r -> {
+                Thread t = new Thread(r, prefix + count.incrementAndGet());
+                t.setDaemon(true);
+                if (lane == Lane.BACKGROUND) {
+                    t.setPriority(Thread.NORM_PRIORITY - 1);
+                }
+                return t;
+            };
+        }
+
+        void execute(Runnable task) {
+            executor.execute(task);
+        }
+
+        void purge() {
+            if (pool != null) {
+                pool.purge();
+            }
+        }
+
+        void shutdown() {
+            executor.shutdown();
+        }
+
+        LaneStats stats() {
+            if (pool == null) {
+                return new LaneStats(lane, 0, -1, 0, rejected.get());
+            }
+            return new LaneStats(lane, pool.getQueue().size(), pool.getMaximumPoolSize(),
+                pool.getActiveCount(), rejected.get());
+        }
+    }
+
+    public static class LaneStats {
+        private final Lane lane;
+        private final int queueDepth;
+        private final int threads;
+        private final int active;
+        private final long rejected;
+
+        LaneStats(Lane lane, int queueDepth, int threads, int active, long rejected) {
+            this.lane = lane;
+            this.queueDepth = queueDepth;
+            this.threads = threads;
+            this.active = active;
+            this.rejected = rejected;
+        }
+
+        public Lane getLane() { return lane; }
+        public int getQueueDepth() { return queueDepth; }
+        // -1 for the virtual-thread lane, which has no fixed pool
+        public int getThreads() { return threads; }
+        public int getActive() { return active; }
+        public long getRejected() { return rejected; }
+
+        @Override
+        public String toString() {
+            return String.format("%s[queue=%d, active=%d/%s, rejected=%d]", lane, queueDepth, active,
+                threads < 0 ? "virtual" : String.valueOf(threads), rejected);
+        }
+    }
+
+    public static class TaskStats {
+        private final String type;
+        private final AtomicLong submitted = new AtomicLong();
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicLong cancelled = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong totalWaitNanos = new AtomicLong();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+        private final AtomicLong totalRunNanos = new AtomicLong();
+        private final AtomicLong maxRunNanos = new AtomicLong();
+
+        TaskStats(String type) {
+            this.type = type;
+        }
+
+        void recordWait(long nanos) {
+            totalWaitNanos.addAndGet(nanos);
+            maxWaitNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        void recordRun(long nanos) {
+            completed.incrementAndGet();
+            totalRunNanos.addAndGet(nanos);
+            maxRunNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        Snapshot snapshot() {
+            long done = completed.get();
+            return new Snapshot(type, submitted.get(), done, cancelled.get(), rejected.get(),
+                done == 0 ? 0 : totalWaitNanos.get() / 1_000_000.0 / done, maxWaitNanos.get() / 1_000_000.0,
+                done == 0 ? 0 : totalRunNanos.get() / 1_000_000.0 / done, maxRunNanos.get() / 1_000_000.0);
+        }
+
+        public static class Snapshot {
+            private final String type;
+            private final long submitted;
+            private final long completed;
+            private final long cancelled;
+            private final long rejected;
+            private final double avgWaitMillis;
+            private final double maxWaitMillis;
+            private final double avgRunMillis;
+            private final double maxRunMillis;
+
+            Snapshot(String type, long submitted, long completed, long cancelled, long rejected,
+                     double avgWaitMillis, double maxWaitMillis, double avgRunMillis, double maxRunMillis) {
+                this.type = type;
+                this.submitted = submitted;
+                this.completed = completed;
+                this.cancelled = cancelled;
+                this.rejected = rejected;
+                this.avgWaitMillis = avgWaitMillis;
+                this.maxWaitMillis = maxWaitMillis;
+                this.avgRunMillis = avgRunMillis;
+                this.maxRunMillis = maxRunMillis;
+            }
+
+            public String getType() { return type; }
+            public long getSubmitted() { return submitted; }
+            public long getCompleted() { return completed; }
+            public long getCancelled() { return cancelled; }
+            public long getRejected() { return rejected; }
+            public double getAvgWaitMillis() { return avgWaitMillis; }
+            public double getMaxWaitMillis() { return maxWaitMillis; }
+            public double getAvgRunMillis() { return avgRunMillis; }
+            public double getMaxRunMillis() { return maxRunMillis; }
+
+            @Override
+            public String toString() {
+                return String.format("%s[submitted=%d, completed=%d, cancelled=%d, rejected=%d, " +
+                        "wait avg=%.1fms max=%.1fms, run avg=%.1fms max=%.1fms]",
+                        type, submitted, completed, cancelled, rejected,
+                        avgWaitMillis, maxWaitMillis, avgRunMillis, maxRunMillis);
+            }
+        }
     }
-} 
\ No newline at end of file
+}
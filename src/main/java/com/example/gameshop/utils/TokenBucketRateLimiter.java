@@ -0,0 +1,163 @@
+package com.example.gameshop.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Token bucket that hands out permits as futures, so callers queue without holding a thread.
+// Tokens refill continuously at the configured rate up to the burst size; waiters are served in
+// arrival order, and acquire fails fast once the queue is full.
+public class TokenBucketRateLimiter {
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "rate-limiter");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final String name;
+    private final double permitsPerNano;
+    private final double burst;
+    private final int maxQueue;
+
+    // Guarded by this
+    private final Queue<Waiter> waiters = new ArrayDeque<>();
+    private double tokens;
+    private long lastRefill;
+    private boolean drainScheduled;
+
+    private long acquired;
+    private long rejected;
+    private long queued;
+    private long totalWaitNanos;
+    private long maxWaitNanos;
+    private int maxQueueDepth;
+
+    public TokenBucketRateLimiter(String name, double permitsPerSecond, int burst, int maxQueue) {
+        this.name = name;
+        this.permitsPerNano = permitsPerSecond / 1_000_000_000.0;
+        this.burst = burst;
+        this.maxQueue = maxQueue;
+        this.tokens = burst;
+        this.lastRefill = System.nanoTime();
+    }
+
+    public CompletableFuture<Void> acquire() {
+        synchronized (this) {
+            refill();
+            if (waiters.isEmpty() && tokens >= 1) {
+                tokens -= 1;
+                acquired++;
+                return CompletableFuture.completedFuture(null);
+            }
+            if (waiters.size() >= maxQueue) {
+                rejected++;
+                return CompletableFuture.failedFuture(
+                    new RejectedExecutionException(name + " rate limiter queue is full (" + maxQueue + ")"));
+            }
+            Waiter waiter = new Waiter();
+            waiters.add(waiter);
+            queued++;
+            maxQueueDepth = Math.max(maxQueueDepth, waiters.size());
+            scheduleDrain();
+            return waiter.future;
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - lastRefill) * permitsPerNano);
+        lastRefill = now;
+    }
+
+    // Caller holds the lock
+    private void scheduleDrain() {
+        if (drainScheduled) {
+            return;
+        }
+        drainScheduled = true;
+        long delay = tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / permitsPerNano);
+        scheduler.schedule(this::drain, delay, TimeUnit.NANOSECONDS);
+    }
+
+    private void drain() {
+        List<Waiter> ready = new ArrayList<>();
+        synchronized (this) {
+            drainScheduled = false;
+            refill();
+            long now = System.nanoTime();
+            while (tokens >= 1 && !waiters.isEmpty()) {
+                Waiter waiter = waiters.poll();
+                tokens -= 1;
+                acquired++;
+                long waited = now - waiter.enqueuedAt;
+                totalWaitNanos += waited;
+                maxWaitNanos = Math.max(maxWaitNanos, waited);
+                ready.add(waiter);
+            }
+            if (!waiters.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+        // Completed outside the lock: dependents may start requests straight away
+        for (Waiter waiter : ready) {
+            waiter.future.complete(null);
+        }
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(name, waiters.size(), maxQueueDepth, acquired, queued, rejected,
+            queued == 0 ? 0.0 : totalWaitNanos / 1_000_000.0 / Math.max(1, queued - waiters.size()),
+            maxWaitNanos / 1_000_000.0);
+    }
+
+    private static class Waiter {
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private final long enqueuedAt = System.nanoTime();
+    }
+
+    public static class Stats {
+        private final String name;
+        private final int queueDepth;
+        private final int maxQueueDepth;
+        private final long acquired;
+        private final long queued;
+        private final long rejected;
+        private final double avgWaitMillis;
+        private final double maxWaitMillis;
+
+        Stats(String name, int queueDepth, int maxQueueDepth, long acquired, long queued, long rejected,
+              double avgWaitMillis, double maxWaitMillis) {
+            this.name = name;
+            this.queueDepth = queueDepth;
+            this.maxQueueDepth = maxQueueDepth;
+            this.acquired = acquired;
+            this.queued = queued;
+            this.rejected = rejected;
+            this.avgWaitMillis = avgWaitMillis;
+            this.maxWaitMillis = maxWaitMillis;
+        }
+
+        public String getName() { return name; }
+        public int getQueueDepth() { return queueDepth; }
+        public int getMaxQueueDepth() { return maxQueueDepth; }
+        public long getAcquired() { return acquired; }
+        public long getQueued() { return queued; }
+        public long getRejected() { return rejected; }
+        // Average over permits that had to queue
+        public double getAvgWaitMillis() { return avgWaitMillis; }
+        public double getMaxWaitMillis() { return maxWaitMillis; }
+
+        @Override
+        public String toString() {
+            return String.format("%s[queue=%d, maxQueue=%d, acquired=%d, queued=%d, rejected=%d, " +
+                    "avgWait=%.1fms, maxWait=%.1fms]",
+                    name, queueDepth, maxQueueDepth, acquired, queued, rejected, avgWaitMillis, maxWaitMillis);
+        }
+    }
+}
@@ -4,6 +4,7 @@ module com.example.gameshop {
     requires java.sql;
     requires org.json;
     requires java.net.http;
+    requires jdk.jfr;
 
     opens com.example.gameshop to javafx.fxml;
     exports com.example.gameshop;
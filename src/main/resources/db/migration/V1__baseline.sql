@@ -0,0 +1,93 @@
+-- Baseline: the tables from the MySQL setup in README.md plus steam_games. IF NOT EXISTS, so databases
+-- created by hand before migrations existed are adopted as they are.
+-- Written in the MySQL dialect, which the embedded H2 engine accepts in MODE=MySQL.
+CREATE TABLE IF NOT EXISTS users (
+    user_id INT PRIMARY KEY AUTO_INCREMENT,
+    username VARCHAR(50) NOT NULL UNIQUE,
+    password VARCHAR(100) NOT NULL,
+    email VARCHAR(100) NOT NULL,
+    role VARCHAR(20) DEFAULT 'USER',
+    balance DECIMAL(10,2) DEFAULT 0.0,
+    steam_id VARCHAR(50),
+    last_login TIMESTAMP NULL
+);
+
+CREATE TABLE IF NOT EXISTS games (
+    game_id INT PRIMARY KEY AUTO_INCREMENT,
+    title VARCHAR(100) NOT NULL,
+    description TEXT,
+    price DECIMAL(10,2) NOT NULL,
+    app_id INT,
+    developer VARCHAR(100),
+    publisher VARCHAR(100),
+    genre VARCHAR(50)
+);
+
+CREATE TABLE IF NOT EXISTS game_keys (
+    key_id INT PRIMARY KEY AUTO_INCREMENT,
+    game_id INT NOT NULL,
+    key_value VARCHAR(100) NOT NULL,
+    is_sold BOOLEAN DEFAULT false,
+    user_id INT NULL,
+    reserved_by VARCHAR(64) NULL,
+    reserved_until TIMESTAMP NULL,
+    FOREIGN KEY (game_id) REFERENCES games(game_id),
+    FOREIGN KEY (user_id) REFERENCES users(user_id)
+);
+
+CREATE TABLE IF NOT EXISTS user_games (
+    id INT PRIMARY KEY AUTO_INCREMENT,
+    user_id INT NOT NULL,
+    game_id INT NOT NULL,
+    purchase_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (user_id) REFERENCES users(user_id),
+    FOREIGN KEY (game_id) REFERENCES games(game_id)
+);
+
+CREATE TABLE IF NOT EXISTS purchases (
+    id INT PRIMARY KEY AUTO_INCREMENT,
+    user_id INT NOT NULL,
+    game_id INT NOT NULL,
+    price DECIMAL(10,2) NOT NULL,
+    purchase_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (user_id) REFERENCES users(user_id),
+    FOREIGN KEY (game_id) REFERENCES games(game_id)
+);
+
+CREATE TABLE IF NOT EXISTS friends (
+    id INT PRIMARY KEY AUTO_INCREMENT,
+    user_id INT NOT NULL,
+    friend_id INT NOT NULL,
+    status VARCHAR(20) DEFAULT 'PENDING',
+    FOREIGN KEY (user_id) REFERENCES users(user_id),
+    FOREIGN KEY (friend_id) REFERENCES users(user_id),
+    UNIQUE KEY unique_friendship (user_id, friend_id)
+);
+
+-- Covers both the library sync columns (title, playtime) and the full import columns
+CREATE TABLE IF NOT EXISTS steam_games (
+    id INT PRIMARY KEY AUTO_INCREMENT,
+    user_id INT NOT NULL,
+    app_id INT NOT NULL,
+    title VARCHAR(100),
+    playtime INT DEFAULT 0,
+    name VARCHAR(100),
+    developer VARCHAR(50),
+    publisher VARCHAR(50),
+    genre VARCHAR(30),
+    description VARCHAR(500),
+    price DECIMAL(10,2),
+    playtime_minutes INT DEFAULT 0,
+    FOREIGN KEY (user_id) REFERENCES users(user_id),
+    UNIQUE KEY unique_steam_game (user_id, app_id)
+);
+
+CREATE TABLE IF NOT EXISTS steam_sync_state (
+    user_id INT PRIMARY KEY,
+    last_synced_at TIMESTAMP NULL,
+    next_sync_at TIMESTAMP NULL,
+    consecutive_failures INT NOT NULL DEFAULT 0,
+    last_error VARCHAR(255),
+    FOREIGN KEY (user_id) REFERENCES users(user_id),
+    INDEX idx_next_sync (next_sync_at)
+);
@@ -0,0 +1,21 @@
+-- Columns added to existing tables after the original README schema. Databases created by that schema are
+-- adopted by the baseline without them; SchemaMigrator skips an ADD COLUMN when the column already exists.
+
+-- recordLogin and the Steam sync ordering
+ALTER TABLE users ADD COLUMN last_login TIMESTAMP NULL;
+
+-- Buyer of a sold key, and the checkout reservation (KeyReservationService, PurchaseEngine)
+ALTER TABLE game_keys ADD COLUMN user_id INT NULL;
+ALTER TABLE game_keys ADD COLUMN reserved_by VARCHAR(64) NULL;
+ALTER TABLE game_keys ADD COLUMN reserved_until TIMESTAMP NULL;
+
+-- steam_games was created by hand with either the library sync columns or the full import columns
+ALTER TABLE steam_games ADD COLUMN title VARCHAR(100);
+ALTER TABLE steam_games ADD COLUMN playtime INT DEFAULT 0;
+ALTER TABLE steam_games ADD COLUMN name VARCHAR(100);
+ALTER TABLE steam_games ADD COLUMN developer VARCHAR(50);
+ALTER TABLE steam_games ADD COLUMN publisher VARCHAR(50);
+ALTER TABLE steam_games ADD COLUMN genre VARCHAR(30);
+ALTER TABLE steam_games ADD COLUMN description VARCHAR(500);
+ALTER TABLE steam_games ADD COLUMN price DECIMAL(10,2);
+ALTER TABLE steam_games ADD COLUMN playtime_minutes INT DEFAULT 0;
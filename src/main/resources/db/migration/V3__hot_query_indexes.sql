@@ -0,0 +1,26 @@
+-- Indexes for the per-user and per-game lookups on the purchase, library and friends paths.
+-- SchemaMigrator skips an index when an existing one already starts with the same columns
+-- (e.g. the UNIQUE constraints on users.username and friends(user_id, friend_id) from the baseline).
+
+-- userOwnsGame and the purchase ownership check
+CREATE INDEX idx_user_games_user_game ON user_games (user_id, game_id);
+
+-- getAvailableGameKey, key reservation and checkout: first unsold key of a game
+CREATE INDEX idx_game_keys_game_sold ON game_keys (game_id, is_sold);
+
+-- Releasing the keys held by a checkout session
+CREATE INDEX idx_game_keys_reserved_by ON game_keys (reserved_by);
+
+-- getUserFriends and getFriends
+CREATE INDEX idx_friends_user ON friends (user_id);
+
+-- getUserByUsername (login)
+CREATE INDEX idx_users_username ON users (username);
+
+-- Upsert key of saveSteamGames. Databases set up from the README have no such constraint, so the upsert only
+-- ever inserted there: keep the newest row of each (user_id, app_id) before adding it. The nested derived
+-- table lets MySQL delete from the table it reads.
+DELETE FROM steam_games WHERE id NOT IN (
+    SELECT keep_id FROM (SELECT MAX(id) AS keep_id FROM steam_games GROUP BY user_id, app_id) AS newest
+);
+CREATE UNIQUE INDEX unique_steam_game ON steam_games (user_id, app_id);
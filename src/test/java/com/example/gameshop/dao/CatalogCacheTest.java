@@ -0,0 +1,131 @@
+package com.example.gameshop.dao;
+
+import com.example.gameshop.models.Game;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class CatalogCacheTest {
+    private static Game game(int id, String title) {
+        Game game = new Game(title, "Description", 9.99);
+        game.setGameId(id);
+        return game;
+    }
+
+    @Test
+    public void testRepeatReadsServedFromMemory() throws Exception {
+        CatalogCache cache = new CatalogCache(60_000);
+        AtomicInteger loads = new AtomicInteger();
+        CatalogCache.Loader loader = () -> {
+            loads.incrementAndGet();
+            List<Game> games = new ArrayList<>();
+            games.add(game(1, "Portal"));
+            return games;
+        };
+
+        cache.get(loader);
+        cache.get(loader);
+        cache.get(loader);
+
+        assertEquals(1, loads.get());
+        assertEquals(2, cache.getStats().getHits());
+        assertEquals(1, cache.getStats().getMisses());
+    }
+
+    @Test
+    public void testExpiredEntriesReload() throws Exception {
+        CatalogCache cache = new CatalogCache(0);
+        AtomicInteger loads = new AtomicInteger();
+        CatalogCache.Loader loader = () -> {
+            loads.incrementAndGet();
+            return new ArrayList<>();
+        };
+
+        cache.get(loader);
+        cache.get(loader);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testWritesPatchCachedCatalog() throws Exception {
+        CatalogCache cache = new CatalogCache(60_000);
+        CatalogCache.Loader loader = () -> {
+            List<Game> games = new ArrayList<>();
+            games.add(game(1, "Portal"));
+            games.add(game(2, "Half-Life"));
+            return games;
+        };
+        cache.get(loader);
+
+        cache.put(game(2, "Half-Life 2"));
+        cache.put(game(3, "Dota 2"));
+        cache.remove(1);
+
+        List<Game> games = cache.get(() -> {
+            throw new AssertionError("catalog should not be reloaded");
+        });
+        assertEquals(2, games.size());
+        assertEquals("Half-Life 2", games.get(0).getTitle());
+        assertEquals(3, games.get(1).getGameId());
+    }
+
+    @Test
+    public void testCallersCannotEditCachedGames() throws Exception {
+        CatalogCache cache = new CatalogCache(60_000);
+        CatalogCache.Loader loader = () -> {
+            List<Game> games = new ArrayList<>();
+            games.add(game(1, "Portal"));
+            return games;
+        };
+
+        // An edit that is never saved doesn't reach the cache
+        cache.get(loader).get(0).setTitle("Unsaved");
+        assertEquals("Portal", cache.get(loader).get(0).getTitle());
+
+        // Neither does editing a game after it was put
+        Game saved = game(1, "Portal 2");
+        cache.put(saved);
+        saved.setPrice(0.0);
+        Game cached = cache.get(loader).get(0);
+        assertEquals("Portal 2", cached.getTitle());
+        assertEquals(9.99, cached.getPrice(), 0.001);
+    }
+
+    @Test
+    public void testVersionChangesOnlyWithTheCatalog() throws Exception {
+        CatalogCache cache = new CatalogCache(60_000);
+        CatalogCache.Loader loader = ArrayList::new;
+
+        cache.get(loader);
+        long loaded = cache.getVersion();
+        cache.get(loader);
+        assertEquals(loaded, cache.getVersion());
+
+        cache.put(game(1, "Portal"));
+        assertTrue(cache.getVersion() > loaded);
+        long patched = cache.getVersion();
+        cache.remove(1);
+        assertTrue(cache.getVersion() > patched);
+    }
+
+    @Test
+    public void testInvalidateForcesReload() throws Exception {
+        CatalogCache cache = new CatalogCache(60_000);
+        AtomicInteger loads = new AtomicInteger();
+        CatalogCache.Loader loader = () -> {
+            loads.incrementAndGet();
+            return new ArrayList<>();
+        };
+
+        cache.get(loader);
+        cache.invalidate();
+        cache.get(loader);
+
+        assertEquals(2, loads.get());
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.gameshop.dao;
+
+import com.example.gameshop.utils.DatabaseConnection;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.Assert.*;
+
+public class KeyImporterTest {
+    @Test
+    public void testParsePlainAndCsvLines() {
+        assertEquals("AAAA-BBBB-CCCC", KeyImporter.parseKey("  AAAA-BBBB-CCCC  ", false));
+        assertEquals("AAAA-BBBB-CCCC", KeyImporter.parseKey("AAAA-BBBB-CCCC,Portal,2024-01-01", false));
+        assertEquals("AAAA-BBBB-CCCC", KeyImporter.parseKey("\"AAAA-BBBB-CCCC\";batch-7", false));
+        assertEquals("AAAA", KeyImporter.parseKey("\uFEFFAAAA", true));
+    }
+
+    @Test
+    public void testSkipsHeaderBlanksAndComments() {
+        assertNull(KeyImporter.parseKey("key,game", true));
+        assertNull(KeyImporter.parseKey("   ", false));
+        assertNull(KeyImporter.parseKey("# exported 2024-01-01", false));
+        // A header is only recognised on the first line
+        assertEquals("key", KeyImporter.parseKey("key", false));
+    }
+
+    @Test
+    public void testValidation() {
+        assertTrue(KeyImporter.isValid("ABCD-1234-efgh"));
+        assertFalse(KeyImporter.isValid("-ABCD"));
+        assertFalse(KeyImporter.isValid("AB CD"));
+        assertFalse(KeyImporter.isValid("ABCD_1234"));
+        assertFalse(KeyImporter.isValid("A".repeat(101)));
+    }
+
+    @Test
+    public void testFailedChunkReportsWhatWasCommitted() throws Exception {
+        TestDatabase.reset();
+        int gameId = TestDatabase.insertGame("Imported", 10.0);
+        Path file = Files.createTempFile("keys", ".txt");
+        try {
+            StringBuilder keys = new StringBuilder();
+            for (int i = 0; i < 7; i++) {
+                keys.append("KEY-").append(i).append('\n');
+            }
+            Files.writeString(file, keys);
+
+            // After the first chunk the game disappears, so the second chunk breaks its foreign key
+            KeyImporter importer = new KeyImporter(3);
+            try {
+                importer.importKeys(gameId, file, progress -> dropGame(gameId));
+                fail("expected the second chunk to fail");
+            } catch (KeyImporter.PartialImportException e) {
+                assertEquals(3, e.getCommitted());
+                assertTrue(e.getMessage().contains("3 keys were already imported"));
+            }
+            assertEquals(3, TestDatabase.count("SELECT COUNT(*) FROM game_keys WHERE game_id = ?", gameId));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static void dropGame(int gameId) {
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("SET REFERENTIAL_INTEGRITY FALSE");
+            try {
+                stmt.execute("DELETE FROM games WHERE game_id = " + gameId);
+            } finally {
+                stmt.execute("SET REFERENTIAL_INTEGRITY TRUE");
+            }
+        } catch (SQLException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
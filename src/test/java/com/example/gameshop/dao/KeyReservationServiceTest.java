@@ -0,0 +1,136 @@
+package com.example.gameshop.dao;
+
+import com.example.gameshop.models.GameKey;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class KeyReservationServiceTest {
+    private static final String RESERVED_BY =
+        "SELECT COUNT(*) FROM game_keys WHERE reserved_by = ? AND is_sold = false";
+
+    private final List<KeyReservationService> services = new ArrayList<>();
+
+    @Before
+    public void setUp() throws SQLException {
+        TestDatabase.reset();
+    }
+
+    @After
+    public void tearDown() {
+        services.forEach(KeyReservationService::shutdown);
+    }
+
+    private KeyReservationService service(int blockSize, long ttlSeconds) {
+        KeyReservationService service = new KeyReservationService(blockSize, ttlSeconds);
+        services.add(service);
+        return service;
+    }
+
+    @Test
+    public void testConcurrentCheckoutsNeverSellAKeyTwice() throws Exception {
+        int keys = 30;
+        int buyers = 60;
+        int gameId = TestDatabase.insertGame("Launch Day", 10.0);
+        TestDatabase.insertKeys(gameId, keys);
+        List<Integer> users = new ArrayList<>();
+        for (int i = 0; i < buyers; i++) {
+            users.add(TestDatabase.insertUser("buyer" + i, 100.0));
+        }
+        PurchaseEngine engine = new PurchaseEngine(service(5, 300));
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<GameKey>> results = new ArrayList<>();
+        try {
+            for (int userId : users) {
+                results.add(executor.submit(() -> {
+                    try {
+                        return engine.purchase(userId, gameId, 10.0);
+                    } catch (SQLException e) {
+                        assertEquals("This game is out of stock", e.getMessage());
+                        return null;
+                    }
+                }));
+            }
+            Set<Integer> sold = new HashSet<>();
+            for (Future<GameKey> result : results) {
+                GameKey key = result.get(30, TimeUnit.SECONDS);
+                if (key != null) {
+                    assertTrue("key " + key.getKeyId() + " sold twice", sold.add(key.getKeyId()));
+                }
+            }
+
+            // Every key goes to exactly one buyer, and nobody is turned away while stock remains
+            assertEquals(keys, sold.size());
+            assertEquals(keys, TestDatabase.count("SELECT COUNT(*) FROM game_keys WHERE is_sold = true"));
+            assertEquals(keys, TestDatabase.count("SELECT COUNT(DISTINCT user_id) FROM game_keys WHERE is_sold = true"));
+            assertEquals(keys, TestDatabase.count("SELECT COUNT(*) FROM user_games"));
+            assertEquals(keys, TestDatabase.count("SELECT COUNT(*) FROM purchases"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testReservationsLapseInTheDatabase() throws Exception {
+        int gameId = TestDatabase.insertGame("Lapsed", 10.0);
+        TestDatabase.insertKeys(gameId, 5);
+        KeyReservationService first = service(5, 1);
+        KeyReservationService second = service(5, 300);
+
+        // A one-second reservation still hands out keys; the whole block stays reserved in the
+        // database until reserved_until passes
+        assertNotNull(first.take(gameId));
+        assertEquals(5, TestDatabase.count(RESERVED_BY, first.getOwnerId()));
+        assertNull(second.take(gameId));
+
+        Thread.sleep(1500);
+        assertNotNull(second.take(gameId));
+        assertEquals(5, TestDatabase.count(RESERVED_BY, second.getOwnerId()));
+    }
+
+    @Test
+    public void testHousekeeperReleasesExpiredReservations() throws Exception {
+        int gameId = TestDatabase.insertGame("Expiring", 10.0);
+        TestDatabase.insertKeys(gameId, 5);
+        // Four seconds less a one-second margin: handed out for three seconds, swept every second
+        KeyReservationService service = service(5, 4);
+
+        service.giveBack(service.take(gameId));
+        assertEquals(5, TestDatabase.count(RESERVED_BY, service.getOwnerId()));
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (TestDatabase.count(RESERVED_BY, service.getOwnerId()) > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        assertEquals(0, TestDatabase.count(RESERVED_BY, service.getOwnerId()));
+        assertEquals(0, service.getStock(gameId).getReserved());
+        assertEquals(5, service.getStock(gameId).getExpired());
+    }
+
+    @Test
+    public void testShutdownReleasesReservations() throws Exception {
+        int gameId = TestDatabase.insertGame("Shutdown", 10.0);
+        TestDatabase.insertKeys(gameId, 8);
+        KeyReservationService service = service(5, 300);
+
+        assertNotNull(service.take(gameId));
+        assertEquals(5, TestDatabase.count(RESERVED_BY, service.getOwnerId()));
+
+        service.shutdown();
+        assertEquals(0, TestDatabase.count(RESERVED_BY, service.getOwnerId()));
+        assertEquals(0, TestDatabase.count("SELECT COUNT(*) FROM game_keys WHERE reserved_until IS NOT NULL"));
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.gameshop.dao;
+
+import com.example.gameshop.models.GameKey;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class PurchaseEngineTest {
+    private KeyReservationService reservations;
+    private PurchaseEngine engine;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws SQLException {
+        TestDatabase.reset();
+        reservations = new KeyReservationService(5, 300);
+        engine = new PurchaseEngine(reservations);
+        executor = Executors.newFixedThreadPool(8);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        reservations.shutdown();
+    }
+
+    // Starts every call at once and returns their outcomes: the key, null, or the exception message
+    private List<Object> race(List<Callable<GameKey>> calls) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Object>> futures = new ArrayList<>();
+        for (Callable<GameKey> call : calls) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    return call.call();
+                } catch (SQLException e) {
+                    return e.getMessage();
+                }
+            }));
+        }
+        start.countDown();
+        List<Object> outcomes = new ArrayList<>();
+        for (Future<Object> future : futures) {
+            outcomes.add(future.get(30, TimeUnit.SECONDS));
+        }
+        return outcomes;
+    }
+
+    private static long count(List<Object> outcomes, Class<?> type) {
+        return outcomes.stream().filter(type::isInstance).count();
+    }
+
+    @Test
+    public void testRepeatedClicksBuyOnce() throws Exception {
+        int userId = TestDatabase.insertUser("clicker", 100.0);
+        int gameId = TestDatabase.insertGame("Popular", 30.0);
+        // More keys than the clicks can hold in reservations, so none of them is turned away as out of stock
+        TestDatabase.insertKeys(gameId, 20);
+
+        List<Callable<GameKey>> clicks = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            clicks.add(() -> engine.purchase(userId, gameId, 30.0));
+        }
+        List<Object> outcomes = race(clicks);
+
+        assertEquals(1, count(outcomes, GameKey.class));
+        for (Object outcome : outcomes) {
+            if (!(outcome instanceof GameKey)) {
+                assertEquals("You already own this game!", outcome);
+            }
+        }
+        assertEquals(7000, TestDatabase.count("SELECT balance * 100 FROM users WHERE user_id = ?", userId));
+        assertEquals(1, TestDatabase.count("SELECT COUNT(*) FROM game_keys WHERE is_sold = true"));
+        assertEquals(1, TestDatabase.count("SELECT COUNT(*) FROM user_games"));
+        assertEquals(1, TestDatabase.count("SELECT COUNT(*) FROM purchases"));
+    }
+
+    @Test
+    public void testBalanceIsNeverOverdrawn() throws Exception {
+        int userId = TestDatabase.insertUser("spender", 25.0);
+        List<Callable<GameKey>> purchases = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            int gameId = TestDatabase.insertGame("Game " + i, 10.0);
+            TestDatabase.insertKeys(gameId, 2);
+            purchases.add(() -> engine.purchase(userId, gameId, 10.0));
+        }
+        List<Object> outcomes = race(purchases);
+
+        // Two fit the balance; the rest see the debited balance and are declined
+        assertEquals(2, count(outcomes, GameKey.class));
+        assertEquals(4, outcomes.stream().filter(outcome -> outcome == null).count());
+        assertEquals(500, TestDatabase.count("SELECT balance * 100 FROM users WHERE user_id = ?", userId));
+        assertEquals(2, TestDatabase.count("SELECT COUNT(*) FROM game_keys WHERE is_sold = true"));
+        assertEquals(2, TestDatabase.count("SELECT COUNT(*) FROM purchases"));
+    }
+
+    @Test
+    public void testLastKeyGoesToOneBuyer() throws Exception {
+        int gameId = TestDatabase.insertGame("Scarce", 5.0);
+        TestDatabase.insertKeys(gameId, 1);
+        List<Callable<GameKey>> buyers = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            int userId = TestDatabase.insertUser("rival" + i, 50.0);
+            buyers.add(() -> engine.purchase(userId, gameId, 5.0));
+        }
+        List<Object> outcomes = race(buyers);
+
+        assertEquals(1, count(outcomes, GameKey.class));
+        for (Object outcome : outcomes) {
+            if (!(outcome instanceof GameKey)) {
+                assertEquals("This game is out of stock", outcome);
+            }
+        }
+        // Losing buyers are not charged
+        assertEquals(5 * 5000 + 4500, TestDatabase.count("SELECT SUM(balance) * 100 FROM users"));
+        assertEquals(1, TestDatabase.count("SELECT COUNT(*) FROM user_games"));
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.gameshop.dao;
+
+import com.example.gameshop.utils.SchemaMigrator;
+import com.example.gameshop.utils.SqlDialect;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class QueryPlanAuditorTest {
+    private Connection conn;
+
+    @Before
+    public void setUp() throws SQLException {
+        conn = DriverManager.getConnection(
+            "jdbc:h2:mem:plan-test;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        SchemaMigrator.migrate(conn);
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP ALL OBJECTS");
+        }
+        conn.close();
+    }
+
+    @Test
+    public void testExtractsStatementsFromClassFile() throws Exception {
+        List<String> sql = QueryPlanAuditor.extractSql(DatabaseManager.class);
+        assertTrue(sql.contains("SELECT 1 FROM user_games WHERE user_id = ? AND game_id = ?"));
+        assertTrue(sql.contains("SELECT * FROM game_keys WHERE game_id = ? AND is_sold = false LIMIT 1"));
+        assertTrue(sql.stream().noneMatch(statement -> statement.startsWith("INSERT")));
+    }
+
+    @Test
+    public void testFlagsFullScansOnly() throws SQLException {
+        List<QueryPlanAuditor.Finding> findings = QueryPlanAuditor.audit(conn, SqlDialect.H2);
+
+        for (QueryPlanAuditor.Finding finding : findings) {
+            assertNull(finding.toString(), finding.getError());
+        }
+        assertFalse(find(findings, "SELECT 1 FROM user_games WHERE user_id = ? AND game_id = ?").isFlagged());
+        assertFalse(find(findings, "SELECT * FROM users WHERE username = ?").isFlagged());
+        assertEquals(List.of("users"), find(findings, "SELECT * FROM users").getFullScans());
+        // Flagged statements are listed first
+        assertTrue(findings.get(0).isFlagged());
+    }
+
+    @Test
+    public void testFlagsMissingIndex() throws SQLException {
+        String release = "UPDATE game_keys SET reserved_by = NULL, reserved_until = NULL " +
+            "WHERE reserved_by = ? AND is_sold = false";
+        assertFalse(find(QueryPlanAuditor.audit(conn, SqlDialect.H2), release).isFlagged());
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP INDEX idx_game_keys_reserved_by");
+        }
+        assertEquals(List.of("game_keys"), find(QueryPlanAuditor.audit(conn, SqlDialect.H2), release).getFullScans());
+    }
+
+    private QueryPlanAuditor.Finding find(List<QueryPlanAuditor.Finding> findings, String sql) {
+        return findings.stream().filter(finding -> finding.getSql().equals(sql)).findFirst()
+            .orElseThrow(() -> new AssertionError("not audited: " + sql));
+    }
+}
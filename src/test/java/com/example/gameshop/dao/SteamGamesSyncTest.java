@@ -0,0 +1,91 @@
+package com.example.gameshop.dao;
+
+import com.example.gameshop.models.Game;
+import com.example.gameshop.models.SteamSyncResult;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SteamGamesSyncTest {
+    private final DatabaseManager dbManager = DatabaseManager.getInstance();
+    private int userId;
+
+    @Before
+    public void setUp() throws SQLException {
+        TestDatabase.reset();
+        userId = TestDatabase.insertUser("steamer", 0.0);
+    }
+
+    private static Game steamGame(int appId, String title, int playtime) {
+        Game game = new Game(title, "", 0.0);
+        game.setAppId(appId);
+        game.setPlaytime(playtime);
+        return game;
+    }
+
+    private static List<Game> library(Game... games) {
+        return new ArrayList<>(List.of(games));
+    }
+
+    private int playtime(int appId) throws SQLException {
+        return TestDatabase.count("SELECT playtime FROM steam_games WHERE user_id = ? AND app_id = ?", userId, appId);
+    }
+
+    @Test
+    public void testFirstSyncInsertsLibrary() throws SQLException {
+        SteamSyncResult result = dbManager.syncSteamGames(userId,
+            library(steamGame(10, "Portal", 30), steamGame(20, "Half-Life", 600), steamGame(30, "Dota 2", 0)));
+
+        assertEquals(3, result.getInserted());
+        assertEquals(0, result.getUpdated() + result.getDeleted() + result.getUnchanged());
+        assertEquals(3, TestDatabase.count("SELECT COUNT(*) FROM steam_games WHERE user_id = ?", userId));
+        assertEquals(600, playtime(20));
+    }
+
+    @Test
+    public void testResyncWritesOnlyTheDifference() throws SQLException {
+        dbManager.syncSteamGames(userId,
+            library(steamGame(10, "Portal", 30), steamGame(20, "Half-Life", 600), steamGame(30, "Dota 2", 0)));
+        int firstId = TestDatabase.count("SELECT id FROM steam_games WHERE user_id = ? AND app_id = 10", userId);
+
+        // Half-Life played more, Dota 2 gone from the library, Portal 2 new, Portal untouched
+        SteamSyncResult result = dbManager.syncSteamGames(userId,
+            library(steamGame(10, "Portal", 30), steamGame(20, "Half-Life", 660), steamGame(40, "Portal 2", 5)));
+
+        assertEquals(1, result.getInserted());
+        assertEquals(1, result.getUpdated());
+        assertEquals(1, result.getDeleted());
+        assertEquals(1, result.getUnchanged());
+        assertEquals(660, playtime(20));
+        assertEquals(5, playtime(40));
+        assertEquals(0, TestDatabase.count("SELECT COUNT(*) FROM steam_games WHERE app_id = 30"));
+        // The unchanged row was left in place rather than deleted and reinserted
+        assertEquals(firstId, TestDatabase.count("SELECT id FROM steam_games WHERE user_id = ? AND app_id = 10", userId));
+    }
+
+    @Test
+    public void testUnchangedLibraryWritesNothing() throws SQLException {
+        List<Game> games = library(steamGame(10, "Portal", 30), steamGame(20, "Half-Life", 600));
+        dbManager.syncSteamGames(userId, games);
+
+        SteamSyncResult result = dbManager.syncSteamGames(userId, games);
+        assertEquals(0, result.getInserted() + result.getUpdated() + result.getDeleted());
+        assertEquals(2, result.getUnchanged());
+    }
+
+    @Test
+    public void testLibrariesAreKeptPerUser() throws SQLException {
+        int otherId = TestDatabase.insertUser("other", 0.0);
+        dbManager.syncSteamGames(otherId, library(steamGame(10, "Portal", 999)));
+
+        dbManager.syncSteamGames(userId, library(steamGame(20, "Half-Life", 600)));
+
+        assertEquals(1, TestDatabase.count("SELECT COUNT(*) FROM steam_games WHERE user_id = ?", otherId));
+        assertEquals(999, TestDatabase.count("SELECT playtime FROM steam_games WHERE user_id = ? AND app_id = 10", otherId));
+    }
+}
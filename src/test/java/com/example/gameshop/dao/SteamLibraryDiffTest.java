@@ -0,0 +1,55 @@
+package com.example.gameshop.dao;
+
+import com.example.gameshop.models.Game;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SteamLibraryDiffTest {
+    private static Game steamGame(int appId, String title, int playtime) {
+        Game game = new Game(title, "", 0.0);
+        game.setAppId(appId);
+        game.setPlaytime(playtime);
+        return game;
+    }
+
+    @Test
+    public void testOnlyChangedRowsAreTouched() {
+        List<Game> stored = Arrays.asList(
+            steamGame(620, "Portal 2", 100),
+            steamGame(440, "Team Fortress 2", 50),
+            steamGame(570, "Dota 2", 10));
+        List<Game> fetched = Arrays.asList(
+            steamGame(620, "Portal 2", 100),
+            steamGame(440, "Team Fortress 2", 75),
+            steamGame(730, "Counter-Strike 2", 0));
+
+        SteamLibraryDiff diff = SteamLibraryDiff.compute(stored, fetched);
+
+        assertEquals(1, diff.getInserts().size());
+        assertEquals(730, diff.getInserts().get(0).getAppId());
+        assertEquals(1, diff.getUpdates().size());
+        assertEquals(75, diff.getUpdates().get(0).getPlaytime());
+        assertEquals(Collections.singletonList(570), diff.getDeletes());
+        assertEquals(1, diff.getUnchanged());
+    }
+
+    @Test
+    public void testIdenticalLibraryIsEmptyDiff() {
+        List<Game> library = Arrays.asList(steamGame(620, "Portal 2", 100), steamGame(440, "Team Fortress 2", 50));
+        SteamLibraryDiff diff = SteamLibraryDiff.compute(library, library);
+        assertTrue(diff.isEmpty());
+        assertEquals(2, diff.getUnchanged());
+    }
+
+    @Test
+    public void testDuplicateAppIdsInsertedOnce() {
+        SteamLibraryDiff diff = SteamLibraryDiff.compute(Collections.emptyList(),
+            Arrays.asList(steamGame(620, "Portal 2", 1), steamGame(620, "Portal 2", 1)));
+        assertEquals(1, diff.getInserts().size());
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.gameshop.dao;
+
+import com.example.gameshop.utils.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+// DatabaseConnection reads its settings once per JVM, so every DAO test that goes through it shares
+// this in-memory H2 database. Call reset() before each test.
+final class TestDatabase {
+    private static final String URL =
+        "jdbc:h2:mem:gameshop-dao-test;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    private TestDatabase() {
+    }
+
+    // Empties every table, keeping the migrated schema
+    static void reset() throws SQLException {
+        System.setProperty("gameshop.db.url", URL);
+        System.setProperty("gameshop.db.user", "sa");
+        System.setProperty("gameshop.db.password", "");
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+            List<String> tables = new ArrayList<>();
+            try (ResultSet rs = conn.getMetaData().getTables(null, conn.getSchema(), "%", new String[] {"TABLE"})) {
+                while (rs.next()) {
+                    tables.add(rs.getString("TABLE_NAME"));
+                }
+            }
+            stmt.execute("SET REFERENTIAL_INTEGRITY FALSE");
+            try {
+                for (String table : tables) {
+                    if (!table.equalsIgnoreCase("schema_version")) {
+                        stmt.execute("TRUNCATE TABLE " + table + " RESTART IDENTITY");
+                    }
+                }
+            } finally {
+                stmt.execute("SET REFERENTIAL_INTEGRITY TRUE");
+            }
+        }
+    }
+
+    static int insertUser(String username, double balance) throws SQLException {
+        return insert("INSERT INTO users (username, password, email, balance) VALUES (?, 'secret', ?, ?)",
+            username, username + "@example.com", balance);
+    }
+
+    static int insertGame(String title, double price) throws SQLException {
+        return insert("INSERT INTO games (title, description, price) VALUES (?, '', ?)", title, price);
+    }
+
+    static void insertKeys(int gameId, int count) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("INSERT INTO game_keys (game_id, key_value) VALUES (?, ?)")) {
+            for (int i = 0; i < count; i++) {
+                stmt.setInt(1, gameId);
+                stmt.setString(2, "KEY-" + gameId + "-" + i);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    static int count(String sql, Object... params) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    private static int insert(String sql, Object... params) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            stmt.executeUpdate();
+            try (ResultSet rs = stmt.getGeneratedKeys()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.gameshop.services;
+
+import com.example.gameshop.models.GameDetails;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+public class AppDetailsCacheTest {
+    private static GameDetails details(String developer) {
+        return new GameDetails(developer, "Valve", "Action", "A long description", 9.99);
+    }
+
+    @Test
+    public void testEntriesSurviveRestart() throws Exception {
+        Path file = Files.createTempFile("appdetails", ".bin");
+        AppDetailsCache cache = new AppDetailsCache(file, 60_000, 600_000);
+        cache.put(620, details("Valve"), "\"v1\"", 1200);
+        cache.put(70, details("Valve Software"), null, 800);
+        cache.shutdown();
+
+        AppDetailsCache reloaded = new AppDetailsCache(file, 60_000, 600_000);
+        AppDetailsCache.Lookup lookup = reloaded.lookup(620);
+        assertNotNull(lookup);
+        assertTrue(lookup.isFresh());
+        assertEquals("Valve", lookup.getDetails().getDeveloper());
+        assertEquals(9.99, lookup.getDetails().getPrice(), 0.001);
+        assertEquals("\"v1\"", lookup.getEtag());
+        assertNull(reloaded.lookup(70).getEtag());
+        assertEquals(2000, reloaded.getStats().getBytesSaved());
+        reloaded.shutdown();
+    }
+
+    @Test
+    public void testStaleEntriesServedUntilMaxStale() throws Exception {
+        AppDetailsCache cache = new AppDetailsCache(Files.createTempFile("appdetails", ".bin"), 0, 600_000);
+        cache.put(620, details("Valve"), null, 100);
+
+        AppDetailsCache.Lookup lookup = cache.lookup(620);
+        assertFalse(lookup.isFresh());
+        assertTrue(cache.startRevalidation(620));
+        assertFalse("only one revalidation per app", cache.startRevalidation(620));
+        cache.finishRevalidation(620);
+
+        assertNull(cache.lookup(440));
+        assertEquals(1, cache.getStats().getStaleHits());
+        assertEquals(1, cache.getStats().getMisses());
+        cache.shutdown();
+    }
+
+    @Test
+    public void testCorruptFileStartsEmpty() throws Exception {
+        Path file = Files.createTempFile("appdetails", ".bin");
+        Files.write(file, new byte[] {1, 2, 3});
+        AppDetailsCache cache = new AppDetailsCache(file, 60_000, 600_000);
+        assertEquals(0, cache.size());
+        cache.shutdown();
+    }
+}
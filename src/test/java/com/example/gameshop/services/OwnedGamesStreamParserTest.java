@@ -0,0 +1,59 @@
+package com.example.gameshop.services;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class OwnedGamesStreamParserTest {
+    private static InputStream json(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testEmitsEachGameAndSkipsOtherFields() throws Exception {
+        List<JSONObject> games = new ArrayList<>();
+        int count = OwnedGamesStreamParser.parse(json(
+            "{\"meta\":{\"games\":[{\"appid\":1}]}, \"response\": {\"game_count\": 2, \"games\": [" +
+            "{\"appid\": 620, \"name\": \"Portal 2\", \"playtime_forever\": 90, \"tags\": [\"a\", {\"b\": [1]}]}," +
+            "{\"appid\": 440, \"name\": \"Team Fortress 2\"}" +
+            "], \"extra\": null}}"), games::add);
+
+        assertEquals(2, count);
+        assertEquals(620, games.get(0).getInt("appid"));
+        assertEquals("Portal 2", games.get(0).getString("name"));
+        assertEquals("Team Fortress 2", games.get(1).getString("name"));
+    }
+
+    @Test
+    public void testPrivateProfileHasNoGames() throws Exception {
+        List<JSONObject> games = new ArrayList<>();
+        assertEquals(0, OwnedGamesStreamParser.parse(json("{\"response\":{}}"), games::add));
+        assertEquals(0, OwnedGamesStreamParser.parse(json("{\"response\":{\"games\":[]}}"), games::add));
+        assertTrue(games.isEmpty());
+    }
+
+    @Test
+    public void testGamesBeforeTruncationAreStillDelivered() {
+        List<JSONObject> games = new ArrayList<>();
+        try {
+            OwnedGamesStreamParser.parse(json("{\"response\":{\"games\":[{\"appid\":1,\"name\":\"A\"},{\"appid\":2,"),
+                games::add);
+            fail("expected a parse error");
+        } catch (IOException e) {
+            assertEquals(1, games.size());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testEmptyBodyRejected() throws Exception {
+        OwnedGamesStreamParser.parse(json("  "), game -> { });
+    }
+}
@@ -0,0 +1,300 @@
+package com.example.gameshop.services;
+
+import com.example.gameshop.models.Game;
+import com.example.gameshop.utils.CircuitBreaker;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class SteamClientTest {
+    private static final int GAME_COUNT = 12;
+    private static final int PER_HOST_LIMIT = 4;
+
+    private HttpServer server;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicInteger detailRequests = new AtomicInteger();
+    private AppDetailsCache cache;
+
+    @Before
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/IPlayerService/GetOwnedGames/v0001/", exchange -> {
+            StringBuilder games = new StringBuilder();
+            for (int i = 1; i <= GAME_COUNT; i++) {
+                games.append(i > 1 ? "," : "")
+                     .append("{\"appid\":").append(i).append(",\"name\":\"Game ").append(i)
+                     .append("\",\"playtime_forever\":").append(i * 10).append('}');
+            }
+            respond(exchange, 200, "{\"response\":{\"game_count\":" + GAME_COUNT + ",\"games\":[" + games + "]}}");
+        });
+        server.createContext("/api/appdetails", exchange -> {
+            detailRequests.incrementAndGet();
+            int now = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(now, Math::max);
+            try {
+                Thread.sleep(50);
+                String appId = exchange.getRequestURI().getQuery().replace("appids=", "");
+                if (appId.equals("7")) {
+                    respond(exchange, 500, "");
+                } else {
+                    respond(exchange, 200, "{\"" + appId + "\":{\"success\":true,\"data\":{" +
+                            "\"developer\":\"Dev " + appId + "\",\"publisher\":\"Pub\"," +
+                            "\"genres\":[{\"description\":\"Action\"}]}}}");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+        server.start();
+        cache = new AppDetailsCache(Files.createTempFile("appdetails", ".bin"), 60_000, 600_000);
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private SteamClient client(SteamTransport transport) {
+        // No retries, and rates high enough not to slow the tests down
+        return client(transport, new SteamClient.Limits(1000, 1000, 100, 1000, 1, 10, 100, 1000));
+    }
+
+    private SteamClient client(SteamTransport transport, SteamClient.Limits limits) {
+        String url = "http://127.0.0.1:" + server.getAddress().getPort();
+        return new SteamClient(transport, new SteamClient.Config("test-key", url, url,
+            Duration.ofSeconds(5), Duration.ofSeconds(5)), limits, cache);
+    }
+
+    private static HttpSteamTransport transport() {
+        return new HttpSteamTransport(HttpSteamTransport.Mode.ASYNC, PER_HOST_LIMIT, Duration.ofSeconds(5));
+    }
+
+    @Test
+    public void testDetailsFetchedInParallelWithinHostLimit() throws Exception {
+        HttpSteamTransport transport = transport();
+        SteamClient client = client(transport);
+
+        List<Game> streamed = new CopyOnWriteArrayList<>();
+        List<Game> games = client.getOwnedGamesWithDetails("123", streamed::add).get();
+
+        // The failing app is skipped, everything else keeps Steam's order
+        assertEquals(GAME_COUNT - 1, games.size());
+        assertEquals("Game 1", games.get(0).getTitle());
+        assertEquals("Game 8", games.get(6).getTitle());
+        assertEquals(GAME_COUNT - 1, streamed.size());
+
+        assertTrue("requests should overlap", maxInFlight.get() > 1);
+        assertTrue("per-host limit exceeded: " + maxInFlight.get(), maxInFlight.get() <= PER_HOST_LIMIT);
+        assertEquals(1, transport.getStats().getFailures());
+        assertEquals(GAME_COUNT, client.getCallStats().get("appdetails").getCalls());
+        assertEquals(1, client.getCallStats().get("appdetails").getErrors());
+    }
+
+    @Test
+    public void testRepeatImportServedFromDetailsCache() throws Exception {
+        SteamClient client = client(transport());
+
+        client.getOwnedGamesWithDetails("123", null).get();
+        assertEquals(GAME_COUNT, detailRequests.get());
+
+        List<Game> games = client.getOwnedGamesWithDetails("456", null).get();
+        // Only the app whose details failed is fetched again
+        assertEquals(GAME_COUNT + 1, detailRequests.get());
+        assertEquals(GAME_COUNT - 1, games.size());
+        assertEquals("Dev 3", games.get(2).getDetails().getDeveloper());
+        assertEquals(GAME_COUNT - 1, cache.getStats().getHits());
+    }
+
+    @Test
+    public void testThrottledCallsAreRetried() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        server.createContext("/api/appdetails/throttled", exchange -> {
+            if (calls.incrementAndGet() < 3) {
+                exchange.getResponseHeaders().add("Retry-After", "0");
+                respond(exchange, 429, "");
+            } else {
+                respond(exchange, 200, "{\"5\":{\"success\":true,\"data\":{\"developer\":\"Dev 5\"}}}");
+            }
+        });
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/api/appdetails/throttled";
+        SteamClient client = new SteamClient(transport(), new SteamClient.Config("test-key", url, url,
+            Duration.ofSeconds(5), Duration.ofSeconds(5)),
+            new SteamClient.Limits(1000, 1000, 100, 1000, 4, 10, 100, 1000), cache);
+
+        assertEquals("Dev 5", client.getAppDetails(5).get(5, TimeUnit.SECONDS).getDeveloper());
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    public void testLibraryCallFailsWithoutApiKey() throws Exception {
+        String url = "http://127.0.0.1:" + server.getAddress().getPort();
+        SteamClient client = new SteamClient(transport(), new SteamClient.Config("", url, url,
+            Duration.ofSeconds(5), Duration.ofSeconds(5)),
+            new SteamClient.Limits(1000, 1000, 100, 1000, 1, 10, 100, 1000), cache);
+
+        assertFalse(client.hasApiKey());
+        try {
+            client.getOwnedGames("123").get(5, TimeUnit.SECONDS);
+            fail("expected a missing key error");
+        } catch (ExecutionException expected) {
+            assertTrue(expected.getCause() instanceof IllegalStateException);
+            assertTrue(expected.getCause().getMessage().contains("gameshop.steam.apiKey"));
+        }
+    }
+
+    @Test
+    public void testCircuitOpensAfterRepeatedFailures() throws Exception {
+        SteamClient client = client(transport(), new SteamClient.Limits(1000, 1000, 100, 1000, 1, 10, 2, 60_000));
+
+        // App 7 always fails with a 500; two failures open the store circuit
+        for (int i = 0; i < 2; i++) {
+            try {
+                client.getAppDetails(7).get(5, TimeUnit.SECONDS);
+                fail("expected HTTP 500");
+            } catch (ExecutionException expected) {
+            }
+        }
+        int requestsBefore = detailRequests.get();
+        try {
+            client.getAppDetails(3).get(5, TimeUnit.SECONDS);
+            fail("expected the circuit to be open");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof CircuitBreaker.OpenException);
+        }
+
+        assertEquals("open circuit should not reach the server", requestsBefore, detailRequests.get());
+        assertTrue(client.getUpstreamStats().get("store").contains("state=OPEN"));
+    }
+
+    @Test
+    public void testLocalFailureDoesNotCloseCircuit() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        SteamTransport fake = new SteamTransport() {
+            @Override
+            public <T> CompletableFuture<T> get(URI uri, Map<String, String> headers, Duration timeout,
+                                                ResponseHandler<T> handler) {
+                int call = calls.incrementAndGet();
+                if (call == 3) {
+                    // No response at all, and not a failure the client retries
+                    return CompletableFuture.failedFuture(new IOException("stream reset"));
+                }
+                int status = call <= 2 ? 500 : 200;
+                // The fourth answer is empty, which the library parser rejects
+                String body = call == 5 ? "{\"response\":{\"games\":[]}}" : "";
+                try {
+                    return CompletableFuture.completedFuture(handler.handle(new Response() {
+                        public int statusCode() { return status; }
+                        public Optional<String> header(String name) { return Optional.empty(); }
+                        public InputStream body() { return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)); }
+                    }));
+                } catch (IOException e) {
+                    return CompletableFuture.failedFuture(e);
+                }
+            }
+        };
+        // Both base URLs point at the test server, so every call counts against the store host
+        SteamClient client = client(fake, new SteamClient.Limits(1000, 1000, 100, 1000, 1, 10, 2, 50));
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                client.getOwnedGames("123").get(5, TimeUnit.SECONDS);
+                fail("expected HTTP 500");
+            } catch (ExecutionException expected) {
+            }
+        }
+        assertTrue(client.getUpstreamStats().get("store").contains("state=OPEN"));
+
+        Thread.sleep(100);
+        try {
+            client.getOwnedGames("123").get(5, TimeUnit.SECONDS);
+            fail("expected the transport failure");
+        } catch (ExecutionException e) {
+            assertEquals("stream reset", e.getCause().getMessage());
+        }
+        assertTrue(client.getUpstreamStats().get("store").contains("state=HALF_OPEN"));
+
+        // The trial was given back each time, so the next call is let through
+        try {
+            client.getOwnedGames("123").get(5, TimeUnit.SECONDS);
+            fail("expected the empty body to be rejected");
+        } catch (ExecutionException expected) {
+        }
+        assertTrue(client.getUpstreamStats().get("store").contains("state=HALF_OPEN"));
+
+        assertTrue(client.getOwnedGames("123").get(5, TimeUnit.SECONDS).isEmpty());
+        assertTrue(client.getUpstreamStats().get("store").contains("state=CLOSED"));
+    }
+
+    @Test
+    public void testPublisherWithFakeTransport() throws Exception {
+        SteamTransport fake = new SteamTransport() {
+            @Override
+            public <T> CompletableFuture<T> get(URI uri, Map<String, String> headers, Duration timeout,
+                                                ResponseHandler<T> handler) {
+                String body = uri.getPath().contains("GetOwnedGames")
+                    ? "{\"response\":{\"games\":[{\"appid\":1,\"name\":\"One\"},{\"appid\":2,\"name\":\"Two\"}]}}"
+                    : "{}";
+                try {
+                    return CompletableFuture.completedFuture(handler.handle(new Response() {
+                        public int statusCode() { return 200; }
+                        public Optional<String> header(String name) { return Optional.empty(); }
+                        public InputStream body() { return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)); }
+                    }));
+                } catch (IOException e) {
+                    return CompletableFuture.failedFuture(e);
+                }
+            }
+        };
+
+        List<String> titles = new CopyOnWriteArrayList<>();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        client(fake).ownedGamesWithDetails("123").subscribe(new Flow.Subscriber<Game>() {
+            public void onSubscribe(Flow.Subscription subscription) { subscription.request(Long.MAX_VALUE); }
+            public void onNext(Game game) { titles.add(game.getTitle()); }
+            public void onError(Throwable error) { done.completeExceptionally(error); }
+            public void onComplete() { done.complete(null); }
+        });
+        done.get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, titles.size());
+        assertTrue(titles.contains("One"));
+        // Apps without store data get placeholder details, which are never cached
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.gameshop.services;
+
+import org.junit.Test;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class SteamSyncSchedulerTest {
+    private static final long HOUR = 3_600_000;
+
+    @Test
+    public void testDelayIsJitteredAroundInterval() {
+        Random random = new Random(42);
+        long min = Long.MAX_VALUE;
+        long max = 0;
+        for (int i = 0; i < 1000; i++) {
+            long delay = SteamSyncScheduler.nextDelayMillis(6 * HOUR, 0.2, false, 0, random);
+            min = Math.min(min, delay);
+            max = Math.max(max, delay);
+        }
+        assertTrue(min >= (long) (6 * HOUR * 0.8));
+        assertTrue(max <= (long) (6 * HOUR * 1.2));
+        // Actually spread, not a constant
+        assertTrue(max - min > HOUR);
+    }
+
+    @Test
+    public void testInactiveUsersSyncLessOften() {
+        long delay = SteamSyncScheduler.nextDelayMillis(6 * HOUR, 0, true, 0, new Random());
+        assertEquals(24 * HOUR, delay);
+    }
+
+    @Test
+    public void testFailuresBackOffUpToInterval() {
+        Random random = new Random();
+        long first = SteamSyncScheduler.nextDelayMillis(6 * HOUR, 0, false, 1, random);
+        long second = SteamSyncScheduler.nextDelayMillis(6 * HOUR, 0, false, 2, random);
+        long many = SteamSyncScheduler.nextDelayMillis(6 * HOUR, 0, false, 30, random);
+
+        assertEquals(5 * 60_000, first);
+        assertEquals(10 * 60_000, second);
+        assertEquals(6 * HOUR, many);
+    }
+
+    @Test
+    public void testConcurrentSyncsOfOneUserShareOneFetch() throws Exception {
+        AtomicInteger fetches = new AtomicInteger();
+        // The fetch never completes, so the database is never reached
+        SteamTransport stalled = new SteamTransport() {
+            @Override
+            public <T> CompletableFuture<T> get(URI uri, Map<String, String> headers, Duration timeout,
+                                                ResponseHandler<T> handler) {
+                fetches.incrementAndGet();
+                return new CompletableFuture<>();
+            }
+        };
+        SteamClient client = new SteamClient(stalled,
+            new SteamClient.Config("test-key", "http://steam.test", "http://store.test", Duration.ofSeconds(5), Duration.ofSeconds(5)),
+            new SteamClient.Limits(1000, 1000, 100, 1000, 1, 10, 100, 1000),
+            new AppDetailsCache(Files.createTempFile("appdetails", ".bin"), 60_000, 600_000));
+        SteamSyncScheduler scheduler = new SteamSyncScheduler(null, client, 6 * HOUR, 0.2, 24 * HOUR, 2, 60);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<CompletableFuture<?>>> calls = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                calls.add(executor.submit(() -> {
+                    start.await();
+                    return scheduler.sync(1, "76561197960287930");
+                }));
+            }
+            start.countDown();
+            CompletableFuture<?> first = calls.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<CompletableFuture<?>> call : calls) {
+                assertSame(first, call.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, fetches.get());
+            assertEquals(1, scheduler.getStats().getInFlight());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.gameshop.utils;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class CircuitBreakerTest {
+    private final AtomicLong now = new AtomicLong();
+    private final CircuitBreaker breaker = new CircuitBreaker("test", 3, 1000, now::get);
+
+    @Test
+    public void testOpensAfterConsecutiveFailures() throws Exception {
+        breaker.recordFailure();
+        breaker.recordFailure();
+        breaker.recordSuccess();
+        breaker.recordFailure();
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        try {
+            breaker.acquirePermission();
+            fail("expected OpenException");
+        } catch (CircuitBreaker.OpenException expected) {
+        }
+        assertEquals(1, breaker.getRejectedCalls());
+    }
+
+    @Test
+    public void testHalfOpenAllowsSingleTrial() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            breaker.recordFailure();
+        }
+        now.set(1000);
+        breaker.acquirePermission();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        try {
+            breaker.acquirePermission();
+            fail("only one trial call while half-open");
+        } catch (CircuitBreaker.OpenException expected) {
+        }
+
+        breaker.recordSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.acquirePermission();
+    }
+
+    @Test
+    public void testFailedTrialReopens() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            breaker.recordFailure();
+        }
+        now.set(1000);
+        breaker.acquirePermission();
+        breaker.recordFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(2, breaker.getTimesOpened());
+        now.set(1500);
+        try {
+            breaker.acquirePermission();
+            fail("open period restarts after a failed trial");
+        } catch (CircuitBreaker.OpenException expected) {
+        }
+    }
+
+    @Test
+    public void testReleasedTrialLeavesCircuitHalfOpen() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            breaker.recordFailure();
+        }
+        now.set(1000);
+        breaker.acquirePermission();
+        breaker.releasePermission();
+
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        // The next call becomes the trial
+        breaker.acquirePermission();
+        breaker.recordSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.gameshop.utils;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+
+import static org.junit.Assert.*;
+
+public class ConnectionPoolTest {
+    private static final String URL = "jdbc:h2:mem:gameshop-pool-test;DB_CLOSE_DELAY=-1";
+
+    private ConnectionPool pool;
+
+    @After
+    public void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    private ConnectionPool pool(int maxSize, long borrowTimeoutMillis, long validationIntervalMillis) {
+        pool = new ConnectionPool(URL, "sa", "", maxSize, borrowTimeoutMillis, 600_000, 1_800_000,
+            validationIntervalMillis);
+        return pool;
+    }
+
+    @Test
+    public void testBorrowTimesOutWhenPoolIsExhausted() throws Exception {
+        ConnectionPool pool = pool(1, 100, 30_000);
+        try (Connection held = pool.borrow()) {
+            long start = System.nanoTime();
+            try {
+                pool.borrow();
+                fail("expected a borrow timeout");
+            } catch (SQLTimeoutException expected) {
+            }
+            assertTrue(System.nanoTime() - start >= 90_000_000L);
+            assertEquals(1, pool.getStats().getTimeouts());
+            assertFalse(held.isClosed());
+        }
+        // The permit came back with the connection
+        try (Connection again = pool.borrow()) {
+            assertFalse(again.isClosed());
+        }
+    }
+
+    @Test
+    public void testClosingAStaleHandleTwiceReturnsItOnce() throws Exception {
+        ConnectionPool pool = pool(1, 100, 30_000);
+        Connection stale = pool.borrow();
+        stale.close();
+
+        Connection current = pool.borrow();
+        stale.close();
+        assertEquals(1, pool.getStats().getActive());
+        // Had the second close released a permit, this borrow would get the pool's only connection too
+        try {
+            pool.borrow();
+            fail("expected a borrow timeout");
+        } catch (SQLTimeoutException expected) {
+        }
+        try (Statement stmt = current.createStatement()) {
+            assertTrue(stmt.execute("SELECT 1"));
+        }
+        current.close();
+        assertEquals(0, pool.getStats().getActive());
+    }
+
+    @Test
+    public void testReturnedHandleRejectsEverythingButCloseAndIsClosed() throws Exception {
+        ConnectionPool pool = pool(1, 100, 30_000);
+        Connection handle = pool.borrow();
+        assertTrue(handle.isWrapperFor(Connection.class));
+        handle.close();
+
+        assertTrue(handle.isClosed());
+        handle.close();
+        try {
+            handle.unwrap(Connection.class);
+            fail("unwrap reached the physical connection");
+        } catch (SQLException expected) {
+        }
+        try {
+            handle.isWrapperFor(Connection.class);
+            fail("isWrapperFor reached the physical connection");
+        } catch (SQLException expected) {
+        }
+        try {
+            handle.createStatement();
+            fail("createStatement reached the physical connection");
+        } catch (SQLException expected) {
+        }
+    }
+
+    @Test
+    public void testBrokenIdleConnectionIsReplacedOnBorrow() throws Exception {
+        // Validate on every borrow
+        ConnectionPool pool = pool(1, 100, 0);
+        Connection physical;
+        try (Connection handle = pool.borrow()) {
+            physical = handle.unwrap(Connection.class);
+        }
+        // The server drops the socket while the connection sits idle
+        physical.close();
+
+        try (Connection handle = pool.borrow();
+             Statement stmt = handle.createStatement()) {
+            assertTrue(stmt.execute("SELECT 1"));
+        }
+        ConnectionPool.Stats stats = pool.getStats();
+        assertEquals(1, stats.getValidationFailures());
+        assertEquals(2, stats.getCreated());
+        assertEquals(1, stats.getDestroyed());
+    }
+
+    @Test
+    public void testBorrowerStateIsResetOnReturn() throws Exception {
+        ConnectionPool pool = pool(1, 100, 30_000);
+        try (Connection handle = pool.borrow()) {
+            handle.setAutoCommit(false);
+            handle.setReadOnly(true);
+        }
+        try (Connection handle = pool.borrow()) {
+            assertTrue(handle.getAutoCommit());
+            assertFalse(handle.isReadOnly());
+        }
+        assertEquals(1, pool.getStats().getCreated());
+    }
+}
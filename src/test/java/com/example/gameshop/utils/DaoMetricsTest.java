@@ -0,0 +1,72 @@
+package com.example.gameshop.utils;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class DaoMetricsTest {
+
+    @Test
+    public void testHistogramPercentilesWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        // 1ms .. 1000ms
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1_000_000L);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1_000_000_000L, histogram.getMax());
+        assertEquals(500.5e6, histogram.getMean(), 1.0);
+        assertEquals(500e6, histogram.getValueAtPercentile(50), 500e6 * 0.04);
+        assertEquals(990e6, histogram.getValueAtPercentile(99), 990e6 * 0.04);
+        assertEquals(1_000_000_000L, histogram.getValueAtPercentile(100));
+        assertEquals(0, new LatencyHistogram().getValueAtPercentile(99));
+    }
+
+    @Test
+    public void testBucketsAreMonotonic() {
+        int previous = -1;
+        for (long value = 0; value < 1L << 20; value += 97) {
+            int index = LatencyHistogram.indexOf(value);
+            assertTrue(index >= previous);
+            assertTrue(LatencyHistogram.highestEquivalentValue(index) >= value);
+            previous = index;
+        }
+    }
+
+    @Test
+    public void testRecordsPerMethodAndSlowQueries() {
+        DaoMetrics metrics = new DaoMetrics(100, 2);
+
+        metrics.recordExecution("DatabaseManager.getAllGames", "SELECT *\n  FROM games", "[]", 2_000_000, false, 0);
+        metrics.recordRows("DatabaseManager.getAllGames", 40);
+        metrics.recordExecution("DatabaseManager.searchUsers", "SELECT * FROM users WHERE username LIKE ?",
+            "[String]", 150_000_000, false, 0);
+        metrics.recordExecution("DatabaseManager.addGame", "INSERT INTO games VALUES (?, ?)",
+            "[String, BigDecimal]", 300_000_000, true, 0);
+        metrics.recordExecution("DatabaseManager.addGame", "INSERT INTO games VALUES (?, ?)",
+            "[String, null]", 400_000_000, false, 1);
+
+        List<DaoMetrics.MethodSnapshot> stats = metrics.getMethodStats();
+        assertEquals(3, stats.size());
+        DaoMetrics.MethodSnapshot slowest = stats.get(0);
+        assertEquals("DatabaseManager.addGame", slowest.getMethod());
+        assertEquals(2, slowest.getCalls());
+        assertEquals(1, slowest.getErrors());
+        assertEquals(1, slowest.getRows());
+        assertEquals(400.0, slowest.getMaxMillis(), 0.001);
+        assertEquals(40, stats.get(2).getRows());
+
+        // Log is bounded and most recent first
+        List<DaoMetrics.SlowQuery> slow = metrics.getSlowQueries();
+        assertEquals(2, slow.size());
+        assertEquals("[String, null]", slow.get(0).getParams());
+        assertTrue(slow.get(1).isFailed());
+
+        metrics.reset();
+        assertTrue(metrics.getMethodStats().isEmpty());
+        assertTrue(metrics.getSlowQueries().isEmpty());
+    }
+}
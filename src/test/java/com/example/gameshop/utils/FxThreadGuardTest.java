@@ -0,0 +1,50 @@
+package com.example.gameshop.utils;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class FxThreadGuardTest {
+    private final AtomicBoolean onFxThread = new AtomicBoolean(true);
+
+    @Test
+    public void testRecordsCallsOnFxThread() throws Exception {
+        FxThreadGuard guard = new FxThreadGuard(FxThreadGuard.Mode.RECORD, onFxThread::get);
+
+        for (int i = 0; i < 3; i++) {
+            FxThreadGuard.Call call = guard.enter("jdbc");
+            assertNotNull(call);
+            Thread.sleep(5);
+            call.end();
+        }
+
+        assertEquals(1, guard.getSites().size());
+        FxThreadGuard.Site site = guard.getSites().get(0);
+        assertEquals("jdbc", site.getKind());
+        assertEquals(3, site.getCount());
+        assertTrue(site.getMaxMillis() >= 4);
+        assertEquals(3, guard.getTotalCalls());
+
+        guard.reset();
+        assertEquals(0, guard.getTotalCalls());
+    }
+
+    @Test
+    public void testWorkerThreadsAndOffModeAreIgnored() {
+        FxThreadGuard guard = new FxThreadGuard(FxThreadGuard.Mode.RECORD, onFxThread::get);
+        onFxThread.set(false);
+        assertNull(guard.enter("jdbc"));
+
+        onFxThread.set(true);
+        guard.setMode(FxThreadGuard.Mode.OFF);
+        assertNull(guard.enter("jdbc"));
+        assertTrue(guard.getSites().isEmpty());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testStrictModeThrows() {
+        new FxThreadGuard(FxThreadGuard.Mode.STRICT, onFxThread::get).enter("steam");
+    }
+}
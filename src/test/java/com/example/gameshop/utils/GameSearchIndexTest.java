@@ -0,0 +1,82 @@
+package com.example.gameshop.utils;
+
+import com.example.gameshop.models.Game;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class GameSearchIndexTest {
+    private GameSearchIndex index;
+
+    private static Game game(int id, String title, String developer, String genre) {
+        Game game = new Game(title, "Description", 19.99);
+        game.setGameId(id);
+        game.setDeveloper(developer);
+        game.setGenre(genre);
+        return game;
+    }
+
+    @Before
+    public void setUp() {
+        index = new GameSearchIndex();
+        List<Game> games = new ArrayList<>();
+        games.add(game(1, "Counter-Strike 2", "Valve", "Action"));
+        games.add(game(2, "Portal", "Valve", "Puzzle"));
+        games.add(game(3, "Strike Force", "Acme", "Action"));
+        games.add(game(4, "Lucky Strikes Bowling", "Valve Fan Studio", "Sports"));
+        index.onReload(games);
+    }
+
+    @Test
+    public void testSubstringSearch() {
+        List<Game> results = index.search("strike", 10);
+        assertEquals(3, results.size());
+        // Title prefix ranks ahead of word-prefix matches
+        assertEquals("Strike Force", results.get(0).getTitle());
+    }
+
+    @Test
+    public void testMetadataMatchesRankBelowTitleMatches() {
+        index.onUpsert(game(6, "Valve Complete Pack", "Valve", "Bundle"));
+
+        List<Game> results = index.search("valve", 10);
+        assertEquals(4, results.size());
+        // The only title hit comes first, ahead of the games that match on developer alone
+        assertEquals("Valve Complete Pack", results.get(0).getTitle());
+        assertTrue(results.subList(1, 4).stream().anyMatch(g -> g.getTitle().equals("Portal")));
+    }
+
+    @Test
+    public void testShortQueryUsesWordPrefix() {
+        List<Game> results = index.search("po", 10);
+        assertEquals(1, results.size());
+        assertEquals("Portal", results.get(0).getTitle());
+    }
+
+    @Test
+    public void testNoMatch() {
+        assertTrue(index.search("zelda", 10).isEmpty());
+        assertTrue(index.search("   ", 10).isEmpty());
+    }
+
+    @Test
+    public void testIncrementalUpdates() {
+        index.onUpsert(game(2, "Portal 2", "Valve", "Puzzle"));
+        index.onUpsert(game(5, "Half-Life", "Valve", "Action"));
+        index.onRemove(3);
+
+        assertEquals("Portal 2", index.search("portal", 10).get(0).getTitle());
+        assertEquals(1, index.search("half", 10).size());
+        assertEquals(2, index.search("strike", 10).size());
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    public void testLimit() {
+        assertEquals(1, index.search("strike", 1).size());
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.gameshop.utils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class SchemaMigratorTest {
+    private Connection conn;
+
+    @Before
+    public void setUp() throws SQLException {
+        conn = DriverManager.getConnection(
+            "jdbc:h2:mem:migrator-test;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP ALL OBJECTS");
+        }
+        conn.close();
+    }
+
+    @Test
+    public void testMigratesEmptyDatabaseOnce() throws SQLException {
+        assertEquals(0, SchemaMigrator.getCurrentVersion(conn));
+        assertEquals(3, SchemaMigrator.migrate(conn));
+        assertEquals(3, SchemaMigrator.getCurrentVersion(conn));
+        assertEquals(0, SchemaMigrator.migrate(conn));
+
+        assertTrue(indexNames("user_games").contains("idx_user_games_user_game"));
+        assertTrue(indexNames("game_keys").contains("idx_game_keys_game_sold"));
+        // Already covered by the baseline's UNIQUE constraints
+        assertFalse(indexNames("users").contains("idx_users_username"));
+        assertFalse(indexNames("friends").contains("idx_friends_user"));
+    }
+
+    @Test
+    public void testUpgradesDatabaseFromOriginalReadmeSchema() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE users (user_id INT PRIMARY KEY AUTO_INCREMENT, " +
+                "username VARCHAR(50) NOT NULL UNIQUE, password VARCHAR(100) NOT NULL, email VARCHAR(100) NOT NULL, " +
+                "role VARCHAR(20) DEFAULT 'USER', balance DECIMAL(10,2) DEFAULT 0.0, steam_id VARCHAR(50))");
+            stmt.execute("CREATE TABLE games (game_id INT PRIMARY KEY AUTO_INCREMENT, title VARCHAR(100) NOT NULL, " +
+                "description TEXT, price DECIMAL(10,2) NOT NULL, app_id INT, developer VARCHAR(100), " +
+                "publisher VARCHAR(100), genre VARCHAR(50))");
+            stmt.execute("CREATE TABLE game_keys (key_id INT PRIMARY KEY AUTO_INCREMENT, game_id INT NOT NULL, " +
+                "key_value VARCHAR(100) NOT NULL, is_sold BOOLEAN DEFAULT false, " +
+                "FOREIGN KEY (game_id) REFERENCES games(game_id))");
+            stmt.execute("CREATE TABLE steam_games (id INT PRIMARY KEY AUTO_INCREMENT, user_id INT NOT NULL, " +
+                "app_id INT NOT NULL, name VARCHAR(100), playtime_minutes INT DEFAULT 0)");
+            // The upsert without a unique key only ever inserted
+            stmt.execute("INSERT INTO steam_games (user_id, app_id, playtime_minutes) VALUES " +
+                "(1, 10, 5), (1, 10, 7), (1, 20, 1), (2, 10, 3)");
+        }
+
+        assertEquals(3, SchemaMigrator.migrate(conn));
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("UPDATE users SET last_login = NOW()");
+            stmt.execute("UPDATE game_keys SET user_id = NULL, reserved_by = NULL, reserved_until = NULL");
+            stmt.executeQuery("SELECT title, playtime, name, playtime_minutes FROM steam_games").close();
+        }
+        assertTrue(indexNames("game_keys").contains("idx_game_keys_reserved_by"));
+        assertTrue(indexNames("steam_games").contains("unique_steam_game"));
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*), SUM(playtime_minutes) FROM steam_games")) {
+            assertTrue(rs.next());
+            assertEquals(3, rs.getInt(1));
+            assertEquals(7 + 1 + 3, rs.getInt(2));
+        }
+    }
+
+    @Test
+    public void testSkipsIndexesCoveredByExistingOnes() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE user_games (id INT PRIMARY KEY, user_id INT, game_id INT, purchase_date TIMESTAMP)");
+            stmt.execute("CREATE INDEX legacy_owner ON user_games (user_id, game_id, purchase_date)");
+            stmt.execute("CREATE INDEX legacy_game ON user_games (game_id, user_id)");
+        }
+
+        assertEquals("legacy_owner",
+            SchemaMigrator.findExistingIndex(conn, "CREATE INDEX idx_a ON user_games (user_id, game_id)"));
+        assertEquals("legacy_owner",
+            SchemaMigrator.findExistingIndex(conn, "CREATE INDEX legacy_owner ON user_games (purchase_date)"));
+        assertNull(SchemaMigrator.findExistingIndex(conn, "CREATE INDEX idx_b ON user_games (purchase_date)"));
+        // A plain index doesn't enforce uniqueness
+        assertNull(SchemaMigrator.findExistingIndex(conn,
+            "CREATE UNIQUE INDEX idx_c ON user_games (user_id, game_id)"));
+        assertNull(SchemaMigrator.findExistingIndex(conn, "ALTER TABLE user_games ADD COLUMN x INT"));
+        assertTrue(SchemaMigrator.columnExists(conn, "ALTER TABLE user_games ADD COLUMN purchase_date TIMESTAMP"));
+        assertFalse(SchemaMigrator.columnExists(conn, "ALTER TABLE user_games ADD COLUMN refunded BOOLEAN"));
+    }
+
+    private Set<String> indexNames(String table) throws SQLException {
+        Set<String> names = new HashSet<>();
+        try (ResultSet rs = conn.getMetaData().getIndexInfo(conn.getCatalog(), conn.getSchema(), table, false, false)) {
+            while (rs.next()) {
+                names.add(rs.getString("INDEX_NAME").toLowerCase());
+            }
+        }
+        return names;
+    }
+}
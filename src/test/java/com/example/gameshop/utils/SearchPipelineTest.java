@@ -0,0 +1,72 @@
+package com.example.gameshop.utils;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class SearchPipelineTest {
+    @Test
+    public void testBurstIsCoalescedIntoOneQuery() throws Exception {
+        List<String> executed = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        SearchPipeline<String> pipeline = new SearchPipeline<>(100,
+            text -> {
+                executed.add(text);
+                return text.toUpperCase();
+            },
+            Runnable::run,
+            (text, result) -> done.countDown(),
+            (text, e) -> fail(e.getMessage()));
+
+        pipeline.submit("c");
+        pipeline.submit("co");
+        pipeline.submit("cou");
+
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        assertEquals(1, executed.size());
+        assertEquals("cou", executed.get(0));
+        assertEquals(2, pipeline.getStats().getCoalesced());
+    }
+
+    @Test
+    public void testSupersededResultIsDiscarded() throws Exception {
+        List<String> delivered = new CopyOnWriteArrayList<>();
+        CountDownLatch slowStarted = new CountDownLatch(1);
+        CountDownLatch fastDelivered = new CountDownLatch(1);
+        SearchPipeline<String> pipeline = new SearchPipeline<>(10,
+            text -> {
+                if (text.equals("slow")) {
+                    slowStarted.countDown();
+                    try {
+                        Thread.sleep(300);
+                    } catch (InterruptedException e) {
+                        // Cancelled by the newer query; still return so delivery gets checked
+                    }
+                }
+                return text;
+            },
+            Runnable::run,
+            (text, result) -> {
+                delivered.add(result);
+                if (result.equals("fast")) {
+                    fastDelivered.countDown();
+                }
+            },
+            (text, e) -> fail(e.getMessage()));
+
+        pipeline.submit("slow");
+        assertTrue(slowStarted.await(2, TimeUnit.SECONDS));
+        pipeline.submit("fast");
+
+        assertTrue(fastDelivered.await(2, TimeUnit.SECONDS));
+        Thread.sleep(400);
+        assertEquals(1, delivered.size());
+        assertEquals("fast", delivered.get(0));
+        assertEquals(1, pipeline.getStats().getStaleDiscarded());
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.gameshop.utils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.Assert.*;
+
+public class SqlDialectTest {
+    private Connection conn;
+
+    @Before
+    public void setUp() throws SQLException {
+        conn = DriverManager.getConnection(
+            "jdbc:h2:mem:dialect-test;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        SchemaMigrator.migrate(conn);
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP ALL OBJECTS");
+        }
+        conn.close();
+    }
+
+    @Test
+    public void testForUrl() {
+        assertEquals(SqlDialect.H2, SqlDialect.forUrl("jdbc:h2:file:/tmp/gameshop;MODE=MySQL"));
+        assertEquals(SqlDialect.MYSQL, SqlDialect.forUrl("jdbc:mysql://localhost:3306/gameshop"));
+    }
+
+    @Test
+    public void testMysqlUpsert() {
+        SqlDialect dialect = SqlDialect.MYSQL;
+        String sql = dialect.upsert("steam_games", new String[] {"user_id", "app_id", "playtime"},
+            new String[] {"user_id", "app_id"}, "playtime = " + dialect.incoming("playtime"));
+        assertEquals("INSERT INTO steam_games (user_id, app_id, playtime) VALUES (?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE playtime = VALUES(playtime)", sql);
+    }
+
+    @Test
+    public void testH2UpsertInsertsThenUpdates() throws SQLException {
+        SqlDialect dialect = SqlDialect.H2;
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO users (user_id, username, password, email) VALUES (1, 'a', 'p', 'a@x')");
+        }
+        // Same shape as DatabaseManager.saveSteamSyncState: a parameter inside the update clause
+        String sql = dialect.upsert("steam_sync_state",
+            new String[] {"user_id", "consecutive_failures", "last_error"}, new String[] {"user_id"},
+            "consecutive_failures = CASE WHEN ? THEN 0 ELSE " + dialect.existing("consecutive_failures") + " + 1 END",
+            "last_error = " + dialect.incoming("last_error"));
+
+        upsertSyncState(sql, false, "first");
+        assertSyncState(0, "first");
+        upsertSyncState(sql, false, "second");
+        assertSyncState(1, "second");
+        upsertSyncState(sql, true, null);
+        assertSyncState(0, null);
+    }
+
+    private void upsertSyncState(String sql, boolean success, String error) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, 1);
+            stmt.setInt(2, 0);
+            stmt.setString(3, error);
+            stmt.setBoolean(4, success);
+            assertEquals(1, stmt.executeUpdate());
+        }
+    }
+
+    private void assertSyncState(int failures, String error) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT consecutive_failures, last_error FROM steam_sync_state")) {
+            assertTrue(rs.next());
+            assertEquals(failures, rs.getInt(1));
+            assertEquals(error, rs.getString(2));
+            assertFalse(rs.next());
+        }
+    }
+}
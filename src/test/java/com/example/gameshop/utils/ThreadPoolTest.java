@@ -0,0 +1,142 @@
+package com.example.gameshop.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ThreadPoolTest {
+
+    @Test
+    public void testStatsRecordedPerTaskType() throws Exception {
+        CountDownLatch done = new CountDownLatch(3);
+        for (int i = 0; i < 3; i++) {
+            ThreadPool.execute(ThreadPool.Lane.BACKGROUND, "test.stats", () -> {
+                sleep(20);
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        Thread.sleep(50);
+
+        ThreadPool.TaskStats.Snapshot stats = ThreadPool.getTaskStats().get("test.stats");
+        assertEquals(3, stats.getSubmitted());
+        assertEquals(3, stats.getCompleted());
+        assertTrue(stats.getAvgRunMillis() >= 15);
+    }
+
+    @Test
+    public void testBackgroundWorkDoesNotBlockInteractiveLane() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        int backgroundThreads = ThreadPool.getLaneStats().get(1).getThreads();
+        for (int i = 0; i < backgroundThreads + 5; i++) {
+            ThreadPool.execute(ThreadPool.Lane.BACKGROUND, "test.slow", () -> await(release));
+        }
+        try {
+            CountDownLatch ran = new CountDownLatch(1);
+            ThreadPool.execute(ThreadPool.Lane.INTERACTIVE, "test.fast", ran::countDown);
+            assertTrue("interactive task starved", ran.await(2, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void testGroupCancelsQueuedTasks() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        int threads = ThreadPool.getLaneStats().get(0).getThreads();
+        List<Future<?>> blockers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            blockers.add(ThreadPool.submit(ThreadPool.Lane.INTERACTIVE, "test.block", () -> await(release)));
+        }
+        AtomicInteger ran = new AtomicInteger();
+        ThreadPool.TaskGroup group = ThreadPool.newGroup("test");
+        for (int i = 0; i < 5; i++) {
+            group.execute("queued", ran::incrementAndGet);
+        }
+        assertEquals(5, group.getPending());
+
+        try {
+            assertEquals(5, group.cancelAll());
+        } finally {
+            release.countDown();
+        }
+        for (Future<?> blocker : blockers) {
+            blocker.get(5, TimeUnit.SECONDS);
+        }
+        Thread.sleep(50);
+        assertEquals(0, ran.get());
+        assertEquals(5, ThreadPool.getTaskStats().get("test.queued").getCancelled());
+    }
+
+    @Test
+    public void testGroupLeavesRunningTasksAlone() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger finished = new AtomicInteger();
+        ThreadPool.TaskGroup group = ThreadPool.newGroup("test");
+        Future<?> running = group.execute("running", () -> {
+            started.countDown();
+            await(release);
+            finished.incrementAndGet();
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        try {
+            assertEquals(0, group.cancelAll());
+        } finally {
+            release.countDown();
+        }
+        running.get(5, TimeUnit.SECONDS);
+        assertFalse(running.isCancelled());
+        assertEquals(1, finished.get());
+        ThreadPool.TaskStats.Snapshot stats = ThreadPool.getTaskStats().get("test.running");
+        assertEquals(0, stats.getCancelled());
+        assertEquals(1, stats.getCompleted());
+    }
+
+    @Test
+    public void testFullLaneRejects() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        int rejectedBefore = (int) ThreadPool.getLaneStats().get(0).getRejected();
+        try {
+            boolean rejected = false;
+            // Threads plus the whole queue, then one more
+            for (int i = 0; i < 10_000 && !rejected; i++) {
+                try {
+                    ThreadPool.execute(ThreadPool.Lane.INTERACTIVE, "test.flood", () -> await(release));
+                } catch (RejectedExecutionException e) {
+                    rejected = true;
+                }
+            }
+            assertTrue(rejected);
+            assertEquals(rejectedBefore + 1, ThreadPool.getLaneStats().get(0).getRejected());
+            assertEquals(1, ThreadPool.getTaskStats().get("test.flood").getRejected());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.gameshop.utils;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class TokenBucketRateLimiterTest {
+
+    @Test
+    public void testBurstIsImmediateThenQueued() throws Exception {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter("test", 20, 5, 100);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.acquire().isDone());
+        }
+        CompletableFuture<Void> queued = limiter.acquire();
+        assertFalse(queued.isDone());
+        assertEquals(1, limiter.getStats().getQueueDepth());
+
+        queued.get(1, TimeUnit.SECONDS);
+        assertEquals(0, limiter.getStats().getQueueDepth());
+        assertEquals(6, limiter.getStats().getAcquired());
+        assertTrue(limiter.getStats().getMaxWaitMillis() > 0);
+    }
+
+    @Test
+    public void testSustainedRateStaysAtLimit() throws Exception {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter("test", 50, 1, 100);
+        long start = System.nanoTime();
+        CompletableFuture<?>[] permits = new CompletableFuture<?>[26];
+        for (int i = 0; i < permits.length; i++) {
+            permits[i] = limiter.acquire();
+        }
+        CompletableFuture.allOf(permits).get(5, TimeUnit.SECONDS);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // 25 permits beyond the burst at 50/s take at least half a second
+        assertTrue("too fast: " + elapsedMs + "ms", elapsedMs >= 450);
+    }
+
+    @Test
+    public void testFullQueueRejects() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter("test", 0.1, 1, 2);
+        limiter.acquire();
+        limiter.acquire();
+        limiter.acquire();
+
+        try {
+            limiter.acquire().get();
+            fail("expected rejection");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        } catch (InterruptedException e) {
+            fail();
+        }
+        assertEquals(1, limiter.getStats().getRejected());
+        assertEquals(2, limiter.getStats().getMaxQueueDepth());
+    }
+}